@@ -1,11 +1,28 @@
 package com.example.api.composite;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
+/**
+ * Composite view of a product. The cursors are only set on a paginated read that has more recommendations or
+ * reviews to fetch, they are passed as {@code recommendationsAfter}/{@code reviewsAfter} to get the next page.
+ * On a projected read the recommendations and reviews that were not included are left out, the review count is only
+ * set when it was included.
+ */
 public record ProductAggregate(
     int productId,
     String name,
     int weight,
-    List<RecommendationSummary> recommendations,
-    List<ReviewSummary> reviews,
-    ServiceAddresses serviceAddresses) {}
+    @JsonInclude(JsonInclude.Include.NON_NULL) List<RecommendationSummary> recommendations,
+    @JsonInclude(JsonInclude.Include.NON_NULL) List<ReviewSummary> reviews,
+    ServiceAddresses serviceAddresses,
+    @JsonInclude(JsonInclude.Include.NON_NULL) Integer nextRecommendationsCursor,
+    @JsonInclude(JsonInclude.Include.NON_NULL) Integer nextReviewsCursor,
+    @JsonInclude(JsonInclude.Include.NON_NULL) Long reviewCount) {
+
+  public ProductAggregate(int productId, String name, int weight, List<RecommendationSummary> recommendations,
+                          List<ReviewSummary> reviews, ServiceAddresses serviceAddresses) {
+    this(productId, name, weight, recommendations, reviews, serviceAddresses, null, null, null);
+  }
+}
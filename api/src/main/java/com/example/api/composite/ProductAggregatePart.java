@@ -0,0 +1,29 @@
+package com.example.api.composite;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One element of a streamed composite product: the product header, followed by its recommendations and reviews
+ * in the order they arrive from the core services. Only the field matching {@code type} is set.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductAggregatePart(
+    Type type,
+    ProductSummary product,
+    RecommendationSummary recommendation,
+    ReviewSummary review) {
+
+  public enum Type {PRODUCT, RECOMMENDATION, REVIEW}
+
+  public static ProductAggregatePart of(ProductSummary product) {
+    return new ProductAggregatePart(Type.PRODUCT, product, null, null);
+  }
+
+  public static ProductAggregatePart of(RecommendationSummary recommendation) {
+    return new ProductAggregatePart(Type.RECOMMENDATION, null, recommendation, null);
+  }
+
+  public static ProductAggregatePart of(ReviewSummary review) {
+    return new ProductAggregatePart(Type.REVIEW, null, null, review);
+  }
+}
@@ -6,8 +6,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Tag(name = "ProductComposite", description = "REST API for composite product information.")
 public interface ProductCompositeService {
 
@@ -23,6 +26,59 @@ public interface ProductCompositeService {
   @GetMapping(value = "/product-composite/{productId}", produces = "application/json")
   Mono<ProductAggregate> getCompositeProduct(@PathVariable int productId);
 
+  @Operation(
+      summary = "${api.product-composite.get-composite-product-projection.description}",
+      description = "${api.product-composite.get-composite-product-projection.notes}")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "${api.responseCodes.ok.description}"),
+      @ApiResponse(responseCode = "400", description = "${api.responseCodes.badRequest.description}"),
+      @ApiResponse(responseCode = "404", description = "${api.responseCodes.notFound.description}"),
+      @ApiResponse(responseCode = "422", description = "${api.responseCodes.unprocessableEntity.description}")
+  })
+  @GetMapping(value = "/product-composite/{productId}", params = {"include", "!limit"}, produces = "application/json")
+  Mono<ProductAggregate> getCompositeProduct(
+      @PathVariable int productId,
+      @RequestParam(value = "include") List<String> include);
+
+  @Operation(
+      summary = "${api.product-composite.get-composite-product-page.description}",
+      description = "${api.product-composite.get-composite-product-page.notes}")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "${api.responseCodes.ok.description}"),
+      @ApiResponse(responseCode = "400", description = "${api.responseCodes.badRequest.description}"),
+      @ApiResponse(responseCode = "404", description = "${api.responseCodes.notFound.description}"),
+      @ApiResponse(responseCode = "422", description = "${api.responseCodes.unprocessableEntity.description}")
+  })
+  @GetMapping(value = "/product-composite/{productId}", params = "limit", produces = "application/json")
+  Mono<ProductAggregate> getCompositeProduct(
+      @PathVariable int productId,
+      @RequestParam(value = "recommendationsAfter", defaultValue = "0") int recommendationsAfter,
+      @RequestParam(value = "reviewsAfter", defaultValue = "0") int reviewsAfter,
+      @RequestParam(value = "limit") int limit);
+
+  @Operation(
+      summary = "${api.product-composite.stream-composite-product.description}",
+      description = "${api.product-composite.stream-composite-product.notes}")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "${api.responseCodes.ok.description}"),
+      @ApiResponse(responseCode = "400", description = "${api.responseCodes.badRequest.description}"),
+      @ApiResponse(responseCode = "404", description = "${api.responseCodes.notFound.description}"),
+      @ApiResponse(responseCode = "422", description = "${api.responseCodes.unprocessableEntity.description}")
+  })
+  @GetMapping(value = "/product-composite/{productId}/stream", produces = {"application/x-ndjson", "text/event-stream"})
+  Flux<ProductAggregatePart> streamCompositeProduct(@PathVariable int productId);
+
+  @Operation(
+      summary = "${api.product-composite.get-composite-products.description}",
+      description = "${api.product-composite.get-composite-products.notes}")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "${api.responseCodes.ok.description}"),
+      @ApiResponse(responseCode = "400", description = "${api.responseCodes.badRequest.description}"),
+      @ApiResponse(responseCode = "422", description = "${api.responseCodes.unprocessableEntity.description}")
+  })
+  @GetMapping(value = "/product-composite", produces = {"application/json", "application/x-ndjson"})
+  Flux<ProductAggregate> getCompositeProducts(@RequestParam(value = "ids") List<Integer> productIds);
+
   @Operation(
       summary = "${api.product-composite.create-composite-product.description}",
       description = "${api.product-composite.create-composite-product.notes}")
@@ -0,0 +1,3 @@
+package com.example.api.composite;
+
+public record ProductSummary(int productId, String name, int weight) {}
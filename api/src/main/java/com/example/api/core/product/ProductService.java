@@ -3,12 +3,18 @@ package com.example.api.core.product;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface ProductService {
   @GetMapping(value = "/product/{productId}", produces = MediaType.APPLICATION_JSON_VALUE)
   Mono<Product> getProduct(@PathVariable int productId);
 
+  @GetMapping(value = "/product", params = "productIds", produces = MediaType.APPLICATION_JSON_VALUE)
+  Flux<Product> getProducts(@RequestParam(value = "productIds") List<Integer> productIds);
+
   @PostMapping(value = {"/product", "/product/"}, consumes = MediaType.APPLICATION_JSON_VALUE,
       produces = MediaType.APPLICATION_JSON_VALUE)
   @ResponseStatus(HttpStatus.ACCEPTED)
@@ -5,15 +5,37 @@ import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface RecommendationService {
 
   @GetMapping(value = "/recommendation", produces = "application/json")
   Flux<Recommendation> getRecommendations(@RequestParam(value = "productId") int productId);
 
+  /**
+   * Keyset paginated variant: returns at most {@code limit} recommendations with a recommendationId greater than
+   * {@code after}, ordered by recommendationId. The last recommendationId of a page is the cursor of the next one.
+   */
+  @GetMapping(value = "/recommendation", params = {"productId", "limit"}, produces = "application/json")
+  Flux<Recommendation> getRecommendations(
+      @RequestParam(value = "productId") int productId,
+      @RequestParam(value = "after", defaultValue = "0") int after,
+      @RequestParam(value = "limit") int limit);
+
+  @GetMapping(value = "/recommendation", params = "productIds", produces = "application/json")
+  Flux<Recommendation> getRecommendations(@RequestParam(value = "productIds") List<Integer> productIds);
+
   @PostMapping(value = "/recommendation", consumes = MediaType.APPLICATION_JSON_VALUE,
       produces = MediaType.APPLICATION_JSON_VALUE)
   Mono<Recommendation> createRecommendation(@RequestBody Recommendation body);
 
+  /**
+   * Creates all recommendations of the body with one bulk write, they are expected to belong to the same product.
+   */
+  @PostMapping(value = "/recommendation/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  Flux<Recommendation> createRecommendations(@RequestBody List<Recommendation> body);
+
   @DeleteMapping(value = "/recommendation")
   Mono<Void> deleteRecommendations(@RequestParam(value = "productId") int productId);
 }
@@ -5,15 +5,43 @@ import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface ReviewService {
 
   @GetMapping(value = "/review", produces = "application/json")
   Flux<Review> getReviews(@RequestParam(value = "productId") int productId);
 
+  /**
+   * Keyset paginated variant: returns at most {@code limit} reviews with a reviewId greater than {@code after},
+   * ordered by reviewId. The last reviewId of a page is the cursor of the next one.
+   */
+  @GetMapping(value = "/review", params = {"productId", "limit"}, produces = "application/json")
+  Flux<Review> getReviews(
+      @RequestParam(value = "productId") int productId,
+      @RequestParam(value = "after", defaultValue = "0") int after,
+      @RequestParam(value = "limit") int limit);
+
+  @GetMapping(value = "/review", params = "productIds", produces = "application/json")
+  Flux<Review> getReviews(@RequestParam(value = "productIds") List<Integer> productIds);
+
+  /**
+   * Number of reviews of the product, counted by the database without reading the reviews.
+   */
+  @GetMapping(value = "/review/count", produces = "application/json")
+  Mono<Long> countReviews(@RequestParam(value = "productId") int productId);
+
   @PostMapping(value = "/review", consumes = MediaType.APPLICATION_JSON_VALUE,
       produces = MediaType.APPLICATION_JSON_VALUE)
   Mono<Review> createReview(@RequestBody Review body);
 
+  /**
+   * Creates all reviews of the body with one bulk write, they are expected to belong to the same product.
+   */
+  @PostMapping(value = "/review/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  Flux<Review> createReviews(@RequestBody List<Review> body);
+
   @DeleteMapping(value = "/review")
   Mono<Void> deleteReviews(@RequestParam(value = "productId") int productId);
 
@@ -1,11 +1,32 @@
 package com.example.api.event;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * A {@code CREATE_BATCH} event carries its entities in {@code batch} instead of {@code data}, they all belong to
+ * the product given by {@code key} and are applied as one bulk write.
+ */
+public record Event<K, T> (
+    Event.Type eventType,
+    K key,
+    T data,
+    ZonedDateTime eventCreatedAt,
+    @JsonInclude(JsonInclude.Include.NON_NULL) List<T> batch) {
 
-public record Event<K, T> (Event.Type eventType, K key, T data, ZonedDateTime eventCreatedAt) {
-  public enum Type {CREATE, DELETE}
+  public enum Type {CREATE, CREATE_BATCH, DELETE}
 
   public Event(Type eventType, K key, T data) {
-    this(eventType, key, data, ZonedDateTime.now());
+    this(eventType, key, data, ZonedDateTime.now(), null);
+  }
+
+  public Event(Type eventType, K key, T data, ZonedDateTime eventCreatedAt) {
+    this(eventType, key, data, eventCreatedAt, null);
+  }
+
+  public static <K, T> Event<K, T> createBatch(K key, List<T> batch) {
+    return new Event<>(Type.CREATE_BATCH, key, null, ZonedDateTime.now(), List.copyOf(batch));
   }
 }
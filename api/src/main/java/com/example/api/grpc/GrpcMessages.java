@@ -0,0 +1,70 @@
+package com.example.api.grpc;
+
+import com.example.api.core.product.Product;
+import com.example.api.core.recommendation.Recommendation;
+import com.example.api.core.review.Review;
+
+import static java.util.Objects.requireNonNullElse;
+
+/**
+ * Conversions between the api model and the generated gRPC messages. Protobuf strings are never null, a missing
+ * value is sent as an empty string.
+ */
+public final class GrpcMessages {
+
+  private GrpcMessages() {
+  }
+
+  public static ProductMessage toMessage(Product product) {
+    return ProductMessage.newBuilder()
+        .setProductId(product.getProductId())
+        .setName(requireNonNullElse(product.getName(), ""))
+        .setWeight(product.getWeight())
+        .setServiceAddress(requireNonNullElse(product.getServiceAddress(), ""))
+        .build();
+  }
+
+  public static Product toApi(ProductMessage message) {
+    return new Product(message.getProductId(), message.getName(), message.getWeight(), message.getServiceAddress());
+  }
+
+  public static RecommendationMessage toMessage(Recommendation recommendation) {
+    return RecommendationMessage.newBuilder()
+        .setProductId(recommendation.getProductId())
+        .setRecommendationId(recommendation.getRecommendationId())
+        .setAuthor(requireNonNullElse(recommendation.getAuthor(), ""))
+        .setRate(recommendation.getRate())
+        .setContent(requireNonNullElse(recommendation.getContent(), ""))
+        .setServiceAddress(requireNonNullElse(recommendation.getServiceAddress(), ""))
+        .build();
+  }
+
+  public static Recommendation toApi(RecommendationMessage message) {
+    return new Recommendation(message.getProductId(), message.getRecommendationId(), message.getAuthor(),
+        message.getRate(), message.getContent(), message.getServiceAddress());
+  }
+
+  public static ReviewMessage toMessage(Review review) {
+    return ReviewMessage.newBuilder()
+        .setProductId(review.getProductId())
+        .setReviewId(review.getReviewId())
+        .setAuthor(requireNonNullElse(review.getAuthor(), ""))
+        .setSubject(requireNonNullElse(review.getSubject(), ""))
+        .setContent(requireNonNullElse(review.getContent(), ""))
+        .setServiceAddress(requireNonNullElse(review.getServiceAddress(), ""))
+        .build();
+  }
+
+  public static Review toApi(ReviewMessage message) {
+    return new Review(message.getProductId(), message.getReviewId(), message.getAuthor(), message.getSubject(),
+        message.getContent(), message.getServiceAddress());
+  }
+
+  public static CountMessage toCountMessage(long count) {
+    return CountMessage.newBuilder().setCount(count).build();
+  }
+
+  public static Long toApi(CountMessage message) {
+    return message.getCount();
+  }
+}
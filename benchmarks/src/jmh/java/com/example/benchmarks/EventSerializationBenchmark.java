@@ -0,0 +1,82 @@
+package com.example.benchmarks;
+
+import com.example.api.core.review.Review;
+import com.example.api.event.Event;
+import com.example.util.messaging.SmileMessageConverter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static com.example.api.event.Event.Type.CREATE;
+
+/**
+ * Compares the current JSON encoding of review events with Smile, for a single event and for a batch event.
+ * Run with {@code ./gradlew :benchmarks:jmh}, the payload size is reported as {@code encode:bytes}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventSerializationBenchmark {
+  private static final TypeReference<Event<Integer, Review>> EVENT_TYPE = new TypeReference<>() {};
+
+  @Param({"JSON", "SMILE"})
+  public String format;
+
+  @Param({"1", "50"})
+  public int batchSize;
+
+  private ObjectMapper mapper;
+  private Event<Integer, Review> event;
+  private byte[] encoded;
+
+  @Setup
+  public void setup() throws IOException {
+    // Configured like the mapper Spring Boot creates for the services
+    ObjectMapper jsonMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    mapper = "SMILE".equals(format) ? new SmileMessageConverter(jsonMapper).getObjectMapper() : jsonMapper;
+
+    List<Review> reviews = IntStream.rangeClosed(1, batchSize)
+        .mapToObj(id -> new Review(1, id, "Author " + id, "Subject " + id, "Content of review " + id, null))
+        .toList();
+    event = batchSize == 1 ? new Event<>(CREATE, 1, reviews.getFirst()) : Event.createBatch(1, reviews);
+    encoded = mapper.writeValueAsBytes(event);
+  }
+
+  @Benchmark
+  public byte[] encode(EncodedSize size) throws IOException {
+    byte[] bytes = mapper.writeValueAsBytes(event);
+    size.bytes = bytes.length;
+    return bytes;
+  }
+
+  @Benchmark
+  public Event<Integer, Review> decode() throws IOException {
+    return mapper.readValue(encoded, EVENT_TYPE);
+  }
+
+  /**
+   * The size of the encoded event, reported next to the timings of {@link #encode}.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class EncodedSize {
+    public long bytes;
+  }
+}
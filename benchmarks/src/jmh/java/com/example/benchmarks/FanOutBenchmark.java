@@ -0,0 +1,111 @@
+package com.example.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a burst of composite reads, each fanning out to the product, recommendation and review endpoints of
+ * a local server that answers after 5 ms. Compares the default Reactor Netty pool shared by all services with the
+ * per service pools of the composite ({@code app.http-client} defaults), over HTTP/1.1 and h2c.
+ * Run with {@code ./gradlew :benchmarks:jmh -PjmhIncludes=FanOutBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FanOutBenchmark {
+  private static final Duration SERVICE_LATENCY = Duration.ofMillis(5);
+
+  @Param({"DEFAULT", "PER_SERVICE", "PER_SERVICE_H2C"})
+  public String pool;
+
+  @Param({"50", "500"})
+  public int concurrentReads;
+
+  private DisposableServer server;
+  private final List<ConnectionProvider> providers = new ArrayList<>();
+  private WebClient productClient;
+  private WebClient recommendationClient;
+  private WebClient reviewClient;
+
+  @Setup
+  public void setup() {
+    server = HttpServer.create()
+        .host("localhost")
+        .port(0)
+        .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+        .route(routes -> routes
+            .get("/product/{id}", (request, response) -> response.sendString(
+                Mono.delay(SERVICE_LATENCY).thenReturn("{\"productId\":1,\"name\":\"n\",\"weight\":1}")))
+            .get("/recommendation", (request, response) -> response.sendString(
+                Mono.delay(SERVICE_LATENCY).thenReturn("[{\"productId\":1,\"recommendationId\":1,\"rate\":1}]")))
+            .get("/review", (request, response) -> response.sendString(
+                Mono.delay(SERVICE_LATENCY).thenReturn("[{\"productId\":1,\"reviewId\":1}]"))))
+        .bindNow();
+
+    String baseUrl = "http://localhost:" + server.port();
+    productClient = WebClient.builder().baseUrl(baseUrl).clientConnector(connector("product")).build();
+    recommendationClient = WebClient.builder().baseUrl(baseUrl).clientConnector(connector("recommendation")).build();
+    reviewClient = WebClient.builder().baseUrl(baseUrl).clientConnector(connector("review")).build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    providers.forEach(ConnectionProvider::dispose);
+    server.disposeNow();
+  }
+
+  @Benchmark
+  public List<Integer> fanOut() {
+    return Flux.range(1, concurrentReads)
+        .flatMap(productId -> Mono.zip(
+                productClient.get().uri("/product/{id}", productId).retrieve().bodyToMono(String.class),
+                recommendationClient.get().uri("/recommendation?productId={id}", productId).retrieve()
+                    .bodyToMono(String.class),
+                reviewClient.get().uri("/review?productId={id}", productId).retrieve().bodyToMono(String.class))
+            .map(parts -> parts.getT1().length() + parts.getT2().length() + parts.getT3().length()),
+            concurrentReads)
+        .collectList()
+        .block();
+  }
+
+  private ReactorClientHttpConnector connector(String service) {
+    if ("DEFAULT".equals(pool)) {
+      return new ReactorClientHttpConnector(HttpClient.create());
+    }
+    // Same settings as the app.http-client defaults of the composite
+    ConnectionProvider provider = ConnectionProvider.builder(service)
+        .maxConnections(500)
+        .pendingAcquireMaxCount(1000)
+        .pendingAcquireTimeout(Duration.ofSeconds(5))
+        .maxIdleTime(Duration.ofSeconds(20))
+        .maxLifeTime(Duration.ofMinutes(5))
+        .evictInBackground(Duration.ofSeconds(30))
+        .build();
+    providers.add(provider);
+    HttpClient httpClient = HttpClient.create(provider);
+    return new ReactorClientHttpConnector("PER_SERVICE_H2C".equals(pool)
+        ? httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11)
+        : httpClient.protocol(HttpProtocol.HTTP11));
+  }
+}
@@ -0,0 +1,69 @@
+package com.example.benchmarks;
+
+import com.example.api.core.product.Product;
+import com.example.api.core.recommendation.Recommendation;
+import com.example.api.core.review.Review;
+import com.example.microservices.core.product.persistence.ProductEntity;
+import com.example.microservices.core.product.services.ProductMapper;
+import com.example.microservices.core.recommendation.persistence.RecommendationEntity;
+import com.example.microservices.core.recommendation.services.RecommendationMapper;
+import com.example.microservices.core.review.persistence.ReviewEntity;
+import com.example.microservices.core.review.services.ReviewMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MapStruct conversions between the api model and the entities of the core services.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+  private final ProductMapper productMapper = Mappers.getMapper(ProductMapper.class);
+  private final RecommendationMapper recommendationMapper = Mappers.getMapper(RecommendationMapper.class);
+  private final ReviewMapper reviewMapper = Mappers.getMapper(ReviewMapper.class);
+
+  private final Product product = new Product(1, "Product 1", 1, null);
+  private final ProductEntity productEntity = new ProductEntity(1, "Product 1", 1);
+  private final Recommendation recommendation = new Recommendation(1, 1, "Author 1", 4, "Content 1", null);
+  private final RecommendationEntity recommendationEntity = new RecommendationEntity(1, 1, "Author 1", 4, "Content 1");
+  private final Review review = new Review(1, 1, "Author 1", "Subject 1", "Content 1", null);
+  private final ReviewEntity reviewEntity = new ReviewEntity(1, 1, "Author 1", "Subject 1", "Content 1");
+
+  @Benchmark
+  public ProductEntity productApiToEntity() {
+    return productMapper.apiToEntity(product);
+  }
+
+  @Benchmark
+  public Product productEntityToApi() {
+    return productMapper.entityToApi(productEntity);
+  }
+
+  @Benchmark
+  public RecommendationEntity recommendationApiToEntity() {
+    return recommendationMapper.apiToEntity(recommendation);
+  }
+
+  @Benchmark
+  public Recommendation recommendationEntityToApi() {
+    return recommendationMapper.entityToApi(recommendationEntity);
+  }
+
+  @Benchmark
+  public ReviewEntity reviewApiToEntity() {
+    return reviewMapper.apiToEntity(review);
+  }
+
+  @Benchmark
+  public Review reviewEntityToApi() {
+    return reviewMapper.entityToApi(reviewEntity);
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.util.http.HttpErrorInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of a core service error response, a 404 with an {@link HttpErrorInfo} body, to the exception it stands
+ * for. The {@code HttpErrorInfo} is parsed on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CoreServiceErrorMapperBenchmark {
+  private CoreServiceErrorMapper errorMapper;
+  private WebClientResponseException notFound;
+
+  @Setup
+  public void setup() throws IOException {
+    ObjectMapper mapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    errorMapper = new CoreServiceErrorMapper(mapper);
+    byte[] body = mapper.writeValueAsBytes(
+        new HttpErrorInfo(HttpStatus.NOT_FOUND, "/product/13", "No product found for productId: 13"));
+    notFound = WebClientResponseException.create(HttpStatus.NOT_FOUND.value(), "Not Found", HttpHeaders.EMPTY, body,
+        StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public RuntimeException handleNotFound() {
+    return errorMapper.handleException(notFound);
+  }
+}
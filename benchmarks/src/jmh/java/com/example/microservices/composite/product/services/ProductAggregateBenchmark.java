@@ -0,0 +1,77 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.api.composite.ProductAggregate;
+import com.example.api.core.product.Product;
+import com.example.api.core.recommendation.Recommendation;
+import com.example.api.core.review.Review;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Assembly of a product aggregate from the responses of the core services, for growing numbers of
+ * recommendations and reviews, and its JSON encoding in the response. Lives in the package of
+ * {@link ProductCompositeServiceImpl} to reach the assembly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductAggregateBenchmark {
+
+  @Param({"0", "10", "100", "1000"})
+  public int size;
+
+  private Product product;
+  private List<Recommendation> recommendations;
+  private List<Review> reviews;
+  private ObjectMapper mapper;
+  private ProductAggregate aggregate;
+  private byte[] encoded;
+
+  @Setup
+  public void setup() throws IOException {
+    product = new Product(1, "Product 1", 1, "product/1");
+    recommendations = IntStream.rangeClosed(1, size)
+        .mapToObj(id -> new Recommendation(1, id, "Author " + id, id % 5, "Content " + id, "recommendation/1"))
+        .toList();
+    reviews = IntStream.rangeClosed(1, size)
+        .mapToObj(id -> new Review(1, id, "Author " + id, "Subject " + id, "Content " + id, "review/1"))
+        .toList();
+    // Configured like the mapper Spring Boot creates for the composite
+    mapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    aggregate = createProductAggregate();
+    encoded = mapper.writeValueAsBytes(aggregate);
+  }
+
+  @Benchmark
+  public ProductAggregate createProductAggregate() {
+    return ProductCompositeServiceImpl.createProductAggregate(product, recommendations, reviews, "composite/1");
+  }
+
+  @Benchmark
+  public byte[] encode() throws IOException {
+    return mapper.writeValueAsBytes(aggregate);
+  }
+
+  @Benchmark
+  public ProductAggregate decode() throws IOException {
+    return mapper.readValue(encoded, ProductAggregate.class);
+  }
+}
@@ -0,0 +1,71 @@
+package com.example.loadtest;
+
+import com.example.microservices.composite.product.ProductCompositeServiceApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.stream.binder.test.EnableTestBinder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Drives composite reads and writes at a fixed rate and checks the latency percentiles and error rates against
+ * SLOs, exiting with 1 when they are not met. By default it runs offline: the composite is started in-process,
+ * reads go to {@link StubCoreServices} and the events of the writes to the in-memory test binder instead of Kafka.
+ * <p>
+ * Run with {@code ./gradlew :load-test:run}, the settings are given as {@code -Ploadtest.*} properties, see
+ * {@link LoadTestSettings}, and composite settings as {@code -Pcomposite.*} properties. The latency distributions
+ * are written to {@code load-test/build/results/load-test}.
+ */
+@Slf4j
+public class LoadTestApplication {
+
+  public static void main(String[] args) throws Exception {
+    LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+    SloReport report;
+    if (settings.target().isEmpty()) {
+      try (var stubs = new StubCoreServices(settings);
+           var composite = startComposite(settings, stubs)) {
+        report = run(settings, "http://localhost:" + composite.getEnvironment().getProperty("local.server.port"));
+      }
+    } else {
+      report = run(settings, settings.target());
+    }
+    System.exit(report.passed() ? 0 : 1);
+  }
+
+  private static SloReport run(LoadTestSettings settings, String baseUrl) throws Exception {
+    log.info("Load tests {}", baseUrl);
+    var results = new OpenLoopLoadGenerator(settings, baseUrl).run();
+    var report = new SloReport(results, settings.slo(), settings.duration().minus(settings.warmup()));
+    report.print(System.out);
+    report.writeHistograms(settings.resultsDir());
+    return report;
+  }
+
+  private static ConfigurableApplicationContext startComposite(LoadTestSettings settings, StubCoreServices stubs) {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("server.port", 0);
+    properties.put("eureka.client.enabled", false);
+    properties.put("spring.cloud.discovery.client.simple.instances.product[0].uri", stubs.productUrl());
+    properties.put("spring.cloud.discovery.client.simple.instances.recommendation[0].uri", stubs.recommendationUrl());
+    properties.put("spring.cloud.discovery.client.simple.instances.review[0].uri", stubs.reviewUrl());
+    // Nothing is exported offline, and logging every request would skew the latencies
+    properties.put("management.tracing.enabled", false);
+    properties.put("logging.level.com.example.microservices", "INFO");
+    properties.put("logging.level.org.springframework.cloud.stream", "INFO");
+    properties.putAll(settings.composite());
+    return new SpringApplicationBuilder(ProductCompositeServiceApplication.class, OfflineMessaging.class)
+        .properties(properties)
+        .run();
+  }
+
+  /**
+   * Replaces the Kafka binder of the composite with the in-memory test binder. Deliberately not a
+   * {@code @Configuration}, the component scan of the composite covers this package.
+   */
+  @EnableTestBinder
+  static class OfflineMessaging {
+  }
+}
@@ -0,0 +1,113 @@
+package com.example.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Settings of a load test run, read from the {@code loadtest.*} system properties. System properties starting with
+ * {@code composite.} are passed on, without the prefix, to the composite started in-process.
+ *
+ * @param target          base url of a running composite, e.g. {@code http://localhost:8080}. When empty the composite
+ *                        is started in-process against the stub core services
+ * @param rate            requests sent per second, independent of how fast the responses come back
+ * @param duration        how long the requests are sent, the warmup included
+ * @param warmup          how long the responses are not recorded at the start of the run
+ * @param writeRatio      share of the requests that create a product, the rest read one
+ * @param productIds      the reads pick a product id between 1 and this value
+ * @param itemsPerProduct recommendations and reviews of each product, in the stubs and in the writes
+ * @param maxConnections  connections of the load generator to the composite
+ * @param product         latency and errors of the product stub
+ * @param recommendation  latency and errors of the recommendation stub
+ * @param review          latency and errors of the review stub
+ * @param slo             limits the run has to stay within to pass
+ * @param resultsDir      where the histograms of the run are written
+ * @param composite       properties passed to the in-process composite
+ */
+public record LoadTestSettings(String target,
+                               int rate,
+                               Duration duration,
+                               Duration warmup,
+                               double writeRatio,
+                               int productIds,
+                               int itemsPerProduct,
+                               int maxConnections,
+                               ServiceProfile product,
+                               ServiceProfile recommendation,
+                               ServiceProfile review,
+                               Slo slo,
+                               Path resultsDir,
+                               Map<String, String> composite) {
+
+  private static final String PREFIX = "loadtest.";
+  private static final String COMPOSITE_PREFIX = "composite.";
+
+  /**
+   * Latency and error profile of a stub core service. Each response takes {@code latency} plus a random part of up
+   * to {@code jitter}, a share {@code slowRate} of them takes {@code slowLatency} instead.
+   *
+   * @param latency     minimum time a response takes
+   * @param jitter      upper bound of the random time added to the latency
+   * @param slowRate    share of the responses that take slowLatency
+   * @param slowLatency time taken by the slow responses
+   * @param errorRate   share of the responses that are a 500 error
+   */
+  public record ServiceProfile(Duration latency, Duration jitter, double slowRate, Duration slowLatency,
+                               double errorRate) {}
+
+  /**
+   * Latency and error limits, each checked separately for the reads and the writes.
+   *
+   * @param p50       limit of the median latency
+   * @param p99       limit of the 99th percentile latency
+   * @param p999      limit of the 99.9th percentile latency
+   * @param errorRate limit of the share of requests that failed or got a 5xx response
+   */
+  public record Slo(Duration p50, Duration p99, Duration p999, double errorRate) {}
+
+  public static LoadTestSettings fromSystemProperties() {
+    Properties properties = System.getProperties();
+    Map<String, String> composite = new TreeMap<>();
+    properties.stringPropertyNames().stream()
+        .filter(name -> name.startsWith(COMPOSITE_PREFIX))
+        .forEach(name -> composite.put(name.substring(COMPOSITE_PREFIX.length()), properties.getProperty(name)));
+
+    return new LoadTestSettings(
+        string("target", ""),
+        Integer.parseInt(string("rate", "200")),
+        duration("duration", "60s"),
+        duration("warmup", "10s"),
+        Double.parseDouble(string("write-ratio", "0.05")),
+        Integer.parseInt(string("product-ids", "10000")),
+        Integer.parseInt(string("items-per-product", "3")),
+        Integer.parseInt(string("max-connections", "500")),
+        profile("product"),
+        profile("recommendation"),
+        profile("review"),
+        new Slo(duration("slo.p50", "20ms"), duration("slo.p99", "100ms"), duration("slo.p999", "250ms"),
+            Double.parseDouble(string("slo.error-rate", "0.01"))),
+        Path.of(string("results-dir", "build/results/load-test")),
+        composite);
+  }
+
+  private static ServiceProfile profile(String service) {
+    return new ServiceProfile(
+        duration(service + ".latency", "5ms"),
+        duration(service + ".jitter", "5ms"),
+        Double.parseDouble(string(service + ".slow-rate", "0.0")),
+        duration(service + ".slow-latency", "200ms"),
+        Double.parseDouble(string(service + ".error-rate", "0.0")));
+  }
+
+  private static Duration duration(String name, String defaultValue) {
+    return DurationStyle.detectAndParse(string(name, defaultValue));
+  }
+
+  private static String string(String name, String defaultValue) {
+    return System.getProperty(PREFIX + name, defaultValue);
+  }
+}
@@ -0,0 +1,170 @@
+package com.example.loadtest;
+
+import com.example.api.composite.ProductAggregate;
+import com.example.api.composite.RecommendationSummary;
+import com.example.api.composite.ReviewSummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * Sends requests to the composite at a fixed rate, whether or not the earlier responses have arrived. The latency
+ * of a request is measured from the time it was due to be sent rather than from when it was actually sent, so a
+ * stalled composite or load generator shows up in the latencies instead of lowering the rate (no coordinated
+ * omission).
+ */
+@Slf4j
+class OpenLoopLoadGenerator {
+  private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+  private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+  enum Operation {READ, WRITE}
+
+  /**
+   * Latencies in microseconds, the number of failed requests and the number of requests still outstanding at the end
+   * of the run of one operation. A timed out request is recorded at the latency it had when the run ended.
+   */
+  record Result(Histogram latencies, long errors, long timeouts) {}
+
+  private record InFlight(Operation operation, long dueAt, boolean recorded, Disposable.Swap subscription) {}
+
+  private final LoadTestSettings settings;
+  private final HttpClient client;
+  private final ObjectMapper mapper = new ObjectMapper();
+  // Written products get ids above the ones read, so they never collide with a read
+  private final AtomicInteger nextWrittenProductId;
+
+  OpenLoopLoadGenerator(LoadTestSettings settings, String baseUrl) {
+    this.settings = settings;
+    this.client = HttpClient.create(ConnectionProvider.builder("load-test")
+            .maxConnections(settings.maxConnections())
+            .pendingAcquireMaxCount(-1)
+            .build())
+        .baseUrl(baseUrl);
+    this.nextWrittenProductId = new AtomicInteger(settings.productIds() + 1);
+  }
+
+  Map<Operation, Result> run() throws InterruptedException {
+    Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    Map<Operation, LongAdder> timeouts = new EnumMap<>(Operation.class);
+    for (Operation operation : Operation.values()) {
+      latencies.put(operation, new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3));
+      errors.put(operation, new LongAdder());
+      timeouts.put(operation, new LongAdder());
+    }
+
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+    long start = System.nanoTime();
+    long recordFrom = start + settings.warmup().toNanos();
+    long end = start + settings.duration().toNanos();
+    // A request is recorded by whoever removes it first, its response or the end of the drain
+    ConcurrentMap<Long, InFlight> inFlight = new ConcurrentHashMap<>();
+    log.info("Sends {} requests per second for {}, the first {} are not recorded", settings.rate(),
+        settings.duration(), settings.warmup());
+
+    for (long due = start; due < end; due += intervalNanos) {
+      long wait = due - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      Operation operation = ThreadLocalRandom.current().nextDouble() < settings.writeRatio()
+          ? Operation.WRITE : Operation.READ;
+      long id = due;
+      InFlight request = new InFlight(operation, due, due >= recordFrom, Disposables.swap());
+      inFlight.put(id, request);
+      request.subscription().update(send(operation).subscribe(
+          status -> {
+            if (inFlight.remove(id) != null && request.recorded()) {
+              latencies.get(operation).recordValue(micros(request.dueAt()));
+              if (status >= 500) {
+                errors.get(operation).increment();
+              }
+            }
+          },
+          error -> {
+            if (inFlight.remove(id) != null && request.recorded()) {
+              latencies.get(operation).recordValue(micros(request.dueAt()));
+              errors.get(operation).increment();
+            }
+          }));
+    }
+
+    long drainUntil = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+    while (!inFlight.isEmpty() && System.nanoTime() < drainUntil) {
+      Thread.sleep(10);
+    }
+    if (!inFlight.isEmpty()) {
+      // Leaving them out would hide the slowest requests of the run
+      log.warn("{} requests were still outstanding after {}, they are recorded as timeouts", inFlight.size(),
+          DRAIN_TIMEOUT);
+      for (Long id : inFlight.keySet()) {
+        InFlight request = inFlight.remove(id);
+        if (request != null) {
+          request.subscription().dispose();
+          if (request.recorded()) {
+            latencies.get(request.operation()).recordValue(micros(request.dueAt()));
+            timeouts.get(request.operation()).increment();
+          }
+        }
+      }
+    }
+
+    Map<Operation, Result> results = new EnumMap<>(Operation.class);
+    latencies.forEach((operation, histogram) -> results.put(operation,
+        new Result(histogram, errors.get(operation).sum(), timeouts.get(operation).sum())));
+    return results;
+  }
+
+  private Mono<Integer> send(Operation operation) {
+    return switch (operation) {
+      case READ -> client.get()
+          .uri("/product-composite/" + ThreadLocalRandom.current().nextInt(1, settings.productIds() + 1))
+          .responseSingle((response, body) -> body.asByteArray().thenReturn(response.status().code()));
+      case WRITE -> client
+          .headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, "application/json"))
+          .post()
+          .uri("/product-composite")
+          .send(ByteBufFlux.fromString(Mono.fromCallable(this::newProduct)))
+          .responseSingle((response, body) -> body.asByteArray().thenReturn(response.status().code()));
+    };
+  }
+
+  private String newProduct() throws JsonProcessingException {
+    int productId = nextWrittenProductId.getAndIncrement();
+    List<RecommendationSummary> recommendations = IntStream.rangeClosed(1, settings.itemsPerProduct())
+        .mapToObj(id -> new RecommendationSummary(id, "Author " + id, id % 5, "Content " + id))
+        .toList();
+    List<ReviewSummary> reviews = IntStream.rangeClosed(1, settings.itemsPerProduct())
+        .mapToObj(id -> new ReviewSummary(id, "Author " + id, "Subject " + id, "Content " + id))
+        .toList();
+    return mapper.writeValueAsString(
+        new ProductAggregate(productId, "Product " + productId, productId % 100, recommendations, reviews, null));
+  }
+
+  private static long micros(long dueAt) {
+    return Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - dueAt), HIGHEST_LATENCY_MICROS);
+  }
+}
@@ -0,0 +1,104 @@
+package com.example.loadtest;
+
+import com.example.loadtest.LoadTestSettings.Slo;
+import com.example.loadtest.OpenLoopLoadGenerator.Operation;
+import com.example.loadtest.OpenLoopLoadGenerator.Result;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Latency percentiles and error rates of a run, checked against the {@link Slo}. Requests that timed out count as
+ * errors. An operation that was not sent during the run is not checked.
+ */
+class SloReport {
+  private static final double MICROS_PER_MILLI = 1000.0;
+
+  private final Map<Operation, Result> results;
+  private final Slo slo;
+  private final Duration measured;
+  private final List<String> violations = new ArrayList<>();
+
+  SloReport(Map<Operation, Result> results, Slo slo, Duration measured) {
+    this.results = results;
+    this.slo = slo;
+    this.measured = measured;
+    results.forEach(this::check);
+  }
+
+  boolean passed() {
+    return violations.isEmpty();
+  }
+
+  List<String> violations() {
+    return List.copyOf(violations);
+  }
+
+  void print(PrintStream out) {
+    out.printf(Locale.ROOT, "%n%-6s %9s %8s %8s %9s %9s %9s %9s %9s %9s%n",
+        "", "requests", "rps", "errors", "timeouts", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+    results.forEach((operation, result) -> {
+      Histogram latencies = result.latencies();
+      out.printf(Locale.ROOT, "%-6s %9d %8.1f %7.2f%% %9d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+          operation, latencies.getTotalCount(), latencies.getTotalCount() / (measured.toMillis() / 1000.0),
+          errorRate(result) * 100, result.timeouts(), millis(latencies, 50), millis(latencies, 90),
+          millis(latencies, 99), millis(latencies, 99.9), latencies.getMaxValue() / MICROS_PER_MILLI);
+    });
+    out.printf(Locale.ROOT, "%nSLO p50 <= %d ms, p99 <= %d ms, p99.9 <= %d ms, errors <= %.2f%%: %s%n",
+        slo.p50().toMillis(), slo.p99().toMillis(), slo.p999().toMillis(), slo.errorRate() * 100,
+        passed() ? "PASSED" : "FAILED");
+    violations.forEach(violation -> out.println("  " + violation));
+  }
+
+  /**
+   * Writes the latency distribution of each operation in milliseconds as {@code <operation>.hgrm}, the format read
+   * by the HdrHistogram plotter.
+   */
+  void writeHistograms(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    for (var entry : results.entrySet()) {
+      Path file = directory.resolve(entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm");
+      try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+        entry.getValue().latencies().outputPercentileDistribution(out, MICROS_PER_MILLI);
+      }
+    }
+  }
+
+  private void check(Operation operation, Result result) {
+    Histogram latencies = result.latencies();
+    if (latencies.getTotalCount() == 0) {
+      return;
+    }
+    checkLatency(operation, "p50", millis(latencies, 50), slo.p50());
+    checkLatency(operation, "p99", millis(latencies, 99), slo.p99());
+    checkLatency(operation, "p99.9", millis(latencies, 99.9), slo.p999());
+    if (errorRate(result) > slo.errorRate()) {
+      violations.add(String.format(Locale.ROOT, "%s error rate %.2f%% is above %.2f%%",
+          operation, errorRate(result) * 100, slo.errorRate() * 100));
+    }
+  }
+
+  private void checkLatency(Operation operation, String percentile, double actualMillis, Duration limit) {
+    if (actualMillis > limit.toMillis()) {
+      violations.add(String.format(Locale.ROOT, "%s %s latency %.2f ms is above %d ms",
+          operation, percentile, actualMillis, limit.toMillis()));
+    }
+  }
+
+  private static double errorRate(Result result) {
+    long count = result.latencies().getTotalCount();
+    return count == 0 ? 0 : (double) (result.errors() + result.timeouts()) / count;
+  }
+
+  private static double millis(Histogram latencies, double percentile) {
+    return latencies.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+  }
+}
@@ -0,0 +1,130 @@
+package com.example.loadtest;
+
+import com.example.api.core.product.Product;
+import com.example.api.core.recommendation.Recommendation;
+import com.example.api.core.review.Review;
+import com.example.loadtest.LoadTestSettings.ServiceProfile;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * In-process stand-ins for the product, recommendation and review services, each on its own port. They answer the
+ * reads of the composite for any product id after the delay given by their {@link ServiceProfile}, or with a 500
+ * error. Writes reach them as events, which the load test keeps in memory, so they only serve reads.
+ */
+class StubCoreServices implements AutoCloseable {
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final int itemsPerProduct;
+  private final DisposableServer product;
+  private final DisposableServer recommendation;
+  private final DisposableServer review;
+
+  StubCoreServices(LoadTestSettings settings) {
+    this.itemsPerProduct = settings.itemsPerProduct();
+    this.product = start(settings.product(), "product", this::products);
+    this.recommendation = start(settings.recommendation(), "recommendation", this::recommendations);
+    this.review = start(settings.review(), "review", this::reviews);
+  }
+
+  String productUrl() {
+    return url(product);
+  }
+
+  String recommendationUrl() {
+    return url(recommendation);
+  }
+
+  String reviewUrl() {
+    return url(review);
+  }
+
+  @Override
+  public void close() {
+    product.disposeNow();
+    recommendation.disposeNow();
+    review.disposeNow();
+  }
+
+  private DisposableServer start(ServiceProfile profile, String path, Function<List<Integer>, List<?>> body) {
+    return HttpServer.create()
+        .host("localhost")
+        .port(0)
+        .route(routes -> routes
+            .get("/" + path + "/{productId}", (request, response) -> respond(profile, response,
+                () -> body.apply(List.of(Integer.parseInt(request.param("productId")))).getFirst()))
+            .get("/" + path, (request, response) -> respond(profile, response,
+                () -> body.apply(productIds(request)))))
+        .bindNow();
+  }
+
+  private Publisher<Void> respond(ServiceProfile profile, HttpServerResponse response, Supplier<Object> body) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    Duration delay = random.nextDouble() < profile.slowRate()
+        ? profile.slowLatency()
+        : profile.latency().plusNanos(random.nextLong(profile.jitter().toNanos() + 1));
+    if (random.nextDouble() < profile.errorRate()) {
+      return Mono.delay(delay).then(response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR).send());
+    }
+    return response
+        .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+        .sendByteArray(Mono.delay(delay).map(ignored -> encode(body.get())));
+  }
+
+  // The single product and the lists of the other services, for one product id or a batch of them
+  private List<?> products(List<Integer> productIds) {
+    return productIds.stream()
+        .map(productId -> new Product(productId, "Product " + productId, productId % 100, "stub-product"))
+        .toList();
+  }
+
+  private List<?> recommendations(List<Integer> productIds) {
+    return productIds.stream()
+        .flatMap(productId -> IntStream.rangeClosed(1, itemsPerProduct).mapToObj(id -> new Recommendation(
+            productId, id, "Author " + id, id % 5, "Content " + id, "stub-recommendation")))
+        .toList();
+  }
+
+  private List<?> reviews(List<Integer> productIds) {
+    return productIds.stream()
+        .flatMap(productId -> IntStream.rangeClosed(1, itemsPerProduct).mapToObj(id -> new Review(
+            productId, id, "Author " + id, "Subject " + id, "Content " + id, "stub-review")))
+        .toList();
+  }
+
+  private static List<Integer> productIds(HttpServerRequest request) {
+    var parameters = new QueryStringDecoder(request.uri()).parameters();
+    List<String> values = parameters.containsKey("productIds")
+        ? Arrays.asList(parameters.get("productIds").getFirst().split(","))
+        : parameters.getOrDefault("productId", List.of("1"));
+    return values.stream().map(Integer::valueOf).toList();
+  }
+
+  private static String url(DisposableServer server) {
+    return "http://localhost:" + server.port();
+  }
+
+  private byte[] encode(Object body) {
+    try {
+      return mapper.writeValueAsBytes(body);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
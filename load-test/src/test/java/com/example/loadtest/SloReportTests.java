@@ -0,0 +1,89 @@
+package com.example.loadtest;
+
+import com.example.loadtest.LoadTestSettings.Slo;
+import com.example.loadtest.OpenLoopLoadGenerator.Operation;
+import com.example.loadtest.OpenLoopLoadGenerator.Result;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SloReportTests {
+  private static final Slo SLO = new Slo(Duration.ofMillis(20), Duration.ofMillis(100), Duration.ofMillis(250), 0.01);
+  private static final Duration MEASURED = Duration.ofSeconds(10);
+
+  @Test
+  void passesWhenAllPercentilesAndErrorsAreWithinTheSlo() {
+    SloReport report = new SloReport(Map.of(Operation.READ, result(10_000, 1_000, 0)), SLO, MEASURED);
+
+    assertThat(report.passed()).isTrue();
+    assertThat(report.violations()).isEmpty();
+  }
+
+  @Test
+  void failsOnTheTailLatency() {
+    // 1% of the reads take 300 ms, above the p99.9 limit but not the p99 one
+    Histogram latencies = latencies(10_000, 990);
+    latencies.recordValueWithCount(300_000, 10);
+    SloReport report = new SloReport(Map.of(Operation.READ, new Result(latencies, 0, 0)), SLO, MEASURED);
+
+    assertThat(report.passed()).isFalse();
+    assertThat(report.violations()).singleElement().asString().startsWith("READ p99.9");
+  }
+
+  @Test
+  void failsOnTheErrorRateOfOneOperation() {
+    SloReport report = new SloReport(
+        Map.of(Operation.READ, result(10_000, 1_000, 0), Operation.WRITE, result(10_000, 100, 2)), SLO, MEASURED);
+
+    assertThat(report.passed()).isFalse();
+    assertThat(report.violations()).singleElement().asString().startsWith("WRITE error rate");
+  }
+
+  @Test
+  void countsTimeoutsAsErrors() {
+    // 2% of the writes were still outstanding at the end of the run, recorded at the latency they had by then
+    Histogram latencies = latencies(10_000, 98);
+    latencies.recordValueWithCount(30_000_000, 2);
+    SloReport report = new SloReport(Map.of(Operation.WRITE, new Result(latencies, 0, 2)), SLO, MEASURED);
+
+    assertThat(report.passed()).isFalse();
+    assertThat(report.violations()).anySatisfy(violation ->
+        assertThat(violation).isEqualTo("WRITE error rate 2.00% is above 1.00%"));
+  }
+
+  @Test
+  void skipsOperationsThatWereNotSent() {
+    SloReport report = new SloReport(
+        Map.of(Operation.READ, result(10_000, 1_000, 0), Operation.WRITE, result(0, 0, 0)), SLO, MEASURED);
+
+    assertThat(report.passed()).isTrue();
+  }
+
+  @Test
+  void printsThePercentilesAndTheVerdict() {
+    SloReport report = new SloReport(Map.of(Operation.READ, result(10_000, 1_000, 0)), SLO, MEASURED);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    report.print(new PrintStream(out));
+
+    assertThat(out.toString()).contains("READ", "timeouts", "p99.9 ms", "PASSED");
+  }
+
+  private static Result result(long latencyMicros, int count, long errors) {
+    return new Result(latencies(latencyMicros, count), errors, 0);
+  }
+
+  private static Histogram latencies(long latencyMicros, int count) {
+    Histogram latencies = new Histogram(3);
+    if (count > 0) {
+      latencies.recordValueWithCount(latencyMicros, count);
+    }
+    return latencies;
+  }
+}
@@ -0,0 +1,21 @@
+package com.example.microservices.composite.product;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-process {@code ProductAggregate} cache.
+ *
+ * @param enabled       whether reads go through the cache at all
+ * @param maximumSize   upper bound of cached aggregates, evicted by W-TinyLFU when exceeded
+ * @param timeToLive    hard expiry of an entry, counted from the moment it was loaded
+ * @param refreshAfter  age after which a hit is still served but reloaded in the background
+ */
+@ConfigurationProperties("app.cache")
+public record AggregateCacheProperties(@DefaultValue("true") boolean enabled,
+                                       @DefaultValue("10000") long maximumSize,
+                                       @DefaultValue("60s") Duration timeToLive,
+                                       @DefaultValue("10s") Duration refreshAfter) {
+}
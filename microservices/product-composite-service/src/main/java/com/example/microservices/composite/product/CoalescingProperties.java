@@ -0,0 +1,17 @@
+package com.example.microservices.composite.product;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the request coalescing in front of the core service calls.
+ *
+ * @param enabled  whether concurrent identical calls share one upstream request
+ * @param window   how long a completed result is still handed to new callers, zero shares in-flight calls only
+ */
+@ConfigurationProperties("app.coalescing")
+public record CoalescingProperties(@DefaultValue("true") boolean enabled,
+                                   @DefaultValue("0ms") Duration window) {
+}
@@ -0,0 +1,28 @@
+package com.example.microservices.composite.product;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of hedged requests to the core services.
+ *
+ * @param enabled       whether a slow call is duplicated to a second instance of the same service
+ * @param percentile    latency percentile of recent calls after which the hedge is sent, e.g. 0.95
+ * @param minDelay      lower bound of the hedge delay, protects against hedging on noise
+ * @param initialDelay  hedge delay used until {@code minSamples} latencies have been observed
+ * @param minSamples    number of observed latencies before the percentile is trusted
+ * @param budgetRatio   share of the requests to a service that may be hedged, e.g. 0.1 allows one hedge per ten
+ *                      requests
+ * @param budgetBurst   maximum number of hedges per service that may be saved up and sent in a row
+ */
+@ConfigurationProperties("app.hedging")
+public record HedgingProperties(@DefaultValue("false") boolean enabled,
+                                @DefaultValue("0.95") double percentile,
+                                @DefaultValue("20ms") Duration minDelay,
+                                @DefaultValue("100ms") Duration initialDelay,
+                                @DefaultValue("50") int minSamples,
+                                @DefaultValue("0.1") double budgetRatio,
+                                @DefaultValue("10") int budgetBurst) {
+}
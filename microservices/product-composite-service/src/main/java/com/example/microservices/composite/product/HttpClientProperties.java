@@ -0,0 +1,43 @@
+package com.example.microservices.composite.product;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Connection pools of the HTTP clients to the core services, one pool per service.
+ *
+ * @param defaults  pool of the services without an entry in {@code services}
+ * @param services  pools by service name, e.g. {@code review}. An entry replaces the defaults as a whole, settings
+ *                  it leaves out take the values below and not those of {@code defaults}
+ */
+@ConfigurationProperties("app.http-client")
+public record HttpClientProperties(@DefaultValue Pool defaults,
+                                   @DefaultValue Map<String, Pool> services) {
+
+  public Pool pool(String service) {
+    return services.getOrDefault(service, defaults);
+  }
+
+  /**
+   * @param maxConnections          maximum number of connections per instance of the service
+   * @param pendingAcquireMaxCount  maximum number of requests waiting for a connection, further requests fail
+   *                                immediately
+   * @param pendingAcquireTimeout   how long a request waits for a connection before it fails
+   * @param maxIdleTime             idle connections are closed after this time, before the server closes them
+   * @param maxLifeTime             connections are closed after this time, so traffic moves to new instances
+   * @param evictionInterval        how often idle and expired connections are closed in the background
+   * @param h2c                     whether HTTP/2 over plain text is negotiated, concurrent requests to an instance
+   *                                then share one connection
+   */
+  public record Pool(@DefaultValue("500") int maxConnections,
+                     @DefaultValue("1000") int pendingAcquireMaxCount,
+                     @DefaultValue("5s") Duration pendingAcquireTimeout,
+                     @DefaultValue("20s") Duration maxIdleTime,
+                     @DefaultValue("5m") Duration maxLifeTime,
+                     @DefaultValue("30s") Duration evictionInterval,
+                     @DefaultValue("false") boolean h2c) {
+  }
+}
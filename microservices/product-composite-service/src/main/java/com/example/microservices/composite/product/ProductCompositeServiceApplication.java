@@ -1,5 +1,7 @@
 package com.example.microservices.composite.product;
 
+import com.example.util.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import io.micrometer.observation.ObservationRegistry;
 import io.swagger.v3.oas.models.ExternalDocumentation;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
@@ -12,6 +14,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -21,6 +24,7 @@ import reactor.core.scheduler.Schedulers;
 @SpringBootApplication
 @ConfigurationPropertiesScan
 @ComponentScan("com.example")
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
 public class ProductCompositeServiceApplication {
 
   public static void main(String[] args) {
@@ -51,12 +55,13 @@ public class ProductCompositeServiceApplication {
   @Bean
   public Scheduler publishEventScheduler(@Value("${app.threadPoolSize:10}")Integer threadPoolSize,
                                          @Value("${app.taskQueueSize:100}")Integer taskQueueSize) {
-    return Schedulers.newBoundedElastic(threadPoolSize, taskQueueSize, "jdbc-pool");
+    return Schedulers.newBoundedElastic(threadPoolSize, taskQueueSize, "publish-event-pool");
   }
 
   @Bean
   @LoadBalanced
-  public WebClient.Builder loadBalancedWebClientBuilder() {
-    return WebClient.builder();
+  public WebClient.Builder loadBalancedWebClientBuilder(ObservationRegistry observationRegistry) {
+    // Each call becomes a child span of the request and carries the trace context to the core service
+    return WebClient.builder().observationRegistry(observationRegistry);
   }
 }
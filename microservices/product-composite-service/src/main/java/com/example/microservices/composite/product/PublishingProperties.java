@@ -0,0 +1,36 @@
+package com.example.microservices.composite.product;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the event publishing to the core services. The producer settings, acks to maxQueued, only apply
+ * to the reactive mode, the stream bridge mode is configured through the Kafka binder.
+ *
+ * @param mode         {@code stream-bridge} sends through Spring Cloud Stream on a bounded thread pool,
+ *                     {@code reactive} sends through a non-blocking Kafka sender
+ * @param contentType  encoding of the events, {@code application/json} or the more compact
+ *                     {@code application/x-jackson-smile}. Consumers read both, so it is switched once all
+ *                     consumers are upgraded
+ * @param acks         acknowledgements the broker must give before a send completes, e.g. all or 1
+ * @param linger       how long the producer waits for more records to fill a batch
+ * @param batchSize    maximum size of a batch of records sent to one partition
+ * @param compression  compression of the batches, e.g. none, lz4 or zstd
+ * @param maxInFlight  maximum number of sends waiting for their acknowledgement before new sends are held back
+ * @param maxQueued    maximum number of held back sends, further publishes fail until the queue drains
+ */
+@ConfigurationProperties("app.publishing")
+public record PublishingProperties(@DefaultValue("stream-bridge") Mode mode,
+                                   @DefaultValue("application/json") String contentType,
+                                   @DefaultValue("all") String acks,
+                                   @DefaultValue("5ms") Duration linger,
+                                   @DefaultValue("64KB") DataSize batchSize,
+                                   @DefaultValue("lz4") String compression,
+                                   @DefaultValue("256") int maxInFlight,
+                                   @DefaultValue("10000") int maxQueued) {
+
+  public enum Mode {STREAM_BRIDGE, REACTIVE}
+}
@@ -0,0 +1,184 @@
+package com.example.microservices.composite.product.services;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency and size metrics of the fan-out to the core services.
+ * <ul>
+ *   <li>{@code composite.leg.duration}: one call to a core service, until its body has been read, by leg, target
+ *   instance and outcome</li>
+ *   <li>{@code composite.leg.response.size}: bytes of the response body, by leg, target instance and outcome</li>
+ *   <li>{@code composite.leg.errors.swallowed}: failed recommendation and review calls answered with an empty list
+ *   instead of an error, by leg and exception</li>
+ *   <li>{@code composite.aggregate.duration}: assembly of a response from all of its legs, by operation and
+ *   outcome</li>
+ * </ul>
+ * The timers publish percentile histograms, so percentiles can be aggregated across instances in Prometheus. The
+ * meters are registered once per combination of tags and reused by the later calls.
+ * <p>
+ * Legs over gRPC, see {@link #timeLeg}, are tagged with instance {@value #UNKNOWN_INSTANCE}: the channel picks the
+ * instance below the stub and does not tell which one it used. Their response size is not recorded, the stub hands
+ * over decoded messages only.
+ * <p>
+ * The filter must be added after the load balancing or hedging filter of the WebClient, it then sees the instance
+ * each request is sent to. The leg is taken from the {@link #LEG_ATTRIBUTE} request attribute.
+ */
+@Component
+@Slf4j
+public class CompositeMetrics implements ExchangeFilterFunction {
+  public static final String LEG_ATTRIBUTE = CompositeMetrics.class.getName() + ".leg";
+
+  private static final String LEG_DURATION_METRIC = "composite.leg.duration";
+  private static final String LEG_SIZE_METRIC = "composite.leg.response.size";
+  private static final String SWALLOWED_METRIC = "composite.leg.errors.swallowed";
+  private static final String AGGREGATE_DURATION_METRIC = "composite.aggregate.duration";
+  private static final String UNKNOWN_INSTANCE = "unknown";
+
+  private record LegTags(String leg, String instance, String outcome) {}
+
+  private record AggregateTags(String operation, String outcome) {}
+
+  private final MeterRegistry meterRegistry;
+  private final ConcurrentMap<LegTags, Timer> legDurations = new ConcurrentHashMap<>();
+  private final ConcurrentMap<LegTags, DistributionSummary> legSizes = new ConcurrentHashMap<>();
+  private final ConcurrentMap<AggregateTags, Timer> aggregateDurations = new ConcurrentHashMap<>();
+
+  public CompositeMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+    String leg = request.attribute(LEG_ATTRIBUTE).map(String.class::cast).orElse("unknown");
+    String instance = instance(request.url());
+    long start = System.nanoTime();
+    AtomicBoolean recorded = new AtomicBoolean();
+    return next.exchange(request)
+        .map(response -> {
+          AtomicLong bytes = new AtomicLong();
+          return response.mutate()
+              .body(body -> body
+                  .doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()))
+                  .doFinally(signal -> {
+                    if (recorded.compareAndSet(false, true)) {
+                      recordLeg(leg, instance, outcome(response.statusCode(), signal), start, bytes.get());
+                    }
+                  }))
+              .build();
+        })
+        .doOnError(error -> recordLeg(leg, instance, "error", start, 0))
+        .doOnCancel(() -> {
+          if (recorded.compareAndSet(false, true)) {
+            recordLeg(leg, instance, "cancelled", start, 0);
+          }
+        });
+  }
+
+  /**
+   * Times a leg that does not go through the HTTP client, e.g. over gRPC. The target instance is not known there.
+   */
+  public <T> Flux<T> timeLeg(String leg, Flux<T> call) {
+    return Flux.defer(() -> {
+      long start = System.nanoTime();
+      return call.doFinally(signal -> recordLeg(leg, UNKNOWN_INSTANCE, outcome(signal), start, 0));
+    });
+  }
+
+  /**
+   * Counts a failed call whose error is replaced by an empty result, the response is then silently degraded.
+   */
+  public <T> Flux<T> swallow(String leg, Throwable error) {
+    log.debug("{} failed, continues without its result: {}", leg, error.toString());
+    meterRegistry.counter(SWALLOWED_METRIC, "leg", leg, "exception", error.getClass().getSimpleName()).increment();
+    return Flux.empty();
+  }
+
+  public <T> Mono<T> timeAggregate(String operation, Mono<T> aggregate) {
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      return aggregate.doFinally(signal -> recordAggregate(operation, outcome(signal), start));
+    });
+  }
+
+  /**
+   * Times a streamed aggregate until its last part has been emitted.
+   */
+  public <T> Flux<T> timeAggregate(String operation, Flux<T> aggregate) {
+    return Flux.defer(() -> {
+      long start = System.nanoTime();
+      return aggregate.doFinally(signal -> recordAggregate(operation, outcome(signal), start));
+    });
+  }
+
+  private void recordAggregate(String operation, String outcome, long start) {
+    aggregateDurations.computeIfAbsent(new AggregateTags(operation, outcome), tags ->
+            Timer.builder(AGGREGATE_DURATION_METRIC)
+                .tag("operation", tags.operation())
+                .tag("outcome", tags.outcome())
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+
+  private void recordLeg(String leg, String instance, String outcome, long start, long bytes) {
+    LegTags legTags = new LegTags(leg, instance, outcome);
+    legDurations.computeIfAbsent(legTags, tags -> Timer.builder(LEG_DURATION_METRIC)
+            .tag("leg", tags.leg())
+            .tag("instance", tags.instance())
+            .tag("outcome", tags.outcome())
+            .publishPercentileHistogram()
+            .register(meterRegistry))
+        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    if (bytes > 0) {
+      legSizes.computeIfAbsent(legTags, tags -> DistributionSummary.builder(LEG_SIZE_METRIC)
+              .baseUnit("bytes")
+              .tag("leg", tags.leg())
+              .tag("instance", tags.instance())
+              .tag("outcome", tags.outcome())
+              .publishPercentileHistogram()
+              .register(meterRegistry))
+          .record(bytes);
+    }
+  }
+
+  private static String instance(URI url) {
+    return url.getPort() < 0 ? url.getHost() : url.getHost() + ":" + url.getPort();
+  }
+
+  private static String outcome(HttpStatusCode status, SignalType signal) {
+    if (signal != SignalType.ON_COMPLETE) {
+      return outcome(signal);
+    }
+    if (status.is2xxSuccessful()) {
+      return "success";
+    }
+    return status.is4xxClientError() ? "client_error" : "server_error";
+  }
+
+  private static String outcome(SignalType signal) {
+    return switch (signal) {
+      case ON_COMPLETE -> "success";
+      case CANCEL -> "cancelled";
+      default -> "error";
+    };
+  }
+}
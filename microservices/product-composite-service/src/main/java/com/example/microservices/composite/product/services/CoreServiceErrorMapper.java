@@ -0,0 +1,44 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.api.exception.InvalidInputException;
+import com.example.api.exception.NotFoundException;
+import com.example.util.http.HttpErrorInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+
+/**
+ * Maps the error responses of the core services back to the exceptions they were raised with, the message is
+ * taken from the {@link HttpErrorInfo} body.
+ */
+@Slf4j
+class CoreServiceErrorMapper {
+  private final ObjectMapper mapper;
+
+  CoreServiceErrorMapper(ObjectMapper mapper) {
+    this.mapper = mapper;
+  }
+
+  RuntimeException handleException(WebClientResponseException ex) {
+    switch (HttpStatus.resolve(ex.getStatusCode().value())) {
+      case NOT_FOUND: return new NotFoundException(getErrorMessage(ex));
+      case UNPROCESSABLE_ENTITY: return new InvalidInputException(getErrorMessage(ex));
+      case null:
+      default:
+        log.warn("Got an unexpected HTTP error: {}, will rethrow it", ex.getStatusCode());
+        log.warn("Error body: {}", ex.getResponseBodyAsString());
+        return ex;
+    }
+  }
+
+  private String getErrorMessage(WebClientResponseException ex) {
+    try {
+      return mapper.readValue(ex.getResponseBodyAsString(), HttpErrorInfo.class).message();
+    } catch (IOException ioex) {
+      return ex.getMessage();
+    }
+  }
+}
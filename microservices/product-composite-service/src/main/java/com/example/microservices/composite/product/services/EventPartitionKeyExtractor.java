@@ -0,0 +1,25 @@
+package com.example.microservices.composite.product.services;
+
+import org.springframework.cloud.stream.binder.PartitionKeyExtractorStrategy;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+
+/**
+ * Partition key of the published events, replaces a SpEL {@code partition-key-expression} that would otherwise be
+ * evaluated for every message. {@link #partition} is the partition the binder's default selector picks for a key,
+ * it lets the reactive publisher place events exactly like the stream bridge does.
+ */
+@Component("eventPartitionKeyExtractor")
+public class EventPartitionKeyExtractor implements PartitionKeyExtractorStrategy {
+  static final String PARTITION_KEY_HEADER = "partitionKey";
+
+  @Override
+  public Object extractKey(Message<?> message) {
+    return message.getHeaders().get(PARTITION_KEY_HEADER);
+  }
+
+  static int partition(Object key, int partitionCount) {
+    int hashCode = key.hashCode();
+    return Math.abs(hashCode == Integer.MIN_VALUE ? 0 : hashCode) % partitionCount;
+  }
+}
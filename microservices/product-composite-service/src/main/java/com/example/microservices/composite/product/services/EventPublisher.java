@@ -0,0 +1,13 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.api.event.Event;
+import reactor.core.publisher.Mono;
+
+/**
+ * Publishes events to the topic behind a Spring Cloud Stream output binding, e.g. {@code products-out-0}.
+ * The returned {@code Mono} completes when the event has been handed over to the broker and fails if it was not.
+ */
+public interface EventPublisher {
+
+  Mono<Void> publish(String bindingName, Event<?, ?> event);
+}
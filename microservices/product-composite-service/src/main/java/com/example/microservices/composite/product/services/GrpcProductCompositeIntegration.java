@@ -0,0 +1,166 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.api.core.product.Product;
+import com.example.api.core.recommendation.Recommendation;
+import com.example.api.core.review.Review;
+import com.example.api.grpc.CountMessage;
+import com.example.api.grpc.GrpcMessages;
+import com.example.api.grpc.PageRequest;
+import com.example.api.grpc.ProductMessage;
+import com.example.api.grpc.ProductRequest;
+import com.example.api.grpc.ProductServiceGrpc;
+import com.example.api.grpc.ProductsRequest;
+import com.example.api.grpc.RecommendationMessage;
+import com.example.api.grpc.RecommendationServiceGrpc;
+import com.example.api.grpc.ReviewMessage;
+import com.example.api.grpc.ReviewServiceGrpc;
+import com.example.util.grpc.GrpcStreams;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.observation.ObservationRegistry;
+import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads from the core services over gRPC instead of HTTP/JSON, the writes are still published as events. The
+ * channels resolve the instances through Eureka ({@code discovery:///<service>}), one HTTP/2 connection per
+ * instance carries all concurrent calls.
+ * <p>
+ * The calls do not pass through the WebClient, so the HTTP-only parts of the integration do not apply to them:
+ * there is no hedging ({@code app.hedging}), the instances are picked by the round robin policy of the gRPC
+ * channel instead of the {@code app.loadbalancer} strategy, and the per-service connection pools of
+ * {@code app.http-client} are not used. Request coalescing and the leg metrics do apply.
+ */
+@Service
+@ConditionalOnProperty(name = "app.transport", havingValue = "grpc")
+public class GrpcProductCompositeIntegration extends ProductCompositeIntegration {
+  private final RequestCoalescer coalescer;
+  private final CompositeMetrics metrics;
+
+  @GrpcClient("product")
+  private ProductServiceGrpc.ProductServiceStub productStub;
+  @GrpcClient("recommendation")
+  private RecommendationServiceGrpc.RecommendationServiceStub recommendationStub;
+  @GrpcClient("review")
+  private ReviewServiceGrpc.ReviewServiceStub reviewStub;
+
+  public GrpcProductCompositeIntegration(WebClient.Builder webClientbuilder, ObjectMapper mapper,
+                                         EventPublisher eventPublisher, RequestCoalescer coalescer,
+                                         HedgingExchangeFilterFunction hedgingFilter, ServiceConnectors connectors,
+                                         CompositeMetrics metrics, ObservationRegistry observationRegistry) {
+    super(webClientbuilder, mapper, eventPublisher, coalescer, hedgingFilter, connectors, metrics,
+        observationRegistry);
+    this.coalescer = coalescer;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public Mono<Product> getProduct(int productId) {
+    ProductRequest request = productRequest(productId);
+    return coalescer.coalesce("getProduct", productId,
+        () -> products("getProduct", observer -> productStub.getProduct(request, observer)).singleOrEmpty());
+  }
+
+  @Override
+  public Flux<Product> getProducts(List<Integer> productIds) {
+    ProductsRequest request = productsRequest(productIds);
+    return coalescer.coalesceMany("getProductsBatch", List.copyOf(productIds),
+        () -> products("getProductsBatch", observer -> productStub.getProducts(request, observer)));
+  }
+
+  @Override
+  public Flux<Recommendation> getRecommendations(int productId) {
+    ProductRequest request = productRequest(productId);
+    return coalescer.coalesceMany("getRecommendations", productId,
+        () -> recommendations("getRecommendations",
+            observer -> recommendationStub.getRecommendations(request, observer)))
+        // Like over HTTP, a failing recommendation or review service leaves its part of the aggregate empty. The
+        // fallback is outside of the coalesced call, a failed call is shared as an error and retried by the next caller
+        .onErrorResume(error -> metrics.swallow("getRecommendations", error));
+  }
+
+  @Override
+  public Flux<Recommendation> getRecommendations(int productId, int after, int limit) {
+    PageRequest request = pageRequest(productId, after, limit);
+    return coalescer.coalesceMany("getRecommendationsPage", List.of(productId, after, limit),
+        () -> recommendations("getRecommendationsPage",
+            observer -> recommendationStub.getRecommendationsPage(request, observer)))
+        .onErrorResume(error -> metrics.swallow("getRecommendationsPage", error));
+  }
+
+  @Override
+  public Flux<Recommendation> getRecommendations(List<Integer> productIds) {
+    ProductsRequest request = productsRequest(productIds);
+    return coalescer.coalesceMany("getRecommendationsBatch", List.copyOf(productIds),
+        () -> recommendations("getRecommendationsBatch",
+            observer -> recommendationStub.getRecommendationsBatch(request, observer)))
+        .onErrorResume(error -> metrics.swallow("getRecommendationsBatch", error));
+  }
+
+  @Override
+  public Flux<Review> getReviews(int productId) {
+    ProductRequest request = productRequest(productId);
+    return coalescer.coalesceMany("getReviews", productId,
+        () -> reviews("getReviews", observer -> reviewStub.getReviews(request, observer)))
+        .onErrorResume(error -> metrics.swallow("getReviews", error));
+  }
+
+  @Override
+  public Flux<Review> getReviews(int productId, int after, int limit) {
+    PageRequest request = pageRequest(productId, after, limit);
+    return coalescer.coalesceMany("getReviewsPage", List.of(productId, after, limit),
+        () -> reviews("getReviewsPage", observer -> reviewStub.getReviewsPage(request, observer)))
+        .onErrorResume(error -> metrics.swallow("getReviewsPage", error));
+  }
+
+  @Override
+  public Flux<Review> getReviews(List<Integer> productIds) {
+    ProductsRequest request = productsRequest(productIds);
+    return coalescer.coalesceMany("getReviewsBatch", List.copyOf(productIds),
+        () -> reviews("getReviewsBatch", observer -> reviewStub.getReviewsBatch(request, observer)))
+        .onErrorResume(error -> metrics.swallow("getReviewsBatch", error));
+  }
+
+  @Override
+  public Mono<Long> countReviews(int productId) {
+    ProductRequest request = productRequest(productId);
+    return coalescer.coalesce("countReviews", productId,
+        () -> count("countReviews", observer -> reviewStub.countReviews(request, observer)).singleOrEmpty())
+        .onErrorResume(error -> Mono.from(metrics.swallow("countReviews", error)));
+  }
+
+  private Flux<Product> products(String leg, Consumer<StreamObserver<ProductMessage>> call) {
+    return metrics.timeLeg(leg, GrpcStreams.call(call, GrpcMessages::toApi));
+  }
+
+  private Flux<Recommendation> recommendations(String leg, Consumer<StreamObserver<RecommendationMessage>> call) {
+    return metrics.timeLeg(leg, GrpcStreams.call(call, GrpcMessages::toApi));
+  }
+
+  private Flux<Review> reviews(String leg, Consumer<StreamObserver<ReviewMessage>> call) {
+    return metrics.timeLeg(leg, GrpcStreams.call(call, GrpcMessages::toApi));
+  }
+
+  private Flux<Long> count(String leg, Consumer<StreamObserver<CountMessage>> call) {
+    return metrics.timeLeg(leg, GrpcStreams.call(call, GrpcMessages::toApi));
+  }
+
+  private ProductRequest productRequest(int productId) {
+    return ProductRequest.newBuilder().setProductId(productId).build();
+  }
+
+  private ProductsRequest productsRequest(List<Integer> productIds) {
+    return ProductsRequest.newBuilder().addAllProductIds(productIds).build();
+  }
+
+  private PageRequest pageRequest(int productId, int after, int limit) {
+    return PageRequest.newBuilder().setProductId(productId).setAfter(after).setLimit(limit).build();
+  }
+}
@@ -0,0 +1,216 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.microservices.composite.product.HedgingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.*;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hedges calls to the core services across their replicas.
+ * <p>
+ * The primary request goes to the instance chosen by the load balancer. If no response has arrived once the
+ * configured percentile of recent response times has passed, the same request is sent to a different instance
+ * of the service; the first response wins, the other request is cancelled and a response it still gets is released.
+ * Hedges are paid from a token budget per service that every request to it tops up by
+ * {@code app.hedging.budget-ratio}, so a slow service cannot double its load, nor spend the hedges of the other
+ * services. A failed primary request fails the call, it is not retried on the hedge.
+ * <p>
+ * The filter does its own instance selection and must therefore be used on a WebClient without the
+ * {@code @LoadBalanced} filter. Like that filter it reports every call to the {@link LoadBalancerLifecycle} beans of
+ * the service, so latency aware load balancers keep seeing the traffic.
+ */
+@Component
+@Slf4j
+public class HedgingExchangeFilterFunction implements ExchangeFilterFunction {
+  private static final String HEDGING_METRIC = "composite.hedging.requests";
+  private static final long TOKEN = 1000;
+
+  private final HedgingProperties properties;
+  private final ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory;
+  private final ReactiveDiscoveryClient discoveryClient;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> budgets = new ConcurrentHashMap<>();
+
+  public HedgingExchangeFilterFunction(HedgingProperties properties,
+                                       ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory,
+                                       ReactiveDiscoveryClient discoveryClient, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.loadBalancerFactory = loadBalancerFactory;
+    this.discoveryClient = discoveryClient;
+    this.meterRegistry = meterRegistry;
+  }
+
+  public boolean isEnabled() {
+    return properties.enabled();
+  }
+
+  @Override
+  public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+    String serviceId = request.url().getHost();
+    LatencyWindow window = latencies.computeIfAbsent(serviceId, id -> new LatencyWindow());
+    AtomicLong budget = budgets.computeIfAbsent(serviceId, id -> new AtomicLong());
+    depositBudget(budget);
+    return choose(serviceId).flatMap(primary -> {
+      AtomicBoolean decided = new AtomicBoolean();
+      Mono<Outcome> primaryCall = exchange(serviceId, request, primary, next, window)
+          .map(response -> new Outcome(response, false));
+      Mono<Outcome> hedgeCall = Mono.delay(window.hedgeDelay())
+          .flatMap(tick -> chooseOther(serviceId, primary))
+          .filter(other -> tryAcquireBudget(serviceId, budget))
+          .flatMap(other -> {
+            log.debug("Hedges request {} to {} after no response from {}", request.url(), other.getUri(), primary.getUri());
+            count(serviceId, "fired");
+            return exchange(serviceId, request, other, next, window);
+          })
+          .map(response -> new Outcome(response, true))
+          // A hedge that cannot be sent or fails must never decide the race
+          .onErrorResume(error -> Mono.never())
+          .switchIfEmpty(Mono.never());
+      return Mono.firstWithSignal(claim(primaryCall, decided), claim(hedgeCall, decided))
+          .doOnNext(outcome -> {
+            if (outcome.hedged()) {
+              count(serviceId, "won");
+            }
+          })
+          .map(Outcome::response)
+          // A response dropped by a cancelled leg still holds its pooled connection until its body is released
+          .doOnDiscard(Outcome.class, outcome -> release(outcome.response()))
+          .doOnDiscard(ClientResponse.class, HedgingExchangeFilterFunction::release);
+    });
+  }
+
+  /**
+   * Lets the first response of the two legs through. A response that arrives after the other leg has won is released
+   * instead, the leg then never signals so it cannot complete the race empty.
+   */
+  private static Mono<Outcome> claim(Mono<Outcome> leg, AtomicBoolean decided) {
+    return leg.flatMap(outcome -> {
+      if (decided.compareAndSet(false, true)) {
+        return Mono.just(outcome);
+      }
+      release(outcome.response());
+      return Mono.never();
+    });
+  }
+
+  private static void release(ClientResponse response) {
+    response.releaseBody()
+        .subscribe(null, error -> log.debug("Release of a hedged response failed: {}", error.toString()));
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Mono<ClientResponse> exchange(String serviceId, ClientRequest request, ServiceInstance instance,
+                                        ExchangeFunction next, LatencyWindow window) {
+    ClientRequest instanceRequest = ClientRequest.from(request)
+        .url(LoadBalancerUriTools.reconstructURI(instance, request.url()))
+        .build();
+    Set<LoadBalancerLifecycle> lifecycles = LoadBalancerLifecycleValidator.getSupportedLifecycleProcessors(
+        loadBalancerFactory.getInstances(serviceId, LoadBalancerLifecycle.class),
+        RequestDataContext.class, ResponseData.class, ServiceInstance.class);
+    Request<RequestDataContext> lbRequest = new DefaultRequest<>(new RequestDataContext(new RequestData(instanceRequest)));
+    Response<ServiceInstance> lbResponse = new DefaultResponse(instance);
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      lifecycles.forEach(lifecycle -> lifecycle.onStartRequest(lbRequest, lbResponse));
+      return next.exchange(instanceRequest)
+          .doOnNext(response -> {
+            window.record(System.nanoTime() - start);
+            lifecycles.forEach(lifecycle -> lifecycle.onComplete(
+                new CompletionContext<>(CompletionContext.Status.SUCCESS, lbRequest, lbResponse)));
+          })
+          .doOnError(error -> lifecycles.forEach(lifecycle -> lifecycle.onComplete(
+              new CompletionContext<>(CompletionContext.Status.FAILED, error, lbRequest, lbResponse))))
+          .doOnCancel(() -> lifecycles.forEach(lifecycle -> lifecycle.onComplete(
+              new CompletionContext<>(CompletionContext.Status.DISCARD, lbRequest, lbResponse))));
+    });
+  }
+
+  private Mono<ServiceInstance> choose(String serviceId) {
+    return Mono.from(loadBalancerFactory.getInstance(serviceId).choose())
+        .filter(response -> response.hasServer())
+        .map(response -> response.getServer())
+        .switchIfEmpty(Mono.error(() -> new IllegalStateException("No instances available for " + serviceId)));
+  }
+
+  private Mono<ServiceInstance> chooseOther(String serviceId, ServiceInstance primary) {
+    return discoveryClient.getInstances(serviceId)
+        .filter(instance -> !Objects.equals(instance.getHost(), primary.getHost()) || instance.getPort() != primary.getPort())
+        .collectList()
+        .flatMap(others -> {
+          if (others.isEmpty()) {
+            count(serviceId, "no-alternative");
+            return Mono.empty();
+          }
+          return Mono.just(others.get(ThreadLocalRandom.current().nextInt(others.size())));
+        });
+  }
+
+  private void depositBudget(AtomicLong budget) {
+    long deposit = Math.round(properties.budgetRatio() * TOKEN);
+    long limit = properties.budgetBurst() * TOKEN;
+    budget.getAndUpdate(tokens -> Math.min(limit, tokens + deposit));
+  }
+
+  private boolean tryAcquireBudget(String serviceId, AtomicLong budget) {
+    long before = budget.getAndUpdate(tokens -> tokens >= TOKEN ? tokens - TOKEN : tokens);
+    if (before < TOKEN) {
+      count(serviceId, "budget-exhausted");
+      return false;
+    }
+    return true;
+  }
+
+  private void count(String serviceId, String outcome) {
+    meterRegistry.counter(HEDGING_METRIC, "service", serviceId, "outcome", outcome).increment();
+  }
+
+  private record Outcome(ClientResponse response, boolean hedged) {
+  }
+
+  /**
+   * Ring buffer of the most recent response times of one service, the percentile is recomputed every
+   * {@code RECOMPUTE_INTERVAL} samples to keep sorting off the per-request path.
+   */
+  private class LatencyWindow {
+    private static final int SIZE = 512;
+    private static final int RECOMPUTE_INTERVAL = 32;
+
+    private final long[] samples = new long[SIZE];
+    private long count;
+    private volatile Duration delay = properties.initialDelay();
+
+    synchronized void record(long nanos) {
+      samples[(int) (count++ % SIZE)] = nanos;
+      if (count >= properties.minSamples() && count % RECOMPUTE_INTERVAL == 0) {
+        long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, SIZE));
+        Arrays.sort(sorted);
+        long percentile = sorted[(int) Math.min(sorted.length - 1, Math.floor(properties.percentile() * sorted.length))];
+        delay = Duration.ofNanos(Math.max(percentile, properties.minDelay().toNanos()));
+      }
+    }
+
+    Duration hedgeDelay() {
+      return delay;
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.api.event.Event;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.Consumer;
+
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class MessageProcessorConfig {
+  private final ProductAggregateCache aggregateCache;
+
+  @Bean
+  Consumer<Event<Integer, Object>> aggregateCacheInvalidator() {
+    return event -> {
+      log.debug("Invalidates cached aggregate for productId: {} on {} event", event.key(), event.eventType());
+      aggregateCache.invalidate(event.key());
+    };
+  }
+}
@@ -0,0 +1,115 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.api.composite.ProductAggregate;
+import com.example.api.exception.NotFoundException;
+import com.example.microservices.composite.product.AggregateCacheProperties;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of composite aggregates keyed by productId.
+ * <p>
+ * Entries are bounded by size (W-TinyLFU) and expire after {@code app.cache.time-to-live}. A hit older than
+ * {@code app.cache.refresh-after} is returned as is while a single background reload replaces it
+ * (stale-while-revalidate). Entries are dropped as soon as an event for the product is seen on any of the
+ * core service topics, see {@link MessageProcessorConfig}.
+ * <p>
+ * An invalidation also bumps the generation of the product. A load captures the generation when it starts and its
+ * result is not kept if the generation has changed by the time it completes, so a load or background refresh that
+ * was running when the event was seen cannot put the state from before the event back into the cache. The composite
+ * sees an event at about the time the core service applies it, so a load that starts right after the invalidation
+ * may still read the old state, which is then served until it is refreshed or expires.
+ */
+@Component
+@Slf4j
+public class ProductAggregateCache {
+  private static final String CACHE_NAME = "productAggregate";
+  // Products that share a stripe share their generation, an invalidation at worst drops the load of another one
+  private static final int GENERATION_STRIPES = 4096;
+
+  private final AggregateCacheProperties properties;
+  private final AsyncCache<Integer, CachedAggregate> cache;
+  private final Set<Integer> refreshing = ConcurrentHashMap.newKeySet();
+  private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+  public ProductAggregateCache(AggregateCacheProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(properties.maximumSize())
+        .expireAfterWrite(properties.timeToLive())
+        .recordStats()
+        .buildAsync();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+  }
+
+  public Mono<ProductAggregate> get(int productId, Function<Integer, Mono<ProductAggregate>> loader) {
+    if (!properties.enabled()) {
+      return loader.apply(productId);
+    }
+    // Cancellation of one subscriber must not cancel the load that concurrent callers are waiting for
+    return Mono.fromFuture(() -> {
+          CompletableFuture<CachedAggregate> entry = cache.get(productId, (key, executor) -> load(key, loader));
+          entry.thenAccept(cached -> {
+            if (isInvalidated(productId, cached)) {
+              cache.asMap().remove(productId, entry);
+            }
+          });
+          return entry;
+        }, true)
+        .doOnNext(cached -> refreshIfStale(productId, cached, loader))
+        .map(CachedAggregate::aggregate);
+  }
+
+  public void invalidate(int productId) {
+    generations.incrementAndGet(stripe(productId));
+    cache.synchronous().invalidate(productId);
+  }
+
+  private CompletableFuture<CachedAggregate> load(int productId, Function<Integer, Mono<ProductAggregate>> loader) {
+    long generation = generations.get(stripe(productId));
+    return Mono.defer(() -> loader.apply(productId))
+        .map(aggregate -> new CachedAggregate(aggregate, System.nanoTime(), generation))
+        .toFuture();
+  }
+
+  private boolean isInvalidated(int productId, CachedAggregate cached) {
+    return generations.get(stripe(productId)) != cached.generation();
+  }
+
+  private static int stripe(int productId) {
+    return Math.floorMod(productId, GENERATION_STRIPES);
+  }
+
+  private void refreshIfStale(int productId, CachedAggregate cached, Function<Integer, Mono<ProductAggregate>> loader) {
+    if (System.nanoTime() - cached.loadedAt() < properties.refreshAfter().toNanos() || !refreshing.add(productId)) {
+      return;
+    }
+    log.debug("Refreshing stale aggregate for productId: {}", productId);
+    load(productId, loader).whenComplete((fresh, error) -> {
+      refreshing.remove(productId);
+      // Conditional updates, so an entry invalidated while the reload was running is not resurrected
+      if (error instanceof NotFoundException) {
+        cache.synchronous().asMap().remove(productId, cached);
+      } else if (error != null) {
+        log.debug("Background refresh for productId: {} failed, keeps serving the stale entry: {}",
+            productId, error.toString());
+      } else if (fresh != null && !isInvalidated(productId, fresh)) {
+        cache.synchronous().asMap().replace(productId, cached, fresh);
+      }
+    });
+  }
+
+  private record CachedAggregate(ProductAggregate aggregate, long loadedAt, long generation) {
+  }
+}
@@ -7,146 +7,206 @@ import com.example.api.core.recommendation.RecommendationService;
 import com.example.api.core.review.Review;
 import com.example.api.core.review.ReviewService;
 import com.example.api.event.Event;
-import com.example.api.exception.InvalidInputException;
-import com.example.api.exception.NotFoundException;
-import com.example.util.http.HttpErrorInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.extern.slf4j.Slf4j;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.cloud.stream.function.StreamBridge;
-import org.springframework.http.HttpStatus;
-import org.springframework.messaging.Message;
-import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Scheduler;
 
-import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static com.example.api.event.Event.Type.CREATE;
 import static com.example.api.event.Event.Type.DELETE;
-import static java.util.logging.Level.FINE;
 
+/**
+ * Reads from the core services over HTTP/JSON and publishes the writes as events. With {@code app.transport=grpc}
+ * the {@link GrpcProductCompositeIntegration} subclass takes its place.
+ */
 @Service
-@Slf4j
+@ConditionalOnProperty(name = "app.transport", havingValue = "http", matchIfMissing = true)
 public class ProductCompositeIntegration implements ProductService, RecommendationService, ReviewService {
   private static final String PRODUCT_SERVICE_URL = "http://product";
   private static final String RECOMMENDATION_SERVICE_URL = "http://recommendation";
   private static final String REVIEW_SERVICE_URL = "http://review";
 
-  private final WebClient webClient;
-  private final ObjectMapper mapper;
-  private final StreamBridge streamBridge;
-  private final Scheduler publishEventScheduler;
+  private final WebClient productClient;
+  private final WebClient recommendationClient;
+  private final WebClient reviewClient;
+  private final CoreServiceErrorMapper errorMapper;
+  private final EventPublisher eventPublisher;
+  private final RequestCoalescer coalescer;
+  private final CompositeMetrics metrics;
 
   @Autowired
-  public ProductCompositeIntegration(WebClient.Builder webClientbuilder, ObjectMapper mapper, StreamBridge streamBridge,
-                                     @Qualifier("publishEventScheduler") Scheduler publishEventScheduler) {
-    this.webClient = webClientbuilder.build();
-    this.mapper = mapper;
-    this.streamBridge = streamBridge;
-    this.publishEventScheduler = publishEventScheduler;
+  public ProductCompositeIntegration(WebClient.Builder webClientbuilder, ObjectMapper mapper, EventPublisher eventPublisher,
+                                     RequestCoalescer coalescer, HedgingExchangeFilterFunction hedgingFilter,
+                                     ServiceConnectors connectors, CompositeMetrics metrics,
+                                     ObservationRegistry observationRegistry) {
+    // Hedging picks the instances itself and therefore replaces the load balanced client
+    WebClient.Builder builder = hedgingFilter.isEnabled()
+        ? WebClient.builder().observationRegistry(observationRegistry).filter(hedgingFilter)
+        : webClientbuilder;
+    // Each service gets its own connection pool, so a slow service cannot use up the connections of the others
+    // The metrics filter comes last, it sees the instance the load balancing or hedging filter has picked
+    this.productClient = builder.clone().filter(metrics).clientConnector(connectors.connector("product")).build();
+    this.recommendationClient = builder.clone().filter(metrics)
+        .clientConnector(connectors.connector("recommendation")).build();
+    this.reviewClient = builder.clone().filter(metrics).clientConnector(connectors.connector("review")).build();
+    this.errorMapper = new CoreServiceErrorMapper(mapper);
+    this.eventPublisher = eventPublisher;
+    this.coalescer = coalescer;
+    this.metrics = metrics;
   }
 
   @Override
   public Mono<Product> getProduct(int productId) {
     String url = PRODUCT_SERVICE_URL + "/product/" + productId;
-    return webClient.get().uri(url).retrieve()
+    return coalescer.coalesce("getProduct", productId, () -> productClient.get().uri(url)
+        .attribute(CompositeMetrics.LEG_ATTRIBUTE, "getProduct")
+        .retrieve()
         .bodyToMono(Product.class)
-        .log(log.getName(), FINE)
-        .onErrorMap(WebClientResponseException.class, this::handleException);
+        .onErrorMap(WebClientResponseException.class, errorMapper::handleException));
+  }
+
+  @Override
+  public Flux<Product> getProducts(List<Integer> productIds) {
+    String url = PRODUCT_SERVICE_URL + "/product?productIds=" + toQueryValue(productIds);
+    return coalescer.coalesceMany("getProductsBatch", List.copyOf(productIds), () -> productClient.get().uri(url)
+        .attribute(CompositeMetrics.LEG_ATTRIBUTE, "getProductsBatch")
+        .retrieve()
+        .bodyToFlux(Product.class)
+        .onErrorMap(WebClientResponseException.class, errorMapper::handleException));
   }
 
   @Override
   public Mono<Product> createProduct(Product body) {
-    return Mono.fromCallable(() -> {
-          sendMessage("products-out-0", new Event<>(CREATE, body.getProductId(), body));
-          return body;
-        })
-        .subscribeOn(publishEventScheduler);
+    return eventPublisher.publish("products-out-0", new Event<>(CREATE, body.getProductId(), body))
+        .thenReturn(body);
   }
 
   @Override
   public Mono<Void> deleteProduct(int productId) {
-    return Mono.fromRunnable(() -> sendMessage("products-out-0", new Event<>(DELETE, productId, null)))
-        .subscribeOn(publishEventScheduler).then();
+    return eventPublisher.publish("products-out-0", new Event<>(DELETE, productId, null));
   }
 
   @Override
   public Flux<Recommendation> getRecommendations(int productId) {
     String url = RECOMMENDATION_SERVICE_URL + "/recommendation?productId=" + productId;
-    return webClient.get().uri(url).retrieve()
-        .bodyToFlux(Recommendation.class)
-        .log(log.getName(), FINE)
-        .onErrorResume(error -> Flux.empty());
+    return coalescer.coalesceMany("getRecommendations", productId, () -> recommendationClient.get().uri(url)
+        .attribute(CompositeMetrics.LEG_ATTRIBUTE, "getRecommendations")
+        .retrieve()
+        .bodyToFlux(Recommendation.class))
+        // Outside of the coalesced call, so a failed call is shared as an error and retried by the next caller
+        .onErrorResume(error -> metrics.swallow("getRecommendations", error));
+  }
+
+  @Override
+  public Flux<Recommendation> getRecommendations(int productId, int after, int limit) {
+    String url = RECOMMENDATION_SERVICE_URL + "/recommendation?productId=" + productId + "&after=" + after + "&limit=" + limit;
+    return coalescer.coalesceMany("getRecommendationsPage", List.of(productId, after, limit), () -> recommendationClient.get().uri(url)
+        .attribute(CompositeMetrics.LEG_ATTRIBUTE, "getRecommendationsPage")
+        .retrieve()
+        .bodyToFlux(Recommendation.class))
+        .onErrorResume(error -> metrics.swallow("getRecommendationsPage", error));
+  }
+
+  @Override
+  public Flux<Recommendation> getRecommendations(List<Integer> productIds) {
+    String url = RECOMMENDATION_SERVICE_URL + "/recommendation?productIds=" + toQueryValue(productIds);
+    return coalescer.coalesceMany("getRecommendationsBatch", List.copyOf(productIds), () -> recommendationClient.get().uri(url)
+        .attribute(CompositeMetrics.LEG_ATTRIBUTE, "getRecommendationsBatch")
+        .retrieve()
+        .bodyToFlux(Recommendation.class))
+        .onErrorResume(error -> metrics.swallow("getRecommendationsBatch", error));
   }
 
   @Override
   public Mono<Recommendation> createRecommendation(Recommendation body) {
-    return Mono.fromCallable(() -> {
-      sendMessage("recommendations-out-0", new Event<>(CREATE, body.getProductId(), body));
-      return body;
-    }).subscribeOn(publishEventScheduler);
+    return eventPublisher.publish("recommendations-out-0", new Event<>(CREATE, body.getProductId(), body))
+        .thenReturn(body);
+  }
+
+  @Override
+  public Flux<Recommendation> createRecommendations(List<Recommendation> body) {
+    if (body.isEmpty()) {
+      return Flux.empty();
+    }
+    return eventPublisher.publish("recommendations-out-0", Event.createBatch(body.getFirst().getProductId(), body))
+        .thenMany(Flux.fromIterable(body));
   }
 
   @Override
   public Mono<Void> deleteRecommendations(int productId) {
-    return Mono.fromRunnable(() -> sendMessage("recommendations-out-0", new Event<>(DELETE, productId, null)))
-        .subscribeOn(publishEventScheduler).then();
+    return eventPublisher.publish("recommendations-out-0", new Event<>(DELETE, productId, null));
   }
 
   @Override
   public Flux<Review> getReviews(int productId) {
     String url = REVIEW_SERVICE_URL + "/review?productId=" + productId;
-    return webClient.get().uri(url).retrieve()
-        .bodyToFlux(Review.class)
-        .log(log.getName(), FINE)
-        .onErrorResume(error -> Flux.empty());
+    return coalescer.coalesceMany("getReviews", productId, () -> reviewClient.get().uri(url)
+        .attribute(CompositeMetrics.LEG_ATTRIBUTE, "getReviews")
+        .retrieve()
+        .bodyToFlux(Review.class))
+        .onErrorResume(error -> metrics.swallow("getReviews", error));
+  }
+
+  @Override
+  public Flux<Review> getReviews(int productId, int after, int limit) {
+    String url = REVIEW_SERVICE_URL + "/review?productId=" + productId + "&after=" + after + "&limit=" + limit;
+    return coalescer.coalesceMany("getReviewsPage", List.of(productId, after, limit), () -> reviewClient.get().uri(url)
+        .attribute(CompositeMetrics.LEG_ATTRIBUTE, "getReviewsPage")
+        .retrieve()
+        .bodyToFlux(Review.class))
+        .onErrorResume(error -> metrics.swallow("getReviewsPage", error));
+  }
+
+  @Override
+  public Flux<Review> getReviews(List<Integer> productIds) {
+    String url = REVIEW_SERVICE_URL + "/review?productIds=" + toQueryValue(productIds);
+    return coalescer.coalesceMany("getReviewsBatch", List.copyOf(productIds), () -> reviewClient.get().uri(url)
+        .attribute(CompositeMetrics.LEG_ATTRIBUTE, "getReviewsBatch")
+        .retrieve()
+        .bodyToFlux(Review.class))
+        .onErrorResume(error -> metrics.swallow("getReviewsBatch", error));
+  }
+
+  @Override
+  public Mono<Long> countReviews(int productId) {
+    String url = REVIEW_SERVICE_URL + "/review/count?productId=" + productId;
+    return coalescer.coalesce("countReviews", productId, () -> reviewClient.get().uri(url)
+        .attribute(CompositeMetrics.LEG_ATTRIBUTE, "countReviews")
+        .retrieve()
+        .bodyToMono(Long.class))
+        // Like the reviews, a count the review service fails to give is left out of the aggregate
+        .onErrorResume(error -> Mono.from(metrics.swallow("countReviews", error)));
   }
 
   @Override
   public Mono<Review> createReview(Review body) {
-    return Mono.fromCallable(() -> {
-      sendMessage("reviews-out-0", new Event<>(CREATE, body.getProductId(), body));
-      return body;
-    }).subscribeOn(publishEventScheduler);
+    return eventPublisher.publish("reviews-out-0", new Event<>(CREATE, body.getProductId(), body))
+        .thenReturn(body);
   }
 
   @Override
-  public Mono<Void> deleteReviews(int productId) {
-    return Mono.fromRunnable(() -> sendMessage("reviews-out-0", new Event<>(DELETE, productId, null)))
-        .subscribeOn(publishEventScheduler).then();
-  }
-
-  private RuntimeException handleException(WebClientResponseException ex) {
-    switch (HttpStatus.resolve(ex.getStatusCode().value())) {
-      case NOT_FOUND: return new NotFoundException(getErrorMessage(ex));
-      case UNPROCESSABLE_ENTITY: return new InvalidInputException(getErrorMessage(ex));
-      case null:
-      default:
-        log.warn("Got an unexpected HTTP error: {}, will rethrow it", ex.getStatusCode());
-        log.warn("Error body: {}", ex.getResponseBodyAsString());
-        return ex;
+  public Flux<Review> createReviews(List<Review> body) {
+    if (body.isEmpty()) {
+      return Flux.empty();
     }
+    return eventPublisher.publish("reviews-out-0", Event.createBatch(body.getFirst().getProductId(), body))
+        .thenMany(Flux.fromIterable(body));
   }
 
-  private String getErrorMessage(WebClientResponseException ex) {
-    try {
-      return mapper.readValue(ex.getResponseBodyAsString(), HttpErrorInfo.class).message();
-    } catch (IOException ioex) {
-      return ex.getMessage();
-    }
+  @Override
+  public Mono<Void> deleteReviews(int productId) {
+    return eventPublisher.publish("reviews-out-0", new Event<>(DELETE, productId, null));
   }
 
-  private <K, T> void sendMessage(String bindingName, Event<K, T> event) {
-    Message<Event<K, T>> message = MessageBuilder
-        .withPayload(event)
-        .setHeader("partitionKey", event.key())
-        .build();
-    streamBridge.send(bindingName, message);
+  private String toQueryValue(List<Integer> productIds) {
+    return productIds.stream().map(String::valueOf).collect(Collectors.joining(","));
   }
 }
@@ -4,27 +4,46 @@ import com.example.api.composite.*;
 import com.example.api.core.product.Product;
 import com.example.api.core.recommendation.Recommendation;
 import com.example.api.core.review.Review;
+import com.example.api.exception.InvalidInputException;
 import com.example.util.http.ServiceUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.logging.Level;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
 @Slf4j
 public class ProductCompositeServiceImpl implements ProductCompositeService {
+  private static final int MAX_BATCH_SIZE = 200;
+  private static final int MAX_PAGE_SIZE = 1000;
+  private static final String INCLUDE_RECOMMENDATIONS = "recommendations";
+  private static final String INCLUDE_REVIEWS = "reviews";
+  private static final String INCLUDE_REVIEW_COUNT = "reviewCount";
+  private static final Set<String> INCLUDES = Set.of(INCLUDE_RECOMMENDATIONS, INCLUDE_REVIEWS, INCLUDE_REVIEW_COUNT);
+
   private final ProductCompositeIntegration integration;
   private final ServiceUtil serviceUtil;
+  private final ProductAggregateCache aggregateCache;
+  private final CompositeMetrics metrics;
 
   @Override
   public Mono<ProductAggregate> getCompositeProduct(int productId) {
-    return Mono.zip(values -> createProductAggregate(
+    return aggregateCache.get(productId, this::loadCompositeProduct)
+        .doOnError(ex -> log.warn("getCompositeProduct failed: {}", ex.toString()));
+  }
+
+  private Mono<ProductAggregate> loadCompositeProduct(int productId) {
+    return metrics.timeAggregate("getCompositeProduct", Mono.zip(values -> createProductAggregate(
             (Product) values[0],
             (List<Recommendation>) values[1],
             (List<Review>) values[2],
@@ -32,9 +51,106 @@ public class ProductCompositeServiceImpl implements ProductCompositeService {
           ),
           integration.getProduct(productId),
           integration.getRecommendations(productId).collectList(),
-          integration.getReviews(productId).collectList())
-        .doOnError(ex -> log.warn("getCompositeProduct failed: {}", ex.toString()))
-        .log(log.getName(), Level.FINE);
+          integration.getReviews(productId).collectList()));
+  }
+
+  @Override
+  public Mono<ProductAggregate> getCompositeProduct(int productId, List<String> include) {
+    include.stream()
+        .filter(part -> !INCLUDES.contains(part))
+        .findFirst()
+        .ifPresent(part -> {
+          throw new InvalidInputException("Invalid include: " + part);
+        });
+    boolean withRecommendations = include.contains(INCLUDE_RECOMMENDATIONS);
+    boolean withReviews = include.contains(INCLUDE_REVIEWS);
+    boolean withReviewCount = include.contains(INCLUDE_REVIEW_COUNT);
+    if (withRecommendations && withReviews && !withReviewCount) {
+      return getCompositeProduct(productId);
+    }
+    log.debug("getCompositeProduct: will get product.id {} including {}", productId, include);
+
+    // Legs that are not included are never subscribed, so the core services behind them are not called
+    Mono<List<Recommendation>> recommendations = withRecommendations
+        ? integration.getRecommendations(productId).collectList() : Mono.just(List.of());
+    Mono<List<Review>> reviews = withReviews
+        ? integration.getReviews(productId).collectList() : Mono.just(List.of());
+    // Reviews that are read anyway are counted here, otherwise the review service counts them without sending them.
+    // A count it fails to give is left out, it must not complete the zip empty
+    Mono<Optional<Long>> reviewCount = withReviewCount && !withReviews
+        ? integration.countReviews(productId).map(Optional::of).defaultIfEmpty(Optional.empty())
+        : Mono.just(Optional.empty());
+    Mono<ProductAggregate> aggregate = Mono.zip(integration.getProduct(productId), recommendations, reviews,
+            reviewCount)
+        .map(tuple -> {
+          ProductAggregate full = createProductAggregate(tuple.getT1(), tuple.getT2(), tuple.getT3(),
+              serviceUtil.getServiceAddress());
+          Long count = !withReviewCount ? null
+              : withReviews ? Long.valueOf(tuple.getT3().size()) : tuple.getT4().orElse(null);
+          return new ProductAggregate(full.productId(), full.name(), full.weight(),
+              withRecommendations ? full.recommendations() : null,
+              withReviews ? full.reviews() : null,
+              full.serviceAddresses(), null, null, count);
+        });
+    return metrics.timeAggregate("getCompositeProductProjection", aggregate)
+        .doOnError(ex -> log.warn("getCompositeProduct failed: {}", ex.toString()));
+  }
+
+  @Override
+  public Mono<ProductAggregate> getCompositeProduct(int productId, int recommendationsAfter, int reviewsAfter, int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new InvalidInputException("Invalid limit: " + limit);
+    }
+    // One extra element per leg tells whether there is a next page
+    return metrics.timeAggregate("getCompositeProductPage", Mono.zip(values -> createProductAggregatePage(
+            (Product) values[0],
+            (List<Recommendation>) values[1],
+            (List<Review>) values[2],
+            limit,
+            serviceUtil.getServiceAddress()
+          ),
+          integration.getProduct(productId),
+          integration.getRecommendations(productId, recommendationsAfter, limit + 1).collectList(),
+          integration.getReviews(productId, reviewsAfter, limit + 1).collectList()))
+        .doOnError(ex -> log.warn("getCompositeProduct failed: {}", ex.toString()));
+  }
+
+  @Override
+  public Flux<ProductAggregatePart> streamCompositeProduct(int productId) {
+    Flux<ProductAggregatePart> header = integration.getProduct(productId)
+        .map(p -> ProductAggregatePart.of(new ProductSummary(p.getProductId(), p.getName(), p.getWeight())))
+        .flux();
+    Flux<ProductAggregatePart> items = Flux.merge(
+        integration.getRecommendations(productId).map(r -> ProductAggregatePart.of(toSummary(r))),
+        integration.getReviews(productId).map(r -> ProductAggregatePart.of(toSummary(r))));
+    // All legs are subscribed at once, items arriving before the header are held back until it has been emitted
+    return metrics.timeAggregate("streamCompositeProduct", Flux.mergeSequential(header, items))
+        .doOnError(ex -> log.warn("streamCompositeProduct failed: {}", ex.toString()));
+  }
+
+  @Override
+  public Flux<ProductAggregate> getCompositeProducts(List<Integer> productIds) {
+    List<Integer> ids = productIds.stream().distinct().toList();
+    if (ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+      throw new InvalidInputException("Number of productIds must be between 1 and " + MAX_BATCH_SIZE + ": " + ids.size());
+    }
+    log.debug("getCompositeProducts: will get {} composite products in one batch", ids.size());
+    return metrics.timeAggregate("getCompositeProducts", Mono.zip(
+            integration.getProducts(ids).collectMap(Product::getProductId, Function.identity()),
+            integration.getRecommendations(ids).collect(Collectors.groupingBy(Recommendation::getProductId)),
+            integration.getReviews(ids).collect(Collectors.groupingBy(Review::getProductId))))
+        .flatMapMany(tuple -> {
+          Map<Integer, Product> products = tuple.getT1();
+          String compositeAddress = serviceUtil.getServiceAddress();
+          return Flux.fromIterable(ids)
+              .filter(products::containsKey)
+              .map(id -> createProductAggregate(
+                  products.get(id),
+                  tuple.getT2().getOrDefault(id, List.of()),
+                  tuple.getT3().getOrDefault(id, List.of()),
+                  compositeAddress));
+        })
+        .doOnError(ex -> log.warn("getCompositeProducts failed: {}", ex.toString()));
   }
 
   @Override
@@ -46,28 +162,34 @@ public class ProductCompositeServiceImpl implements ProductCompositeService {
       Product product = new Product().setProductId(body.productId()).setName(body.name()).setWeight(body.weight());
       monoList.add(integration.createProduct(product));
 
-      Optional.ofNullable(body.recommendations()).orElseGet(List::of).stream()
+      // One batch event per topic, however many recommendations and reviews the aggregate has
+      List<Recommendation> recommendations = Optional.ofNullable(body.recommendations()).orElseGet(List::of).stream()
           .map(rs -> new Recommendation()
               .setProductId(product.getProductId())
               .setRecommendationId(rs.recommendationId())
               .setAuthor(rs.author())
               .setRate(rs.rate())
               .setContent(rs.content()))
-          .forEach(r -> monoList.add(integration.createRecommendation(r)));
+          .toList();
+      if (!recommendations.isEmpty()) {
+        monoList.add(integration.createRecommendations(recommendations).then());
+      }
 
-      Optional.ofNullable(body.reviews()).orElseGet(List::of).stream()
+      List<Review> reviews = Optional.ofNullable(body.reviews()).orElseGet(List::of).stream()
           .map(rs -> new Review()
               .setProductId(product.getProductId())
               .setReviewId(rs.reviewId())
               .setAuthor(rs.author())
               .setSubject(rs.subject())
               .setContent(rs.content()))
-          .forEach(r -> monoList.add(integration.createReview(r)));
+          .toList();
+      if (!reviews.isEmpty()) {
+        monoList.add(integration.createReviews(reviews).then());
+      }
 
       log.debug("createCompositeProduct: composite entities created for productId: {}", body.productId());
-      return Mono.zip(monoList, o -> "")
-          .doOnError(e -> log.warn("createCompositeProduct failed", e))
-          .then();
+      return Mono.when(monoList)
+          .doOnError(e -> log.warn("createCompositeProduct failed", e));
     } catch (RuntimeException e) {
       log.warn("createCompositeProduct failed", e);
       throw e;
@@ -76,22 +198,45 @@ public class ProductCompositeServiceImpl implements ProductCompositeService {
 
   @Override
   public Mono<Void> deleteCompositeProduct(int productId) {
-    integration.deleteRecommendations(productId);
-    integration.deleteReviews(productId);
-    integration.deleteProduct(productId);
-    return null;
+    log.info("Will delete a product aggregate for product.id: {}", productId);
+    aggregateCache.invalidate(productId);
+    // Mono.when waits for all three events, a zip would cancel the others as soon as the first one completes empty
+    return Mono.when(
+            integration.deleteProduct(productId),
+            integration.deleteRecommendations(productId),
+            integration.deleteReviews(productId))
+        .doOnError(ex -> log.warn("deleteCompositeProduct failed: {}", ex.toString()));
+  }
+
+  private ProductAggregate createProductAggregatePage(Product product, List<Recommendation> recommendations, List<Review> reviews, int limit, String compositeAddress) {
+    Integer nextRecommendationsCursor = recommendations.size() > limit ? recommendations.get(limit - 1).getRecommendationId() : null;
+    Integer nextReviewsCursor = reviews.size() > limit ? reviews.get(limit - 1).getReviewId() : null;
+    ProductAggregate page = createProductAggregate(product,
+        recommendations.subList(0, Math.min(limit, recommendations.size())),
+        reviews.subList(0, Math.min(limit, reviews.size())),
+        compositeAddress);
+    return new ProductAggregate(page.productId(), page.name(), page.weight(), page.recommendations(), page.reviews(),
+        page.serviceAddresses(), nextRecommendationsCursor, nextReviewsCursor, null);
   }
 
-  private ProductAggregate createProductAggregate(Product product, List<Recommendation> recommendations, List<Review> reviews, String compositeAddress) {
+  static ProductAggregate createProductAggregate(Product product, List<Recommendation> recommendations, List<Review> reviews, String compositeAddress) {
     List<RecommendationSummary> recommendationSummaryList = recommendations.stream()
-        .map(r -> new RecommendationSummary(r.getRecommendationId(), r.getAuthor(), r.getRate(), r.getContent()))
+        .map(ProductCompositeServiceImpl::toSummary)
         .toList();
     List<ReviewSummary> reviewSummaryList = reviews.stream()
-        .map(r -> new ReviewSummary(r.getReviewId(), r.getAuthor(), r.getSubject(), r.getContent()))
+        .map(ProductCompositeServiceImpl::toSummary)
         .toList();
     String reviewAddress = reviews.isEmpty() ? "" : reviews.getFirst().getServiceAddress();
     String recommendationAddress = recommendations.isEmpty() ? "" : recommendations.getFirst().getServiceAddress();
     ServiceAddresses serviceAddress = new ServiceAddresses(compositeAddress, product.getServiceAddress(), reviewAddress, recommendationAddress);
     return new ProductAggregate(product.getProductId(), product.getName(), product.getWeight(), recommendationSummaryList, reviewSummaryList, serviceAddress);
   }
+
+  private static RecommendationSummary toSummary(Recommendation r) {
+    return new RecommendationSummary(r.getRecommendationId(), r.getAuthor(), r.getRate(), r.getContent());
+  }
+
+  private static ReviewSummary toSummary(Review r) {
+    return new ReviewSummary(r.getReviewId(), r.getAuthor(), r.getSubject(), r.getContent());
+  }
 }
@@ -0,0 +1,253 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.api.event.Event;
+import com.example.microservices.composite.product.PublishingProperties;
+import com.example.util.messaging.SmileMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.cloud.stream.binder.kafka.BinderHeaderMapper;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+import reactor.kafka.sender.observation.DefaultKafkaSenderObservationConvention;
+import reactor.kafka.sender.observation.KafkaRecordSenderContext;
+import reactor.kafka.sender.observation.KafkaSenderObservation;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends events with a non-blocking {@link KafkaSender}. All events go through one long-lived
+ * {@link KafkaSender#send} subscription, so the producer batches and pipelines the records of concurrent
+ * publishes. At most {@code app.publishing.max-in-flight} records wait for their acknowledgement, up to
+ * {@code app.publishing.max-queued} more wait to be sent, and a publish fails right away when that queue is full.
+ * A publish completes when the broker has acknowledged its record according to {@code app.publishing.acks}.
+ * <p>
+ * When the subscription fails, the publishes that are queued or in flight fail with its error and the subscription
+ * is restarted with an exponential backoff; publishes in the meantime fail right away.
+ * <p>
+ * Topic and partition count are taken from the stream bindings, so the events end up in the same partitions as in
+ * the stream bridge mode and are read by the same consumers. The events are encoded as
+ * {@code app.publishing.content-type}, which is set as {@code contentType} header the way the binder does it.
+ * The trace context of the publishing request is added to the record headers by an observation per record, the
+ * shared subscription has no trace context of its own.
+ */
+@Component
+@ConditionalOnProperty(name = "app.publishing.mode", havingValue = "reactive")
+@Slf4j
+public class ReactiveKafkaEventPublisher implements EventPublisher {
+  private static final Duration EMIT_TIMEOUT = Duration.ofMillis(100);
+  private static final Duration MIN_RESTART_BACKOFF = Duration.ofMillis(100);
+  private static final Duration MAX_RESTART_BACKOFF = Duration.ofSeconds(10);
+
+  private final KafkaSender<String, byte[]> sender;
+  private final BindingServiceProperties bindingServiceProperties;
+  private final ObjectMapper mapper;
+  private final ObservationRegistry observationRegistry;
+  private final String producerId;
+  private final String bootstrapServers;
+  private final int maxQueued;
+  private final Headers headers;
+  private final ConcurrentMap<String, Destination> destinations = new ConcurrentHashMap<>();
+  private final Set<Pending> inFlight = ConcurrentHashMap.newKeySet();
+  private final Lock emitLock = new ReentrantLock();
+  private volatile Sinks.Many<SenderRecord<String, byte[], Pending>> records;
+  private final Disposable sending;
+
+  @Autowired
+  public ReactiveKafkaEventPublisher(KafkaProperties kafkaProperties, PublishingProperties properties,
+                                     BindingServiceProperties bindingServiceProperties, ObjectMapper mapper,
+                                     SmileMessageConverter smileMessageConverter,
+                                     ObservationRegistry observationRegistry) {
+    this(KafkaSender.create(senderOptions(kafkaProperties, properties)), properties, bindingServiceProperties,
+        SmileMessageConverter.APPLICATION_SMILE.equalsTypeAndSubtype(MimeType.valueOf(properties.contentType()))
+            ? smileMessageConverter.getObjectMapper()
+            : mapper,
+        observationRegistry,
+        String.valueOf(kafkaProperties.buildProducerProperties(null)
+            .getOrDefault(ProducerConfig.CLIENT_ID_CONFIG, "product-composite")),
+        String.join(",", kafkaProperties.getBootstrapServers()));
+  }
+
+  ReactiveKafkaEventPublisher(KafkaSender<String, byte[]> sender, PublishingProperties properties,
+                              BindingServiceProperties bindingServiceProperties, ObjectMapper mapper,
+                              ObservationRegistry observationRegistry, String producerId, String bootstrapServers) {
+    this.sender = sender;
+    this.bindingServiceProperties = bindingServiceProperties;
+    this.mapper = mapper;
+    this.observationRegistry = observationRegistry;
+    this.producerId = producerId;
+    this.bootstrapServers = bootstrapServers;
+    this.maxQueued = properties.maxQueued();
+    this.headers = new RecordHeaders();
+    new BinderHeaderMapper().fromHeaders(
+        new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, properties.contentType())), headers);
+    // A failed subscription cancels its sink, every restart sends from a new one
+    this.sending = Flux.defer(() -> {
+          // Not serialized by the sink itself, the emits take turns on emitLock
+          records = Sinks.unsafe().many().unicast().onBackpressureBuffer(
+              Queues.<SenderRecord<String, byte[], Pending>>get(properties.maxQueued()).get());
+          return sender.send(records.asFlux());
+        })
+        .doOnError(this::failInFlight)
+        .retryWhen(Retry.backoff(Long.MAX_VALUE, MIN_RESTART_BACKOFF)
+            .maxBackoff(MAX_RESTART_BACKOFF)
+            .transientErrors(true)
+            .doBeforeRetry(signal -> log.error("The Kafka sender failed, restart attempt {}",
+                signal.totalRetriesInARow() + 1, signal.failure())))
+        .subscribe(this::acknowledged);
+  }
+
+  private static SenderOptions<String, byte[]> senderOptions(KafkaProperties kafkaProperties,
+                                                             PublishingProperties properties) {
+    Map<String, Object> producerProperties = kafkaProperties.buildProducerProperties(null);
+    producerProperties.put(ProducerConfig.ACKS_CONFIG, properties.acks());
+    producerProperties.put(ProducerConfig.LINGER_MS_CONFIG, (int) properties.linger().toMillis());
+    producerProperties.put(ProducerConfig.BATCH_SIZE_CONFIG, (int) properties.batchSize().toBytes());
+    producerProperties.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, properties.compression());
+    producerProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+    producerProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+    // A failed record fails its own publish, the shared subscription goes on with the others
+    return SenderOptions.<String, byte[]>create(producerProperties)
+        .maxInFlight(properties.maxInFlight())
+        .stopOnError(false);
+  }
+
+  @Override
+  public Mono<Void> publish(String bindingName, Event<?, ?> event) {
+    return Mono.create(caller -> {
+      ProducerRecord<String, byte[]> producerRecord;
+      try {
+        producerRecord = toRecord(bindingName, event);
+      } catch (Exception e) {
+        caller.error(e);
+        return;
+      }
+      // Adds the trace context of the caller to the record headers when it starts
+      Observation observation = KafkaSenderObservation.SENDER_OBSERVATION.observation(null,
+              DefaultKafkaSenderObservationConvention.INSTANCE,
+              () -> new KafkaRecordSenderContext(producerRecord, producerId, bootstrapServers), observationRegistry)
+          .parentObservation(caller.contextView().getOrDefault(ObservationThreadLocalAccessor.KEY, null))
+          .start();
+      Pending pending = new Pending(caller, observation, event);
+      // Tracked before it is emitted, so a failing subscription cannot miss it
+      inFlight.add(pending);
+      Sinks.EmitResult result = emit(SenderRecord.create(producerRecord, pending));
+      if (result.isFailure()) {
+        String rejected = "the " + event.eventType() + " event for key " + event.key() + " is rejected";
+        fail(pending, new IllegalStateException(switch (result) {
+          case FAIL_OVERFLOW -> "More than " + maxQueued + " events wait to be sent, " + rejected;
+          case FAIL_NON_SERIALIZED -> "Waited more than " + EMIT_TIMEOUT.toMillis() + " ms to queue, " + rejected;
+          default -> "The Kafka sender is restarting or closed, " + rejected + ": " + result;
+        }));
+      }
+    });
+  }
+
+  /**
+   * Queues the record. The sink takes one emit at a time, concurrent publishes wait on a lock for at most
+   * {@code EMIT_TIMEOUT} and report {@link Sinks.EmitResult#FAIL_NON_SERIALIZED} when they get no turn.
+   */
+  private Sinks.EmitResult emit(SenderRecord<String, byte[], Pending> senderRecord) {
+    try {
+      if (!emitLock.tryLock(EMIT_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS)) {
+        return Sinks.EmitResult.FAIL_NON_SERIALIZED;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return Sinks.EmitResult.FAIL_NON_SERIALIZED;
+    }
+    try {
+      return records.tryEmitNext(senderRecord);
+    } finally {
+      emitLock.unlock();
+    }
+  }
+
+  private void acknowledged(SenderResult<Pending> result) {
+    Pending pending = result.correlationMetadata();
+    if (result.exception() != null) {
+      fail(pending, result.exception());
+    } else if (inFlight.remove(pending)) {
+      log.debug("Event {} for key {} acknowledged at {}",
+          pending.event().eventType(), pending.event().key(), result.recordMetadata());
+      pending.observation().stop();
+      pending.caller().success();
+    }
+  }
+
+  private void failInFlight(Throwable error) {
+    inFlight.forEach(pending -> fail(pending, error));
+  }
+
+  /**
+   * Fails the publish, unless it has already been completed or failed by someone else.
+   */
+  private void fail(Pending pending, Throwable error) {
+    if (inFlight.remove(pending)) {
+      pending.observation().error(error);
+      pending.observation().stop();
+      pending.caller().error(error);
+    }
+  }
+
+  private ProducerRecord<String, byte[]> toRecord(String bindingName, Event<?, ?> event) throws Exception {
+    Destination destination = destinations.computeIfAbsent(bindingName, name -> new Destination(
+        bindingServiceProperties.getBindingDestination(name),
+        bindingServiceProperties.getProducerProperties(name).getPartitionCount()));
+    String key = String.valueOf(event.key());
+    int partition = EventPartitionKeyExtractor.partition(event.key(), destination.partitionCount());
+    return new ProducerRecord<>(destination.topic(), partition, key, mapper.writeValueAsBytes(event),
+        new RecordHeaders(headers.toArray()));
+  }
+
+  @PreDestroy
+  void close() {
+    emitLock.lock();
+    try {
+      records.tryEmitComplete();
+    } finally {
+      emitLock.unlock();
+    }
+    sending.dispose();
+    sender.close();
+    failInFlight(new IllegalStateException("The Kafka sender is closed"));
+  }
+
+  private record Destination(String topic, int partitionCount) {
+  }
+
+  private record Pending(MonoSink<Void> caller, Observation observation, Event<?, ?> event) {
+  }
+}
@@ -0,0 +1,106 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.microservices.composite.product.CoalescingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight deduplication of core service calls.
+ * <p>
+ * The first caller for a leg and key starts the upstream call, callers arriving while it is in flight (or within
+ * {@code app.coalescing.window} after it completed) subscribe to the same replayed result. The upstream call is
+ * cancelled as soon as all its callers have cancelled, e.g. after their clients disconnected or on a timeout. Failed
+ * and cancelled calls are released immediately so an error is never handed out longer than the call it belongs to.
+ */
+@Component
+@Slf4j
+public class RequestCoalescer {
+  private static final String CALLS_METRIC = "composite.coalescing.calls";
+
+  private final CoalescingProperties properties;
+  private final MeterRegistry meterRegistry;
+  private final ConcurrentMap<CallKey, Object> inFlight = new ConcurrentHashMap<>();
+
+  public RequestCoalescer(CoalescingProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+  }
+
+  public <T> Mono<T> coalesce(String leg, Object key, Supplier<Mono<T>> call) {
+    if (!properties.enabled()) {
+      return Mono.defer(call);
+    }
+    return shared(leg, key, call).singleOrEmpty();
+  }
+
+  public <T> Flux<T> coalesceMany(String leg, Object key, Supplier<Flux<T>> call) {
+    if (!properties.enabled()) {
+      return Flux.defer(call);
+    }
+    return shared(leg, key, call);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Flux<T> shared(String leg, Object key, Supplier<? extends Publisher<T>> call) {
+    return Flux.defer(() -> {
+      CallKey callKey = new CallKey(leg, key);
+      AtomicBoolean started = new AtomicBoolean();
+      Flux<T> shared = (Flux<T>) inFlight.computeIfAbsent(callKey, k -> {
+        started.set(true);
+        return share(callKey, call);
+      });
+      record(leg, started.get());
+      return shared;
+    });
+  }
+
+  /**
+   * Replays the items of the call to all callers, also to those joining while it runs, and cancels it when the last
+   * one cancels. Within the window a completed call is kept as its items.
+   */
+  private <T> Flux<T> share(CallKey callKey, Supplier<? extends Publisher<T>> call) {
+    List<T> items = new ArrayList<>();
+    AtomicReference<Flux<T>> self = new AtomicReference<>();
+    self.set(Flux.<T>defer(call)
+        .doOnNext(item -> {
+          if (!properties.window().isZero()) {
+            items.add(item);
+          }
+        })
+        .doFinally(signal -> release(callKey, self.get(), signal, items))
+        .replay()
+        .refCount(1));
+    return self.get();
+  }
+
+  private <T> void release(CallKey callKey, Flux<T> shared, SignalType signal, List<T> items) {
+    if (signal != SignalType.ON_COMPLETE || properties.window().isZero()) {
+      inFlight.remove(callKey, shared);
+      return;
+    }
+    Flux<T> completed = Flux.fromIterable(items);
+    if (inFlight.replace(callKey, shared, completed)) {
+      Mono.delay(properties.window()).subscribe(tick -> inFlight.remove(callKey, completed));
+    }
+  }
+
+  private void record(String leg, boolean started) {
+    meterRegistry.counter(CALLS_METRIC, "leg", leg, "outcome", started ? "upstream" : "coalesced").increment();
+  }
+
+  private record CallKey(String leg, Object key) {
+  }
+}
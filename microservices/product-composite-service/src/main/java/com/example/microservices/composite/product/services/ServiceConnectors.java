@@ -0,0 +1,65 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.microservices.composite.product.HttpClientProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Creates the HTTP connectors of the core services, each with its own connection pool. The pools publish their
+ * metrics to Micrometer as {@code reactor.netty.connection.provider.*} tagged with the service name, e.g. the
+ * pending acquires, active and idle connections. Connects and closes show up as
+ * {@code reactor.netty.http.client.*} metrics.
+ */
+@Component
+@Slf4j
+public class ServiceConnectors {
+  private final HttpClientProperties properties;
+  private final List<ConnectionProvider> providers = new CopyOnWriteArrayList<>();
+
+  public ServiceConnectors(HttpClientProperties properties) {
+    this.properties = properties;
+  }
+
+  public ClientHttpConnector connector(String service) {
+    HttpClientProperties.Pool pool = properties.pool(service);
+    log.info("Connection pool of {}: {}", service, pool);
+
+    ConnectionProvider provider = ConnectionProvider.builder(service)
+        .maxConnections(pool.maxConnections())
+        .pendingAcquireMaxCount(pool.pendingAcquireMaxCount())
+        .pendingAcquireTimeout(pool.pendingAcquireTimeout())
+        .maxIdleTime(pool.maxIdleTime())
+        .maxLifeTime(pool.maxLifeTime())
+        .evictInBackground(pool.evictionInterval())
+        .metrics(true)
+        .build();
+    providers.add(provider);
+
+    HttpClient httpClient = HttpClient.create(provider)
+        .metrics(true, ServiceConnectors::uriTag);
+    httpClient = pool.h2c()
+        ? httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11)
+        : httpClient.protocol(HttpProtocol.HTTP11);
+    return new ReactorClientHttpConnector(httpClient);
+  }
+
+  @PreDestroy
+  void close() {
+    providers.forEach(ConnectionProvider::dispose);
+  }
+
+  // Ids in paths and query strings would give every product its own time series
+  private static String uriTag(String uri) {
+    int query = uri.indexOf('?');
+    return (query < 0 ? uri : uri.substring(0, query)).replaceAll("/\\d+", "/{id}");
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.api.event.Event;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.micrometer.observation.transport.SenderContext;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.example.microservices.composite.product.services.EventPartitionKeyExtractor.PARTITION_KEY_HEADER;
+
+/**
+ * Sends events through {@link StreamBridge}. The send blocks until the binder has taken the message, so it runs
+ * on the {@code publishEventScheduler} pool. Each send is observed as a child of the publishing request, the
+ * observation adds the trace context to the message headers, which the binder copies to the Kafka record.
+ */
+@Component
+@ConditionalOnProperty(name = "app.publishing.mode", havingValue = "stream-bridge", matchIfMissing = true)
+public class StreamBridgeEventPublisher implements EventPublisher {
+  private static final String PUBLISH_OBSERVATION = "messaging.event.publish";
+
+  private final StreamBridge streamBridge;
+  private final Scheduler publishEventScheduler;
+  private final ObservationRegistry observationRegistry;
+
+  public StreamBridgeEventPublisher(StreamBridge streamBridge,
+                                    @Qualifier("publishEventScheduler") Scheduler publishEventScheduler,
+                                    ObservationRegistry observationRegistry) {
+    this.streamBridge = streamBridge;
+    this.publishEventScheduler = publishEventScheduler;
+    this.observationRegistry = observationRegistry;
+  }
+
+  @Override
+  public Mono<Void> publish(String bindingName, Event<?, ?> event) {
+    // The parent is taken from the subscriber context, the send runs on another thread
+    return Mono.deferContextual(context -> Mono.fromRunnable(() -> sendMessage(bindingName, event,
+            context.getOrDefault(ObservationThreadLocalAccessor.KEY, null)))
+        .subscribeOn(publishEventScheduler))
+        .then();
+  }
+
+  private void sendMessage(String bindingName, Event<?, ?> event, Observation parent) {
+    MessageBuilder<Event<?, ?>> message = MessageBuilder
+        .<Event<?, ?>>withPayload(event)
+        .setHeader(PARTITION_KEY_HEADER, event.key());
+    // Raw bytes are copied to the record as they are, other header values would be JSON encoded by the binder
+    SenderContext<MessageBuilder<Event<?, ?>>> context = new SenderContext<>(
+        (carrier, key, value) -> carrier.setHeader(key, value.getBytes(StandardCharsets.UTF_8)));
+    context.setCarrier(message);
+    context.setRemoteServiceName("kafka");
+    Observation observation = Observation.createNotStarted(PUBLISH_OBSERVATION, () -> context, observationRegistry)
+        .contextualName(bindingName + " send")
+        .lowCardinalityKeyValue("messaging.binding", bindingName)
+        .parentObservation(parent)
+        .start();
+    try {
+      if (!streamBridge.send(bindingName, message.build())) {
+        throw new IllegalStateException("Failed to send event to " + bindingName);
+      }
+    } catch (RuntimeException e) {
+      observation.error(e);
+      throw e;
+    } finally {
+      observation.stop();
+    }
+  }
+}
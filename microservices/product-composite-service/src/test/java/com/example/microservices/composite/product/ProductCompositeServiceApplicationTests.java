@@ -1,9 +1,11 @@
 package com.example.microservices.composite.product;
 
 import com.example.api.composite.ProductAggregate;
+import com.example.api.composite.ProductAggregatePart;
 import com.example.api.core.product.Product;
 import com.example.api.core.recommendation.Recommendation;
 import com.example.api.core.review.Review;
+import com.example.api.event.Event;
 import com.example.api.exception.InvalidInputException;
 import com.example.api.exception.NotFoundException;
 import com.example.microservices.composite.product.services.ProductCompositeIntegration;
@@ -11,29 +13,47 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.EnableTestBinder;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.context.bean.override.convention.TestBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.example.api.event.Event.Type.CREATE;
 import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.http.HttpStatus.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
 import static reactor.core.publisher.Mono.just;
 
 @SpringBootTest(webEnvironment = RANDOM_PORT, properties = {"eureka.client.enabled=false"})
+@EnableTestBinder
 class ProductCompositeServiceApplicationTests {
 
   private static final int PRODUCT_ID_OK = 1;
   private static final int PRODUCT_ID_NOT_FOUND = 2;
   private static final int PRODUCT_ID_INVALID = 3;
+  private static final int PRODUCT_ID_CACHED = 4;
+  private static final int PRODUCT_ID_PROJECTED = 5;
+  private static final int PRODUCT_ID_COUNTED = 6;
 
   @Autowired private WebTestClient client;
   @Autowired private ObjectMapper mapper;
+  @Autowired
+  @Qualifier("aggregateCacheInvalidator")
+  private Consumer<Event<Integer, Object>> aggregateCacheInvalidator;
 
   @TestBean
   private static ProductCompositeIntegration compositeIntegration;
@@ -50,6 +70,37 @@ class ProductCompositeServiceApplicationTests {
         .thenReturn(Flux.fromIterable(singletonList(new Review(PRODUCT_ID_OK, 1, "author", "subject",
             "content", "mock address"))));
 
+    when(integrationMock.getProduct(PRODUCT_ID_CACHED))
+        .thenReturn(Mono.just(new Product(PRODUCT_ID_CACHED, "name", 1, "mock-address")));
+    when(integrationMock.getRecommendations(PRODUCT_ID_CACHED)).thenReturn(Flux.empty());
+    when(integrationMock.getReviews(PRODUCT_ID_CACHED)).thenReturn(Flux.empty());
+
+    when(integrationMock.getProduct(PRODUCT_ID_PROJECTED))
+        .thenReturn(Mono.just(new Product(PRODUCT_ID_PROJECTED, "name", 1, "mock-address")));
+    when(integrationMock.getReviews(PRODUCT_ID_PROJECTED))
+        .thenReturn(Flux.fromIterable(singletonList(new Review(PRODUCT_ID_PROJECTED, 1, "author", "subject", "content", "mock address"))));
+
+    when(integrationMock.getProduct(PRODUCT_ID_COUNTED))
+        .thenReturn(Mono.just(new Product(PRODUCT_ID_COUNTED, "name", 1, "mock-address")));
+    when(integrationMock.getReviews(PRODUCT_ID_COUNTED))
+        .thenReturn(Flux.just(new Review(PRODUCT_ID_COUNTED, 1, "author", "subject", "content", "mock address")));
+    when(integrationMock.countReviews(PRODUCT_ID_COUNTED)).thenReturn(Mono.just(7L));
+
+    when(integrationMock.getRecommendations(PRODUCT_ID_OK, 0, 2))
+        .thenReturn(Flux.just(
+            new Recommendation(PRODUCT_ID_OK, 1, "author", 1, "content", "mock address"),
+            new Recommendation(PRODUCT_ID_OK, 2, "author", 1, "content", "mock address")));
+    when(integrationMock.getReviews(PRODUCT_ID_OK, 0, 2))
+        .thenReturn(Flux.just(new Review(PRODUCT_ID_OK, 1, "author", "subject", "content", "mock address")));
+
+    List<Integer> batch = List.of(PRODUCT_ID_OK, PRODUCT_ID_NOT_FOUND);
+    when(integrationMock.getProducts(batch))
+        .thenReturn(Flux.just(new Product(PRODUCT_ID_OK, "name", 1, "mock-address")));
+    when(integrationMock.getRecommendations(batch))
+        .thenReturn(Flux.just(new Recommendation(PRODUCT_ID_OK, 1, "author", 1, "content", "mock address")));
+    when(integrationMock.getReviews(batch))
+        .thenReturn(Flux.just(new Review(PRODUCT_ID_OK, 1, "author", "subject", "content", "mock address")));
+
     when(integrationMock.getProduct(PRODUCT_ID_NOT_FOUND))
         .thenThrow(new NotFoundException("NOT FOUND: " + PRODUCT_ID_NOT_FOUND));
 
@@ -87,6 +138,126 @@ class ProductCompositeServiceApplicationTests {
       .jsonPath("$.message").isEqualTo("INVALID: " + PRODUCT_ID_INVALID);
   }
 
+  @Test
+  void getProductPageById() {
+
+    client.get()
+      .uri("/product-composite/" + PRODUCT_ID_OK + "?limit=1")
+      .accept(APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isEqualTo(OK)
+      .expectBody()
+      .jsonPath("$.recommendations.length()").isEqualTo(1)
+      .jsonPath("$.nextRecommendationsCursor").isEqualTo(1)
+      .jsonPath("$.reviews.length()").isEqualTo(1)
+      .jsonPath("$.nextReviewsCursor").doesNotExist();
+  }
+
+  @Test
+  void getProductWithIncludedPartsOnly() {
+
+    client.get()
+      .uri("/product-composite/" + PRODUCT_ID_PROJECTED + "?include=reviews")
+      .accept(APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isEqualTo(OK)
+      .expectBody()
+      .jsonPath("$.productId").isEqualTo(PRODUCT_ID_PROJECTED)
+      .jsonPath("$.reviews.length()").isEqualTo(1)
+      .jsonPath("$.recommendations").doesNotExist();
+    verify(compositeIntegration, never()).getRecommendations(PRODUCT_ID_PROJECTED);
+
+    client.get()
+      .uri("/product-composite/" + PRODUCT_ID_PROJECTED + "?include=")
+      .accept(APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isEqualTo(OK)
+      .expectBody()
+      .jsonPath("$.productId").isEqualTo(PRODUCT_ID_PROJECTED)
+      .jsonPath("$.reviews").doesNotExist()
+      .jsonPath("$.recommendations").doesNotExist();
+    verify(compositeIntegration, times(1)).getReviews(PRODUCT_ID_PROJECTED);
+
+    client.get()
+      .uri("/product-composite/" + PRODUCT_ID_PROJECTED + "?include=ratings")
+      .accept(APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isEqualTo(UNPROCESSABLE_ENTITY)
+      .expectBody()
+      .jsonPath("$.message").isEqualTo("Invalid include: ratings");
+  }
+
+  @Test
+  void getProductWithReviewCount() {
+
+    client.get()
+      .uri("/product-composite/" + PRODUCT_ID_COUNTED + "?include=reviewCount")
+      .accept(APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isEqualTo(OK)
+      .expectBody()
+      .jsonPath("$.productId").isEqualTo(PRODUCT_ID_COUNTED)
+      .jsonPath("$.reviewCount").isEqualTo(7)
+      .jsonPath("$.reviews").doesNotExist()
+      .jsonPath("$.recommendations").doesNotExist();
+    verify(compositeIntegration, never()).getReviews(PRODUCT_ID_COUNTED);
+
+    // Reviews that are read anyway are counted by the composite
+    client.get()
+      .uri("/product-composite/" + PRODUCT_ID_COUNTED + "?include=reviews,reviewCount")
+      .accept(APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isEqualTo(OK)
+      .expectBody()
+      .jsonPath("$.reviewCount").isEqualTo(1)
+      .jsonPath("$.reviews.length()").isEqualTo(1);
+    verify(compositeIntegration, times(1)).countReviews(PRODUCT_ID_COUNTED);
+  }
+
+  @Test
+  void streamProductById() {
+
+    client.get()
+      .uri("/product-composite/" + PRODUCT_ID_OK + "/stream")
+      .accept(APPLICATION_NDJSON)
+      .exchange()
+      .expectStatus().isEqualTo(OK)
+      .expectHeader().contentType(APPLICATION_NDJSON)
+      .expectBodyList(ProductAggregatePart.class)
+      .value(parts -> {
+        assertThat(parts).hasSize(3);
+        assertThat(parts.getFirst().type()).isEqualTo(ProductAggregatePart.Type.PRODUCT);
+      });
+  }
+
+  @Test
+  void getProductsByIds() {
+
+    client.get()
+      .uri("/product-composite?ids=" + PRODUCT_ID_OK + "," + PRODUCT_ID_NOT_FOUND + "," + PRODUCT_ID_OK)
+      .accept(APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isEqualTo(OK)
+      .expectBody()
+      .jsonPath("$.length()").isEqualTo(1)
+      .jsonPath("$[0].productId").isEqualTo(PRODUCT_ID_OK)
+      .jsonPath("$[0].recommendations.length()").isEqualTo(1)
+      .jsonPath("$[0].reviews.length()").isEqualTo(1);
+  }
+
+  @Test
+  void getProductFromCacheUntilInvalidated() {
+
+    getAndVerifyProduct(PRODUCT_ID_CACHED, OK).jsonPath("$.productId").isEqualTo(PRODUCT_ID_CACHED);
+    getAndVerifyProduct(PRODUCT_ID_CACHED, OK).jsonPath("$.productId").isEqualTo(PRODUCT_ID_CACHED);
+    verify(compositeIntegration, times(1)).getProduct(PRODUCT_ID_CACHED);
+
+    aggregateCacheInvalidator.accept(new Event<>(CREATE, PRODUCT_ID_CACHED, null));
+
+    getAndVerifyProduct(PRODUCT_ID_CACHED, OK).jsonPath("$.productId").isEqualTo(PRODUCT_ID_CACHED);
+    verify(compositeIntegration, times(2)).getProduct(PRODUCT_ID_CACHED);
+  }
+
   private WebTestClient.BodyContentSpec getAndVerifyProduct(int productId, HttpStatus expectedStatus) {
     return client.get()
       .uri("/product-composite/" + productId)
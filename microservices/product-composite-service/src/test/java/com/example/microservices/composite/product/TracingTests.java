@@ -0,0 +1,151 @@
+package com.example.microservices.composite.product;
+
+import com.example.api.composite.ProductAggregate;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cloud.stream.binder.test.EnableTestBinder;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.context.annotation.Bean;
+import org.springframework.messaging.Message;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static reactor.core.publisher.Mono.just;
+
+/**
+ * Follows a trace from the incoming request over the WebClient calls to the core services, which are stubbed by a
+ * local HTTP server, and to the events sent to Kafka.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {"eureka.client.enabled=false", "app.cache.enabled=false"})
+@EnableTestBinder
+@AutoConfigureObservability(metrics = false)
+class TracingTests {
+  private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+  private static final String TRACEPARENT = "00-" + TRACE_ID + "-00f067aa0ba902b7-01";
+
+  private static final Queue<String> receivedTraceparents = new ConcurrentLinkedQueue<>();
+  private static final DisposableServer coreServices = HttpServer.create()
+      .host("localhost")
+      .port(0)
+      .route(routes -> routes
+          .get("/product/{productId}", (request, response) -> response
+              .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+              .sendString(just(received(request,
+                  "{\"productId\":1,\"name\":\"name\",\"weight\":1,\"serviceAddress\":\"stub\"}"))))
+          .get("/recommendation", (request, response) -> response
+              .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+              .sendString(just(received(request, "[]"))))
+          .get("/review", (request, response) -> response
+              .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+              .sendString(just(received(request, "[]")))))
+      .bindNow();
+
+  @Autowired private WebTestClient client;
+  @Autowired private OutputDestination target;
+  @Autowired private InMemorySpanExporter spanExporter;
+  @Autowired private SdkTracerProvider tracerProvider;
+
+  @TestConfiguration
+  static class InMemoryExporterConfiguration {
+    @Bean
+    InMemorySpanExporter inMemorySpanExporter() {
+      return InMemorySpanExporter.create();
+    }
+  }
+
+  @DynamicPropertySource
+  static void coreServiceProperties(DynamicPropertyRegistry registry) {
+    String url = "http://localhost:" + coreServices.port();
+    registry.add("spring.cloud.discovery.client.simple.instances.product[0].uri", () -> url);
+    registry.add("spring.cloud.discovery.client.simple.instances.recommendation[0].uri", () -> url);
+    registry.add("spring.cloud.discovery.client.simple.instances.review[0].uri", () -> url);
+  }
+
+  @AfterAll
+  static void stopCoreServices() {
+    coreServices.disposeNow();
+  }
+
+  @BeforeEach
+  void setUp() {
+    receivedTraceparents.clear();
+    spanExporter.reset();
+    target.clear();
+  }
+
+  @Test
+  void continuesTraceOfIncomingRequestInTheCallsToTheCoreServices() {
+    client.get()
+        .uri("/product-composite/1")
+        .header("traceparent", TRACEPARENT)
+        .exchange()
+        .expectStatus().isOk();
+
+    tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+    List<SpanData> spans = spanExporter.getFinishedSpanItems();
+    assertThat(spans)
+        .filteredOn(span -> span.getName().contains("/product-composite/{productId}"))
+        .extracting(SpanData::getTraceId)
+        .containsOnly(TRACE_ID)
+        .isNotEmpty();
+    // One client span per leg, product, recommendation and review
+    assertThat(spans)
+        .filteredOn(span -> span.getKind() == SpanKind.CLIENT)
+        .hasSizeGreaterThanOrEqualTo(3)
+        .extracting(SpanData::getTraceId)
+        .containsOnly(TRACE_ID);
+    assertThat(receivedTraceparents)
+        .hasSize(3)
+        .allSatisfy(traceparent -> assertThat(traceparent).startsWith("00-" + TRACE_ID + "-"));
+  }
+
+  @Test
+  void addsTheTraceOfTheIncomingRequestToThePublishedEvents() {
+    client.post()
+        .uri("/product-composite")
+        .header("traceparent", TRACEPARENT)
+        .body(just(new ProductAggregate(1, "name", 1, null, null, null)), ProductAggregate.class)
+        .exchange()
+        .expectStatus().isOk();
+
+    Message<byte[]> event = target.receive(5000, "products");
+    assertThat(event).isNotNull();
+    Object traceparent = event.getHeaders().get("traceparent");
+    assertThat(traceparent).isInstanceOf(byte[].class);
+    assertThat(new String((byte[]) traceparent, StandardCharsets.UTF_8)).startsWith("00-" + TRACE_ID + "-");
+
+    tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+    assertThat(spanExporter.getFinishedSpanItems())
+        .filteredOn(span -> span.getName().equals("products-out-0 send"))
+        .singleElement()
+        .satisfies(span -> assertThat(span.getTraceId()).isEqualTo(TRACE_ID));
+  }
+
+  private static String received(HttpServerRequest request, String body) {
+    String traceparent = request.requestHeaders().get("traceparent");
+    receivedTraceparents.add(traceparent == null ? "none" : traceparent);
+    return body;
+  }
+}
@@ -0,0 +1,66 @@
+package com.example.microservices.composite.product.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompositeMetricsTests {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final CompositeMetrics metrics = new CompositeMetrics(meterRegistry);
+
+  @Test
+  void recordsLegLatencyAndSizeByInstanceAndOutcome() {
+    WebClient client = WebClient.builder()
+        .filter(metrics)
+        .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+            .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("[1,2]".getBytes())))
+            .build()))
+        .build();
+
+    StepVerifier.create(client.get().uri("http://10.0.0.1:7002/recommendation?productId=1")
+            .attribute(CompositeMetrics.LEG_ATTRIBUTE, "getRecommendations")
+            .retrieve()
+            .bodyToMono(String.class))
+        .expectNext("[1,2]")
+        .verifyComplete();
+
+    assertEquals(1, meterRegistry.get("composite.leg.duration")
+        .tags("leg", "getRecommendations", "instance", "10.0.0.1:7002", "outcome", "success").timer().count());
+    assertEquals(5.0, meterRegistry.get("composite.leg.response.size")
+        .tags("leg", "getRecommendations").summary().totalAmount());
+  }
+
+  @Test
+  void timesStreamedAggregatesUntilTheirLastPart() {
+    for (int i = 0; i < 2; i++) {
+      StepVerifier.create(metrics.timeAggregate("streamCompositeProduct", Flux.just(1, 2, 3)))
+          .expectNext(1, 2, 3)
+          .verifyComplete();
+    }
+    StepVerifier.create(metrics.timeLeg("getReviews", Flux.error(new IllegalStateException())))
+        .verifyError(IllegalStateException.class);
+
+    assertEquals(2, meterRegistry.get("composite.aggregate.duration")
+        .tags("operation", "streamCompositeProduct", "outcome", "success").timer().count());
+    assertEquals(1, meterRegistry.get("composite.leg.duration")
+        .tags("leg", "getReviews", "instance", "unknown", "outcome", "error").timer().count());
+  }
+
+  @Test
+  void countsSwallowedErrors() {
+    StepVerifier.create(Flux.error(new IllegalStateException())
+            .onErrorResume(error -> metrics.swallow("getReviews", error)))
+        .verifyComplete();
+
+    assertEquals(1.0, meterRegistry.counter("composite.leg.errors.swallowed",
+        "leg", "getReviews", "exception", "IllegalStateException").count());
+  }
+}
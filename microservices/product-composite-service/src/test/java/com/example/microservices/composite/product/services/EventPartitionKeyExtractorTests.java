@@ -0,0 +1,26 @@
+package com.example.microservices.composite.product.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.stream.binder.DefaultPartitionSelector;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static com.example.microservices.composite.product.services.EventPartitionKeyExtractor.PARTITION_KEY_HEADER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EventPartitionKeyExtractorTests {
+  private final EventPartitionKeyExtractor extractor = new EventPartitionKeyExtractor();
+
+  @Test
+  void extractsKeyFromHeader() {
+    assertEquals(42, extractor.extractKey(MessageBuilder.withPayload("event").setHeader(PARTITION_KEY_HEADER, 42).build()));
+  }
+
+  @Test
+  void partitionMatchesBinderDefaultSelector() {
+    DefaultPartitionSelector selector = new DefaultPartitionSelector();
+    for (Object key : new Object[] {0, 1, 2, 3, 113, Integer.MAX_VALUE, Integer.MIN_VALUE, -7, "product"}) {
+      assertEquals(Math.abs(selector.selectPartition(key, 2) % 2), EventPartitionKeyExtractor.partition(key, 2),
+          "partition of " + key);
+    }
+  }
+}
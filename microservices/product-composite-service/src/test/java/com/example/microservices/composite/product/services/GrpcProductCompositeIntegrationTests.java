@@ -0,0 +1,205 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.api.core.product.Product;
+import com.example.api.core.recommendation.Recommendation;
+import com.example.api.core.review.Review;
+import com.example.api.exception.InvalidInputException;
+import com.example.api.exception.NotFoundException;
+import com.example.api.grpc.GrpcMessages;
+import com.example.api.grpc.PageRequest;
+import com.example.api.grpc.ProductMessage;
+import com.example.api.grpc.ProductRequest;
+import com.example.api.grpc.ProductServiceGrpc;
+import com.example.api.grpc.ProductsRequest;
+import com.example.api.grpc.RecommendationMessage;
+import com.example.api.grpc.RecommendationServiceGrpc;
+import com.example.api.grpc.ReviewMessage;
+import com.example.api.grpc.ReviewServiceGrpc;
+import com.example.util.grpc.GrpcStreams;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.EnableTestBinder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the gRPC integration against in-process stand-ins for the core services. Product id 1 exists, 13 does not,
+ * -1 is invalid, and the recommendation and review services fail for product id 2.
+ */
+@SpringBootTest(properties = {
+    "eureka.client.enabled=false",
+    "app.transport=grpc",
+    "grpc.client.product.address=in-process:" + GrpcProductCompositeIntegrationTests.SERVER_NAME,
+    "grpc.client.recommendation.address=in-process:" + GrpcProductCompositeIntegrationTests.SERVER_NAME,
+    "grpc.client.review.address=in-process:" + GrpcProductCompositeIntegrationTests.SERVER_NAME})
+@EnableTestBinder
+class GrpcProductCompositeIntegrationTests {
+  static final String SERVER_NAME = "grpc-composite-integration-tests";
+
+  private static final Server coreServices = startCoreServices();
+
+  @Autowired
+  private ProductCompositeIntegration integration;
+
+  @AfterAll
+  static void stopCoreServices() {
+    coreServices.shutdownNow();
+  }
+
+  @Test
+  void usesTheGrpcIntegration() {
+    assertThat(integration).isInstanceOf(GrpcProductCompositeIntegration.class);
+  }
+
+  @Test
+  void getProduct() {
+    StepVerifier.create(integration.getProduct(1))
+        .assertNext(product -> {
+          assertThat(product.getProductId()).isEqualTo(1);
+          assertThat(product.getName()).isEqualTo("Product 1");
+          assertThat(product.getWeight()).isEqualTo(1);
+          assertThat(product.getServiceAddress()).isEqualTo("grpc-product");
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  void getProductsOfABatch() {
+    StepVerifier.create(integration.getProducts(List.of(1, 3)).map(Product::getProductId))
+        .expectNext(1, 3)
+        .verifyComplete();
+  }
+
+  @Test
+  void getProductNotFound() {
+    StepVerifier.create(integration.getProduct(13))
+        .expectErrorSatisfies(error -> assertThat(error).isInstanceOf(NotFoundException.class)
+            .hasMessage("No product found for productId: 13"))
+        .verify();
+  }
+
+  @Test
+  void getProductInvalidInput() {
+    StepVerifier.create(integration.getProduct(-1))
+        .expectErrorSatisfies(error -> assertThat(error).isInstanceOf(InvalidInputException.class)
+            .hasMessage("Invalid productId: -1"))
+        .verify();
+  }
+
+  @Test
+  void getRecommendationsAndReviews() {
+    StepVerifier.create(integration.getRecommendations(1))
+        .assertNext(recommendation -> {
+          assertThat(recommendation.getRecommendationId()).isEqualTo(1);
+          assertThat(recommendation.getAuthor()).isEqualTo("Author 1");
+          assertThat(recommendation.getRate()).isEqualTo(1);
+          assertThat(recommendation.getContent()).isEqualTo("Content 1");
+        })
+        .verifyComplete();
+    StepVerifier.create(integration.getReviews(1, 0, 10).map(Review::getSubject))
+        .expectNext("Subject 1")
+        .verifyComplete();
+    StepVerifier.create(integration.getReviews(List.of(1, 3)).map(Review::getProductId))
+        .expectNext(1, 3)
+        .verifyComplete();
+  }
+
+  @Test
+  void failedRecommendationsAndReviewsAreLeftEmpty() {
+    StepVerifier.create(integration.getRecommendations(2)).verifyComplete();
+    StepVerifier.create(integration.getReviews(2)).verifyComplete();
+  }
+
+  private static Server startCoreServices() {
+    try {
+      return InProcessServerBuilder.forName(SERVER_NAME)
+          .addService(new ProductServiceGrpc.ProductServiceImplBase() {
+            @Override
+            public void getProduct(ProductRequest request, StreamObserver<ProductMessage> responseObserver) {
+              GrpcStreams.serve(() -> product(request.getProductId()), GrpcMessages::toMessage, responseObserver);
+            }
+
+            @Override
+            public void getProducts(ProductsRequest request, StreamObserver<ProductMessage> responseObserver) {
+              GrpcStreams.serve(() -> Flux.fromIterable(request.getProductIdsList())
+                  .concatMap(productId -> product(productId)), GrpcMessages::toMessage, responseObserver);
+            }
+          })
+          .addService(new RecommendationServiceGrpc.RecommendationServiceImplBase() {
+            @Override
+            public void getRecommendations(ProductRequest request,
+                                           StreamObserver<RecommendationMessage> responseObserver) {
+              GrpcStreams.serve(() -> recommendations(request.getProductId()), GrpcMessages::toMessage,
+                  responseObserver);
+            }
+
+            @Override
+            public void getRecommendationsPage(PageRequest request,
+                                               StreamObserver<RecommendationMessage> responseObserver) {
+              GrpcStreams.serve(() -> recommendations(request.getProductId()), GrpcMessages::toMessage,
+                  responseObserver);
+            }
+
+            @Override
+            public void getRecommendationsBatch(ProductsRequest request,
+                                                StreamObserver<RecommendationMessage> responseObserver) {
+              GrpcStreams.serve(() -> Flux.fromIterable(request.getProductIdsList()).concatMap(productId ->
+                  recommendations(productId)), GrpcMessages::toMessage, responseObserver);
+            }
+          })
+          .addService(new ReviewServiceGrpc.ReviewServiceImplBase() {
+            @Override
+            public void getReviews(ProductRequest request, StreamObserver<ReviewMessage> responseObserver) {
+              GrpcStreams.serve(() -> reviews(request.getProductId()), GrpcMessages::toMessage, responseObserver);
+            }
+
+            @Override
+            public void getReviewsPage(PageRequest request, StreamObserver<ReviewMessage> responseObserver) {
+              GrpcStreams.serve(() -> reviews(request.getProductId()), GrpcMessages::toMessage, responseObserver);
+            }
+
+            @Override
+            public void getReviewsBatch(ProductsRequest request, StreamObserver<ReviewMessage> responseObserver) {
+              GrpcStreams.serve(() -> Flux.fromIterable(request.getProductIdsList()).concatMap(productId ->
+                  reviews(productId)), GrpcMessages::toMessage, responseObserver);
+            }
+          })
+          .build()
+          .start();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Mono<Product> product(int productId) {
+    return switch (productId) {
+      case -1 -> Mono.error(new InvalidInputException("Invalid productId: -1"));
+      case 13 -> Mono.error(new NotFoundException("No product found for productId: 13"));
+      default -> Mono.just(new Product(productId, "Product " + productId, productId, "grpc-product"));
+    };
+  }
+
+  private static Flux<Recommendation> recommendations(int productId) {
+    return productId == 2
+        ? Flux.error(new IllegalStateException("Recommendation database down"))
+        : Flux.just(new Recommendation(productId, 1, "Author 1", 1, "Content 1", "grpc-recommendation"));
+  }
+
+  private static Flux<Review> reviews(int productId) {
+    return productId == 2
+        ? Flux.error(new IllegalStateException("Review database down"))
+        : Flux.just(new Review(productId, 1, "Author 1", "Subject 1", "Content 1", "grpc-review"));
+  }
+}
@@ -0,0 +1,148 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.microservices.composite.product.HedgingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpStatus.OK;
+
+class HedgingExchangeFilterFunctionTests {
+  private final ServiceInstance slow = new DefaultServiceInstance("product-1", "product", "slow-host", 8080, false);
+  private final ServiceInstance fast = new DefaultServiceInstance("product-2", "product", "fast-host", 8080, false);
+  private final ServiceInstance review = new DefaultServiceInstance("review-1", "review", "review-host", 8080, false);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void slowPrimaryIsOvertakenByHedge() {
+    HedgingExchangeFilterFunction filter = filter(1.0, 10);
+
+    StepVerifier.create(filter.filter(request("product"), exchange(Duration.ofSeconds(5), new AtomicBoolean())))
+        .assertNext(response -> assertEquals("fast", response.headers().asHttpHeaders().getFirst("instance")))
+        .verifyComplete();
+
+    assertEquals(1.0, count("fired"));
+    assertEquals(1.0, count("won"));
+  }
+
+  @Test
+  void losingPrimaryIsCancelled() {
+    HedgingExchangeFilterFunction filter = filter(1.0, 10);
+    AtomicBoolean primaryCancelled = new AtomicBoolean();
+
+    StepVerifier.create(filter.filter(request("product"), exchange(Duration.ofSeconds(5), primaryCancelled)))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    assertTrue(primaryCancelled.get());
+  }
+
+  @Test
+  void releasesTheResponseOfTheLosingRequest() {
+    HedgingExchangeFilterFunction filter = filter(1.0, 10);
+    // A response already on its way when its request is cancelled, it is still delivered
+    CompletableFuture<ClientResponse> slowResponse = new CompletableFuture<>();
+    AtomicBoolean released = new AtomicBoolean();
+    ExchangeFunction exchange = request -> request.url().getHost().equals("slow-host")
+        ? Mono.fromFuture(slowResponse, true)
+        : Mono.just(ClientResponse.create(OK).header("instance", "fast").build());
+
+    StepVerifier.create(filter.filter(request("product"), exchange))
+        .assertNext(response -> assertEquals("fast", response.headers().asHttpHeaders().getFirst("instance")))
+        .verifyComplete();
+    slowResponse.complete(ClientResponse.create(OK)
+        .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("late".getBytes()))
+            .doFinally(signal -> released.set(true)))
+        .build());
+
+    assertTrue(released.get());
+  }
+
+  @Test
+  void doesNotHedgeWhenTheBudgetOfTheServiceIsExhausted() {
+    // Every request saves up half a hedge, the request to the review service must not pay for one to product
+    HedgingExchangeFilterFunction filter = filter(0.5, 1);
+    StepVerifier.create(filter.filter(request("review"), exchange(Duration.ZERO, new AtomicBoolean())))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    StepVerifier.create(filter.filter(request("product"), exchange(Duration.ofMillis(200), new AtomicBoolean())))
+        .assertNext(response -> assertEquals("slow", response.headers().asHttpHeaders().getFirst("instance")))
+        .verifyComplete();
+
+    assertEquals(0.0, count("fired"));
+    assertEquals(1.0, count("budget-exhausted"));
+  }
+
+  @Test
+  void failedPrimaryFailsTheCallWithoutAHedge() {
+    HedgingExchangeFilterFunction filter = filter(1.0, 10);
+    ExchangeFunction exchange = request -> Mono.error(
+        new WebClientRequestException(new IOException("Connection refused"), GET, request.url(), request.headers()));
+
+    StepVerifier.create(filter.filter(request("product"), exchange))
+        .verifyError(WebClientRequestException.class);
+
+    assertEquals(0.0, count("fired"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private HedgingExchangeFilterFunction filter(double budgetRatio, int budgetBurst) {
+    ReactiveLoadBalancer<ServiceInstance> productLoadBalancer = mock(ReactiveLoadBalancer.class);
+    when(productLoadBalancer.choose()).thenReturn(Mono.just(new DefaultResponse(slow)));
+    ReactiveLoadBalancer<ServiceInstance> reviewLoadBalancer = mock(ReactiveLoadBalancer.class);
+    when(reviewLoadBalancer.choose()).thenReturn(Mono.just(new DefaultResponse(review)));
+    ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory = mock(ReactiveLoadBalancer.Factory.class);
+    when(loadBalancerFactory.getInstance("product")).thenReturn(productLoadBalancer);
+    when(loadBalancerFactory.getInstance("review")).thenReturn(reviewLoadBalancer);
+    ReactiveDiscoveryClient discoveryClient = mock(ReactiveDiscoveryClient.class);
+    when(discoveryClient.getInstances("product")).thenReturn(Flux.just(slow, fast));
+    when(discoveryClient.getInstances("review")).thenReturn(Flux.just(review));
+
+    return new HedgingExchangeFilterFunction(
+        new HedgingProperties(true, 0.95, Duration.ofMillis(10), Duration.ofMillis(50), 50, budgetRatio, budgetBurst),
+        loadBalancerFactory, discoveryClient, meterRegistry);
+  }
+
+  /**
+   * Answers at once, except on the slow instance which takes {@code slowDelay} and flags its cancellation.
+   */
+  private static ExchangeFunction exchange(Duration slowDelay, AtomicBoolean slowCancelled) {
+    return request -> request.url().getHost().equals("slow-host")
+        ? Mono.delay(slowDelay)
+            .map(tick -> ClientResponse.create(OK).header("instance", "slow").build())
+            .doOnCancel(() -> slowCancelled.set(true))
+        : Mono.just(ClientResponse.create(OK).header("instance", "fast").build());
+  }
+
+  private static ClientRequest request(String serviceId) {
+    return ClientRequest.create(GET, URI.create("http://" + serviceId + "/" + serviceId + "/1")).build();
+  }
+
+  private double count(String outcome) {
+    return meterRegistry.counter("composite.hedging.requests", "service", "product", "outcome", outcome).count();
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.api.composite.ProductAggregate;
+import com.example.microservices.composite.product.AggregateCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductAggregateCacheTests {
+  private static final int PRODUCT_ID = 1;
+
+  private final ProductAggregateCache cache = new ProductAggregateCache(new AggregateCacheProperties(
+      true, 100, Duration.ofSeconds(60), Duration.ofMillis(50)), new SimpleMeterRegistry());
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  void doesNotKeepALoadThatWasRunningWhenInvalidated() {
+    Sinks.One<ProductAggregate> load = Sinks.one();
+    Function<Integer, Mono<ProductAggregate>> loader = loader(load.asMono(), Mono.just(aggregate("reloaded")));
+
+    StepVerifier first = StepVerifier.create(cache.get(PRODUCT_ID, loader))
+        .assertNext(aggregate -> assertEquals("loaded before the event", aggregate.name()))
+        .expectComplete()
+        .verifyLater();
+    cache.invalidate(PRODUCT_ID);
+    load.tryEmitValue(aggregate("loaded before the event"));
+    first.verify(Duration.ofSeconds(5));
+
+    StepVerifier.create(cache.get(PRODUCT_ID, loader))
+        .assertNext(aggregate -> assertEquals("reloaded", aggregate.name()))
+        .verifyComplete();
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void doesNotKeepARefreshThatWasRunningWhenInvalidated() throws InterruptedException {
+    Sinks.One<ProductAggregate> refresh = Sinks.one();
+    Function<Integer, Mono<ProductAggregate>> loader = loader(
+        Mono.just(aggregate("loaded")), refresh.asMono(), Mono.just(aggregate("reloaded")));
+
+    StepVerifier.create(cache.get(PRODUCT_ID, loader))
+        .assertNext(aggregate -> assertEquals("loaded", aggregate.name()))
+        .verifyComplete();
+    // Past the refresh age the cached aggregate is still served while it is reloaded in the background
+    Thread.sleep(100);
+    StepVerifier.create(cache.get(PRODUCT_ID, loader))
+        .assertNext(aggregate -> assertEquals("loaded", aggregate.name()))
+        .verifyComplete();
+    cache.invalidate(PRODUCT_ID);
+    refresh.tryEmitValue(aggregate("refreshed before the event"));
+
+    StepVerifier.create(cache.get(PRODUCT_ID, loader))
+        .assertNext(aggregate -> assertEquals("reloaded", aggregate.name()))
+        .verifyComplete();
+    assertEquals(3, loads.get());
+  }
+
+  @SafeVarargs
+  private Function<Integer, Mono<ProductAggregate>> loader(Mono<ProductAggregate>... responses) {
+    List<Mono<ProductAggregate>> next = List.of(responses);
+    return productId -> next.get(loads.getAndIncrement());
+  }
+
+  private static ProductAggregate aggregate(String name) {
+    return new ProductAggregate(PRODUCT_ID, name, 1, List.of(), List.of(), null);
+  }
+}
@@ -0,0 +1,199 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.api.event.Event;
+import com.example.microservices.composite.product.PublishingProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.micrometer.observation.transport.SenderContext;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.stream.binder.ProducerProperties;
+import org.springframework.cloud.stream.config.BindingProperties;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+import reactor.test.StepVerifier;
+import reactor.util.retry.Retry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.example.api.event.Event.Type.DELETE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactiveKafkaEventPublisherTests {
+  private static final String BINDING = "products-out-0";
+
+  private final List<ProducerRecord<String, byte[]>> sent = new CopyOnWriteArrayList<>();
+
+  @Test
+  void sendsConcurrentPublishesThroughOneSubscription() {
+    KafkaSender<String, byte[]> sender = sender(records -> Flux.from(records)
+        .doOnNext(record -> sent.add(record))
+        .map(record -> result(record, null)));
+    ReactiveKafkaEventPublisher publisher = publisher(sender, 100, ObservationRegistry.NOOP);
+
+    StepVerifier.create(Flux.range(1, 100).flatMap(key -> publisher.publish(BINDING, new Event<>(DELETE, key, null))))
+        .verifyComplete();
+
+    verify(sender, times(1)).send(any());
+    assertThat(sent).hasSize(100).allSatisfy(record -> {
+      assertThat(record.topic()).isEqualTo("products");
+      assertThat(record.partition()).isEqualTo(EventPartitionKeyExtractor.partition(Integer.valueOf(record.key()), 2));
+      assertThat(new String(record.headers().lastHeader("contentType").value(), StandardCharsets.UTF_8))
+          .contains("application/json");
+    });
+  }
+
+  @Test
+  void failsOnlyThePublishOfAFailedRecord() {
+    KafkaSender<String, byte[]> sender = sender(records -> Flux.from(records)
+        .map(record -> result(record, record.key().equals("2") ? new IllegalStateException("Not leader") : null)));
+    ReactiveKafkaEventPublisher publisher = publisher(sender, 100, ObservationRegistry.NOOP);
+
+    StepVerifier.create(publisher.publish(BINDING, new Event<>(DELETE, 1, null))).verifyComplete();
+    StepVerifier.create(publisher.publish(BINDING, new Event<>(DELETE, 2, null)))
+        .verifyErrorMessage("Not leader");
+    StepVerifier.create(publisher.publish(BINDING, new Event<>(DELETE, 3, null))).verifyComplete();
+  }
+
+  @Test
+  void failsThePublishesInFlightAndRestartsWhenTheSenderFails() {
+    AtomicInteger subscriptions = new AtomicInteger();
+    // The first subscription never acknowledges and fails on the second record, the next one acknowledges all
+    KafkaSender<String, byte[]> sender = sender(records -> subscriptions.incrementAndGet() == 1
+        ? Flux.from(records).flatMap(record -> record.key().equals("2")
+            ? Mono.error(new IllegalStateException("Producer fenced"))
+            : Mono.<SenderResult<Object>>never())
+        : Flux.from(records).map(record -> result(record, null)));
+    ReactiveKafkaEventPublisher publisher = publisher(sender, 100, ObservationRegistry.NOOP);
+
+    StepVerifier first = StepVerifier.create(publisher.publish(BINDING, new Event<>(DELETE, 1, null)))
+        .expectErrorMessage("Producer fenced")
+        .verifyLater();
+    StepVerifier.create(publisher.publish(BINDING, new Event<>(DELETE, 2, null)))
+        .verifyErrorMessage("Producer fenced");
+    first.verify(Duration.ofSeconds(5));
+
+    // Publishes fail fast until the subscription has been restarted
+    StepVerifier.create(Mono.defer(() -> publisher.publish(BINDING, new Event<>(DELETE, 3, null)))
+            .retryWhen(Retry.fixedDelay(100, Duration.ofMillis(20))))
+        .expectComplete()
+        .verify(Duration.ofSeconds(5));
+    verify(sender, times(2)).send(any());
+  }
+
+  @Test
+  void rejectsPublishesWhileTheQueueIsFull() {
+    // Two records in flight that are never acknowledged, four more fit into the queue
+    KafkaSender<String, byte[]> sender = sender(records -> Flux.from(records)
+        .flatMap(record -> Mono.<SenderResult<Object>>never(), 2));
+    ReactiveKafkaEventPublisher publisher = publisher(sender, 4, ObservationRegistry.NOOP);
+
+    for (int key = 1; key <= 6; key++) {
+      publisher.publish(BINDING, new Event<>(DELETE, key, null)).subscribe();
+    }
+
+    StepVerifier.create(publisher.publish(BINDING, new Event<>(DELETE, 7, null)))
+        .expectErrorSatisfies(e -> assertThat(e).isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("wait to be sent"))
+        .verify(Duration.ofSeconds(5));
+  }
+
+  @Test
+  void addsTheTraceContextOfTheCallerToTheRecord() {
+    KafkaSender<String, byte[]> sender = sender(records -> Flux.from(records)
+        .doOnNext(record -> sent.add(record))
+        .map(record -> result(record, null)));
+    ObservationRegistry observationRegistry = ObservationRegistry.create();
+    // Stands in for the tracing handler, which writes the traceparent of the parent observation
+    observationRegistry.observationConfig().observationHandler(new ObservationHandler<SenderContext<Object>>() {
+      @Override
+      public void onStart(SenderContext<Object> context) {
+        String parent = context.getParentObservation() == null
+            ? "none"
+            : context.getParentObservation().getContextView().getName();
+        context.getSetter().set(context.getCarrier(), "traceparent", parent);
+      }
+
+      @Override
+      public boolean supportsContext(Observation.Context context) {
+        return context instanceof SenderContext;
+      }
+    });
+    ReactiveKafkaEventPublisher publisher = publisher(sender, 100, observationRegistry);
+    Observation request = Observation.start("http.server.requests", observationRegistry);
+
+    StepVerifier.create(publisher.publish(BINDING, new Event<>(DELETE, 1, null))
+            .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, request)))
+        .verifyComplete();
+
+    assertThat(sent).singleElement().satisfies(record -> assertThat(
+        new String(record.headers().lastHeader("traceparent").value(), StandardCharsets.UTF_8))
+        .isEqualTo("http.server.requests"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static KafkaSender<String, byte[]> sender(
+      Function<Publisher<SenderRecord<String, byte[], Object>>, Flux<SenderResult<Object>>> send) {
+    KafkaSender<String, byte[]> sender = mock(KafkaSender.class);
+    when(sender.send(any())).thenAnswer(invocation -> send.apply(invocation.getArgument(0)));
+    return sender;
+  }
+
+  private static ReactiveKafkaEventPublisher publisher(KafkaSender<String, byte[]> sender, int maxQueued,
+                                                       ObservationRegistry observationRegistry) {
+    PublishingProperties properties = new PublishingProperties(PublishingProperties.Mode.REACTIVE,
+        "application/json", "all", Duration.ofMillis(5), DataSize.ofKilobytes(64), "lz4", 256, maxQueued);
+    ProducerProperties producer = new ProducerProperties();
+    producer.setPartitionCount(2);
+    BindingProperties binding = new BindingProperties();
+    binding.setDestination("products");
+    binding.setProducer(producer);
+    BindingServiceProperties bindingServiceProperties = new BindingServiceProperties();
+    bindingServiceProperties.setBindings(Map.of(BINDING, binding));
+    return new ReactiveKafkaEventPublisher(sender, properties, bindingServiceProperties,
+        new ObjectMapper().findAndRegisterModules(), observationRegistry, "test-producer", "localhost:9092");
+  }
+
+  private static SenderResult<Object> result(SenderRecord<String, byte[], Object> record, Exception exception) {
+    RecordMetadata metadata = new RecordMetadata(new TopicPartition(record.topic(), record.partition()), 0, 0,
+        System.currentTimeMillis(), 0, 0);
+    return new SenderResult<>() {
+      @Override
+      public RecordMetadata recordMetadata() {
+        return exception == null ? metadata : null;
+      }
+
+      @Override
+      public Exception exception() {
+        return exception;
+      }
+
+      @Override
+      public Object correlationMetadata() {
+        return record.correlationMetadata();
+      }
+    };
+  }
+}
@@ -0,0 +1,131 @@
+package com.example.microservices.composite.product.services;
+
+import com.example.microservices.composite.product.CoalescingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestCoalescerTests {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final RequestCoalescer coalescer =
+      new RequestCoalescer(new CoalescingProperties(true, Duration.ZERO), meterRegistry);
+
+  @Test
+  void concurrentCallsShareOneUpstreamCall() {
+    AtomicInteger upstreamCalls = new AtomicInteger();
+    Sinks.One<String> response = Sinks.one();
+
+    Mono<String> first = coalescer.coalesce("leg", 1, () -> {
+      upstreamCalls.incrementAndGet();
+      return response.asMono();
+    });
+    Mono<String> second = coalescer.coalesce("leg", 1, () -> {
+      upstreamCalls.incrementAndGet();
+      return response.asMono();
+    });
+
+    StepVerifier.create(Flux.merge(first, second))
+        .then(() -> response.tryEmitValue("product"))
+        .expectNext("product", "product")
+        .verifyComplete();
+
+    assertEquals(1, upstreamCalls.get());
+    assertEquals(1.0,
+        meterRegistry.counter("composite.coalescing.calls", "leg", "leg", "outcome", "coalesced").count());
+  }
+
+  @Test
+  void completedCallIsNotReusedWithoutWindow() {
+    AtomicInteger upstreamCalls = new AtomicInteger();
+
+    for (int i = 0; i < 2; i++) {
+      StepVerifier.create(coalescer.coalesceMany("leg", 1, () -> {
+            upstreamCalls.incrementAndGet();
+            return Flux.just(1, 2);
+          }))
+          .expectNext(1, 2)
+          .verifyComplete();
+    }
+
+    assertEquals(2, upstreamCalls.get());
+  }
+
+  @Test
+  void completedCallIsReusedWithinWindow() {
+    RequestCoalescer windowed =
+        new RequestCoalescer(new CoalescingProperties(true, Duration.ofSeconds(10)), meterRegistry);
+    AtomicInteger upstreamCalls = new AtomicInteger();
+
+    for (int i = 0; i < 2; i++) {
+      StepVerifier.create(windowed.coalesceMany("leg", 1, () -> {
+            upstreamCalls.incrementAndGet();
+            return Flux.just(1, 2);
+          }))
+          .expectNext(1, 2)
+          .verifyComplete();
+    }
+
+    assertEquals(1, upstreamCalls.get());
+  }
+
+  @Test
+  void upstreamCallIsCancelledWhenEveryCallerHasCancelled() {
+    AtomicInteger upstreamCalls = new AtomicInteger();
+    AtomicBoolean cancelled = new AtomicBoolean();
+    Supplier<Mono<String>> call = () -> {
+      upstreamCalls.incrementAndGet();
+      return Mono.<String>never().doOnCancel(() -> cancelled.set(true));
+    };
+
+    Disposable first = coalescer.coalesce("leg", 1, call).subscribe();
+    Disposable second = coalescer.coalesce("leg", 1, call).subscribe();
+    first.dispose();
+    assertFalse(cancelled.get());
+    second.dispose();
+    assertTrue(cancelled.get());
+
+    // The cancelled call is released, the next caller starts a new one
+    StepVerifier.create(coalescer.coalesce("leg", 1, () -> {
+          upstreamCalls.incrementAndGet();
+          return Mono.just("product");
+        }))
+        .expectNext("product")
+        .verifyComplete();
+    assertEquals(2, upstreamCalls.get());
+  }
+
+  @Test
+  void failedCallIsRetriedByTheNextCaller() {
+    // Even with a window a failed call is not reused, the fallback of the callers comes after the coalescer
+    RequestCoalescer windowed =
+        new RequestCoalescer(new CoalescingProperties(true, Duration.ofSeconds(10)), meterRegistry);
+    AtomicInteger upstreamCalls = new AtomicInteger();
+    Sinks.Many<String> failing = Sinks.many().replay().all();
+    Supplier<Flux<String>> call = () -> upstreamCalls.incrementAndGet() == 1 ? failing.asFlux() : Flux.just("review");
+
+    StepVerifier.create(Flux.merge(
+            windowed.coalesceMany("getReviews", 1, call).onErrorResume(error -> Flux.just("fallback")),
+            windowed.coalesceMany("getReviews", 1, call).onErrorResume(error -> Flux.just("fallback"))))
+        .then(() -> failing.tryEmitError(new IllegalStateException("Service unavailable")))
+        .expectNext("fallback", "fallback")
+        .verifyComplete();
+
+    StepVerifier.create(windowed.coalesceMany("getReviews", 1, call).onErrorResume(error -> Flux.just("fallback")))
+        .expectNext("review")
+        .verifyComplete();
+    assertEquals(2, upstreamCalls.get());
+  }
+}
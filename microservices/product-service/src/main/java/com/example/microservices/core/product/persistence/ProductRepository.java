@@ -1,8 +1,13 @@
 package com.example.microservices.core.product.persistence;
 
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
 public interface ProductRepository extends ReactiveCrudRepository<ProductEntity, String> {
   Mono<ProductEntity> findByProductId(int productId);
+
+  Flux<ProductEntity> findByProductIdIn(Collection<Integer> productIds);
 }
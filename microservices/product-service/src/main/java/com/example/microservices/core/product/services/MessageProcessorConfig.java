@@ -3,27 +3,49 @@ package com.example.microservices.core.product.services;
 import com.example.api.core.product.Product;
 import com.example.api.core.product.ProductService;
 import com.example.api.event.Event;
+import com.example.util.messaging.BatchEventProcessor;
+import com.example.util.messaging.DeadLetterPublisher;
+import com.example.util.messaging.KeyOrderedEventProcessor;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.function.Function;
 
 @Configuration
 @RequiredArgsConstructor
-@Slf4j
 public class MessageProcessorConfig {
+  private static final String INPUT_BINDING = "messageProcessor-in-0";
+
   private final ProductService productService;
+  private final ProductEventBatchWriter batchWriter;
+  private final DeadLetterPublisher deadLetterPublisher;
+  private final KeyOrderedEventProcessor keyOrderedProcessor;
+  private final BatchEventProcessor batchProcessor;
 
   @Bean
-  Function<Flux<Event<Integer, Product>>, Flux<Void>> messageProcessor() {
-    return events -> events.flatMap(
-        event -> switch (event.eventType()) {
-          case CREATE -> productService.createProduct(event.data()).then();
-          case DELETE -> productService.deleteProduct(event.key());
-        }
-    );
+  Function<Flux<Message<Event<Integer, Product>>>, Flux<Void>> messageProcessor() {
+    if (batchProcessor.isEnabled()) {
+      // A failing event is sent to the dead letter topic on its own, the rest of its batch is applied
+      return messages -> batchProcessor.process(messages, batchWriter,
+          failure -> deadLetterPublisher.publish(INPUT_BINDING, failure));
+    }
+    // Events of the same product are processed in order, events of different products concurrently. The
+    // processor records the propagation latency of each event it has processed, a failing event is sent to the
+    // dead letter topic without holding up the others
+    return messages -> keyOrderedProcessor.process(messages, this::processEvent,
+        failure -> deadLetterPublisher.publish(INPUT_BINDING, failure));
+  }
+
+  private Mono<Void> processEvent(Event<Integer, Product> event) {
+    return switch (event.eventType()) {
+      case CREATE -> productService.createProduct(event.data()).then();
+      // The composite never batches products, the type is still handled as the enum is shared
+      case CREATE_BATCH -> Flux.fromIterable(event.batch()).concatMap(productService::createProduct).then();
+      case DELETE -> productService.deleteProduct(event.key());
+    };
   }
 }
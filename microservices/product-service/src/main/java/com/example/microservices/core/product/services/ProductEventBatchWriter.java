@@ -0,0 +1,22 @@
+package com.example.microservices.core.product.services;
+
+import com.example.api.core.product.Product;
+import com.example.microservices.core.product.persistence.ProductEntity;
+import com.example.util.messaging.MongoEventBatchWriter;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies a batch of product events as Mongo bulk writes, see {@link MongoEventBatchWriter}.
+ */
+@Component
+public class ProductEventBatchWriter extends MongoEventBatchWriter<Product, ProductEntity> {
+
+  public ProductEventBatchWriter(ReactiveMongoTemplate mongoTemplate, ProductMapper mapper) {
+    super(mongoTemplate, ProductEntity.class, Product::getProductId, product -> {
+      ProductEntity entity = mapper.apiToEntity(product);
+      entity.setVersion(0);
+      return entity;
+    }, product -> "Duplicate key, Product Id: " + product.getProductId());
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.microservices.core.product.services;
+
+import com.example.api.core.product.ProductService;
+import com.example.api.grpc.GrpcMessages;
+import com.example.api.grpc.ProductMessage;
+import com.example.api.grpc.ProductRequest;
+import com.example.api.grpc.ProductServiceGrpc;
+import com.example.api.grpc.ProductsRequest;
+import com.example.util.grpc.GrpcStreams;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import net.devh.boot.grpc.server.service.GrpcService;
+
+/**
+ * gRPC endpoint of the product reads, it delegates to the same {@link ProductService} as the REST endpoint.
+ */
+@GrpcService
+@RequiredArgsConstructor
+public class ProductGrpcService extends ProductServiceGrpc.ProductServiceImplBase {
+  private final ProductService productService;
+
+  @Override
+  public void getProduct(ProductRequest request, StreamObserver<ProductMessage> responseObserver) {
+    GrpcStreams.serve(() -> productService.getProduct(request.getProductId()), GrpcMessages::toMessage,
+        responseObserver);
+  }
+
+  @Override
+  public void getProducts(ProductsRequest request, StreamObserver<ProductMessage> responseObserver) {
+    GrpcStreams.serve(() -> productService.getProducts(request.getProductIdsList()), GrpcMessages::toMessage,
+        responseObserver);
+  }
+}
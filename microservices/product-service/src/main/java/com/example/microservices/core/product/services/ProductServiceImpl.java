@@ -10,8 +10,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
 
@@ -36,6 +38,18 @@ public class ProductServiceImpl implements ProductService {
         .map(p -> p.setServiceAddress(serviceUtil.getServiceAddress()));
   }
 
+  @Override
+  public Flux<Product> getProducts(List<Integer> productIds) {
+    log.debug("/product return the found products for productIds={}", productIds);
+    productIds.stream().filter(productId -> productId < 1).findFirst().ifPresent(productId -> {
+      throw new InvalidInputException("Invalid productId: " + productId);
+    });
+    return repository.findByProductIdIn(productIds)
+        .log(log.getName(), Level.FINE)
+        .map(mapper::entityToApi)
+        .map(p -> p.setServiceAddress(serviceUtil.getServiceAddress()));
+  }
+
   @Override
   public Mono<Product> createProduct(Product body) {
     Integer productId = Optional.ofNullable(body)
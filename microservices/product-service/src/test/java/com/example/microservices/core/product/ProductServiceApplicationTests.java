@@ -2,9 +2,11 @@ package com.example.microservices.core.product;
 
 import com.example.api.core.product.Product;
 import com.example.api.event.Event;
-import com.example.api.exception.InvalidInputException;
 import com.example.microservices.core.product.persistence.MongoDbTestBase;
+import com.example.microservices.core.product.persistence.ProductEntity;
 import com.example.microservices.core.product.persistence.ProductRepository;
+import com.example.util.messaging.SmileMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,16 +14,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cloud.stream.binder.test.EnableTestBinder;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
 import org.springframework.http.HttpStatus;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.function.Function;
 
 import static com.example.api.event.Event.Type.CREATE;
 import static com.example.api.event.Event.Type.DELETE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.http.HttpStatus.*;
@@ -36,11 +46,20 @@ class ProductServiceApplicationTests extends MongoDbTestBase {
   private ProductRepository repository;
   @Autowired
   @Qualifier("messageProcessor")
-  private Function<Flux<Event<Integer, Product>>, Flux<Void>> messageProcessor;
+  private Function<Flux<Message<Event<Integer, Product>>>, Flux<Void>> messageProcessor;
+  @Autowired
+  private InputDestination inputDestination;
+  @Autowired
+  private OutputDestination outputDestination;
+  @Autowired
+  private ObjectMapper mapper;
+  @Autowired
+  private SmileMessageConverter smileMessageConverter;
 
   @BeforeEach
   void setupDb() {
     StepVerifier.create(repository.deleteAll()).verifyComplete();
+    outputDestination.clear();
   }
 
   @Test
@@ -55,6 +74,38 @@ class ProductServiceApplicationTests extends MongoDbTestBase {
     getAndVerifyProduct(productId, OK).jsonPath("$.productId").isEqualTo(productId);
   }
 
+  @Test
+  void getProductsByProductIds() {
+
+    postAndVerifyProduct(1, ACCEPTED);
+    postAndVerifyProduct(2, ACCEPTED);
+
+    client.get()
+      .uri("/product?productIds=1,2,3")
+      .accept(APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isEqualTo(OK)
+      .expectHeader().contentType(APPLICATION_JSON)
+      .expectBody()
+      .jsonPath("$.length()").isEqualTo(2);
+  }
+
+  @Test
+  void consumesJsonAndSmileEvents() throws IOException {
+
+    byte[] json = mapper.writeValueAsBytes(new Event<>(CREATE, 1, new Product(1, "Name 1", 1, "SA")));
+    inputDestination.send(MessageBuilder.withPayload(json)
+        .setHeader(MessageHeaders.CONTENT_TYPE, "application/json").build(), "products");
+
+    byte[] smile = smileMessageConverter.getObjectMapper()
+        .writeValueAsBytes(new Event<>(CREATE, 2, new Product(2, "Name 2", 2, "SA")));
+    inputDestination.send(MessageBuilder.withPayload(smile)
+        .setHeader(MessageHeaders.CONTENT_TYPE, "application/x-jackson-smile").build(), "products");
+
+    assertNotNull(awaitProduct(1));
+    assertEquals("Name 2", awaitProduct(2).getName());
+  }
+
   @Test
   void duplicateError() {
 
@@ -64,9 +115,12 @@ class ProductServiceApplicationTests extends MongoDbTestBase {
 
     assertNotNull(repository.findByProductId(productId).block());
 
-    sendCreateProductEvent(productId)
-        .verifyErrorMatches(ex -> ex instanceof InvalidInputException iie
-            && iie.getMessage().equals("Duplicate key, Product Id: " + productId));
+    // The failing event is sent to the dead letter topic, the events after it are still processed
+    sendCreateProductEvent(productId).verifyComplete();
+
+    Message<byte[]> deadLetter = outputDestination.receive(1000, "error.products.productGroup");
+    assertNotNull(deadLetter);
+    assertEquals("Duplicate key, Product Id: " + productId, deadLetter.getHeaders().get("x-exception-message"));
   }
 
   @Test
@@ -110,6 +164,12 @@ class ProductServiceApplicationTests extends MongoDbTestBase {
       .jsonPath("$.message").isEqualTo("Invalid productId: " + productIdInvalid);
   }
 
+  private ProductEntity awaitProduct(int productId) {
+    return repository.findByProductId(productId)
+        .repeatWhenEmpty(repeat -> repeat.delayElements(Duration.ofMillis(100)).take(50))
+        .block();
+  }
+
   private WebTestClient.BodyContentSpec getAndVerifyProduct(int productId, HttpStatus expectedStatus) {
     return getAndVerifyProduct("/" + productId, expectedStatus);
   }
@@ -147,10 +207,10 @@ class ProductServiceApplicationTests extends MongoDbTestBase {
     Product product = new Product(productId, "Name " + productId, productId,
         "SA");
     Event<Integer, Product> event = new Event<>(CREATE, productId, product);
-    return StepVerifier.create(messageProcessor.apply(Flux.just(event)));
+    return StepVerifier.create(messageProcessor.apply(Flux.just(MessageBuilder.withPayload(event).build())));
   }
   private StepVerifier.FirstStep<Void> sendDeleteProductEvent(int productId) {
     Event<Integer, Product> event = new Event<>(DELETE, productId, null);
-    return StepVerifier.create(messageProcessor.apply(Flux.just(event)));
+    return StepVerifier.create(messageProcessor.apply(Flux.just(MessageBuilder.withPayload(event).build())));
   }
 }
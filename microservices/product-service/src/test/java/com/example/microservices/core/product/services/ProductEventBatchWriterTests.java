@@ -0,0 +1,73 @@
+package com.example.microservices.core.product.services;
+
+import com.example.api.core.product.Product;
+import com.example.api.event.Event;
+import com.example.microservices.core.product.persistence.MongoDbTestBase;
+import com.example.microservices.core.product.persistence.ProductEntity;
+import com.example.microservices.core.product.persistence.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.EnableTestBinder;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static com.example.api.event.Event.Type.CREATE;
+import static com.example.api.event.Event.Type.DELETE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {"eureka.client.enabled=false"})
+@EnableTestBinder
+class ProductEventBatchWriterTests extends MongoDbTestBase {
+
+  @Autowired
+  private ProductRepository repository;
+  @Autowired
+  private ProductEventBatchWriter writer;
+
+  @BeforeEach
+  void setupDb() {
+    StepVerifier.create(repository.deleteAll()).verifyComplete();
+  }
+
+  @Test
+  void writesTheBatchAndReturnsTheFailedEvents() {
+
+    StepVerifier.create(writer.write(List.of(
+            createEvent(1),
+            createEvent(2),
+            createEvent(1),
+            new Event<>(DELETE, 2, null),
+            createEvent(0),
+            createEvent(3))))
+        .assertNext(failures -> assertEquals(List.of("Duplicate key, Product Id: 1", "Invalid productId: 0"),
+            failures.stream().map(failure -> failure.cause().getMessage()).toList()))
+        .verifyComplete();
+
+    StepVerifier.create(repository.findAll().map(ProductEntity::getProductId).sort())
+        .expectNext(1, 3)
+        .verifyComplete();
+  }
+
+  @Test
+  void createsAgainAfterADeleteInTheSameBatch() {
+
+    StepVerifier.create(writer.write(List.of(
+            createEvent(1),
+            new Event<>(DELETE, 1, null),
+            createEvent(1))))
+        .expectNext(List.of())
+        .verifyComplete();
+
+    StepVerifier.create(repository.findByProductId(1).map(ProductEntity::getName))
+        .expectNext("Name 1")
+        .verifyComplete();
+  }
+
+  private static Event<Integer, Product> createEvent(int productId) {
+    return new Event<>(CREATE, productId, new Product(productId, "Name " + productId, productId, "SA"));
+  }
+}
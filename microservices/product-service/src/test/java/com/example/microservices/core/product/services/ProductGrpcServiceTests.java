@@ -0,0 +1,111 @@
+package com.example.microservices.core.product.services;
+
+import com.example.api.core.product.Product;
+import com.example.api.core.product.ProductService;
+import com.example.api.exception.InvalidInputException;
+import com.example.api.exception.NotFoundException;
+import com.example.api.grpc.ProductMessage;
+import com.example.api.grpc.ProductRequest;
+import com.example.api.grpc.ProductServiceGrpc;
+import com.example.api.grpc.ProductsRequest;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductGrpcServiceTests {
+  private final ProductService productService = mock(ProductService.class);
+  private Server server;
+  private ManagedChannel channel;
+  private ProductServiceGrpc.ProductServiceBlockingStub stub;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    String name = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(name)
+        .addService(new ProductGrpcService(productService))
+        .build()
+        .start();
+    channel = InProcessChannelBuilder.forName(name).build();
+    stub = ProductServiceGrpc.newBlockingStub(channel);
+  }
+
+  @AfterEach
+  void stopServer() {
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  void getProduct() {
+    when(productService.getProduct(1)).thenReturn(Mono.just(new Product(1, "name", 2, "address")));
+
+    ProductMessage message = stub.getProduct(ProductRequest.newBuilder().setProductId(1).build());
+
+    assertThat(message.getProductId()).isEqualTo(1);
+    assertThat(message.getName()).isEqualTo("name");
+    assertThat(message.getWeight()).isEqualTo(2);
+    assertThat(message.getServiceAddress()).isEqualTo("address");
+  }
+
+  @Test
+  void getProducts() {
+    when(productService.getProducts(List.of(1, 2))).thenReturn(Flux.just(
+        new Product(1, "name 1", 1, "address"), new Product(2, "name 2", 2, "address")));
+
+    List<Integer> productIds = new ArrayList<>();
+    stub.getProducts(ProductsRequest.newBuilder().addAllProductIds(List.of(1, 2)).build())
+        .forEachRemaining(message -> productIds.add(message.getProductId()));
+
+    assertThat(productIds).containsExactly(1, 2);
+  }
+
+  @Test
+  void getProductNotFound() {
+    when(productService.getProduct(13))
+        .thenReturn(Mono.error(new NotFoundException("No product found for productId: 13")));
+
+    assertThatThrownBy(() -> stub.getProduct(ProductRequest.newBuilder().setProductId(13).build()))
+        .isInstanceOfSatisfying(StatusRuntimeException.class, e -> {
+          assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.NOT_FOUND);
+          assertThat(e.getStatus().getDescription()).isEqualTo("No product found for productId: 13");
+        });
+  }
+
+  @Test
+  void getProductInvalidParameter() {
+    when(productService.getProduct(-1)).thenReturn(Mono.error(new InvalidInputException("Invalid productId: -1")));
+
+    assertThatThrownBy(() -> stub.getProduct(ProductRequest.newBuilder().setProductId(-1).build()))
+        .isInstanceOfSatisfying(StatusRuntimeException.class,
+            e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT));
+  }
+
+  @Test
+  void getProductInvalidParameterThrownBeforeReturningAMono() {
+    // ProductServiceImpl validates the productId before it builds the Mono
+    when(productService.getProduct(-1)).thenThrow(new InvalidInputException("Invalid productId: -1"));
+
+    assertThatThrownBy(() -> stub.getProduct(ProductRequest.newBuilder().setProductId(-1).build()))
+        .isInstanceOfSatisfying(StatusRuntimeException.class, e -> {
+          assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+          assertThat(e.getStatus().getDescription()).isEqualTo("Invalid productId: -1");
+        });
+  }
+}
@@ -1,8 +1,18 @@
 package com.example.microservices.core.recommendation.persistence;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 
+import java.util.Collection;
+
 public interface RecommendationRepository extends ReactiveCrudRepository<RecommendationEntity, String> {
   Flux<RecommendationEntity> findByProductId(int productId);
+
+  Flux<RecommendationView> findViewsByProductId(int productId);
+
+  Flux<RecommendationView> findByProductIdAndRecommendationIdGreaterThanOrderByRecommendationIdAsc(
+      int productId, int recommendationId, Limit limit);
+
+  Flux<RecommendationView> findByProductIdIn(Collection<Integer> productIds);
 }
@@ -0,0 +1,12 @@
+package com.example.microservices.core.recommendation.persistence;
+
+/**
+ * Closed projection of {@link RecommendationEntity} for read paths, only the fields exposed by the API are fetched.
+ */
+public interface RecommendationView {
+  int getProductId();
+  int getRecommendationId();
+  String getAuthor();
+  int getRating();
+  String getContent();
+}
@@ -3,27 +3,53 @@ package com.example.microservices.core.recommendation.services;
 import com.example.api.core.recommendation.Recommendation;
 import com.example.api.core.recommendation.RecommendationService;
 import com.example.api.event.Event;
+import com.example.util.messaging.BatchEventProcessor;
+import com.example.util.messaging.DeadLetterPublisher;
+import com.example.util.messaging.KeyOrderedEventProcessor;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.function.Function;
 
 @Configuration
 @RequiredArgsConstructor
-@Slf4j
 public class MessageProcessorConfig {
+  private static final String INPUT_BINDING = "messageProcessor-in-0";
+
   private final RecommendationService recommendationService;
+  private final RecommendationEventBatchWriter batchWriter;
+  private final DeadLetterPublisher deadLetterPublisher;
+  private final KeyOrderedEventProcessor keyOrderedProcessor;
+  private final BatchEventProcessor batchProcessor;
 
   @Bean
-  Function<Flux<Event<Integer, Recommendation>>, Flux<Void>> messageProcessor() {
-    return eventFlux -> eventFlux
-        .flatMap(event ->
-            switch (event.eventType()) {
-              case CREATE -> recommendationService.createRecommendation(event.data()).then();
-              case DELETE -> recommendationService.deleteRecommendations(event.key());
-            });
+  Function<Flux<Message<Event<Integer, Recommendation>>>, Flux<Void>> messageProcessor() {
+    if (batchProcessor.isEnabled()) {
+      // A failing event is sent to the dead letter topic on its own, the rest of its batch is applied
+      return messages -> batchProcessor.process(messages, batchWriter,
+          failure -> deadLetterPublisher.publish(INPUT_BINDING, failure));
+    }
+    // Events of the same product are processed in order, events of different products concurrently. The
+    // processor records the propagation latency of each event it has processed, a failing event is sent to the
+    // dead letter topic without holding up the others
+    return messages -> keyOrderedProcessor.process(messages, this::processEvent,
+        failure -> deadLetterPublisher.publish(INPUT_BINDING, failure));
+  }
+
+  private Mono<Void> processEvent(Event<Integer, Recommendation> event) {
+    return switch (event.eventType()) {
+      case CREATE -> recommendationService.createRecommendation(event.data()).then();
+      // Only the recommendations of the batch that fail are sent to the dead letter topic, as events of their own
+      case CREATE_BATCH -> batchWriter.write(List.of(event))
+          .flatMapMany(Flux::fromIterable)
+          .concatMap(failure -> deadLetterPublisher.publish(INPUT_BINDING, failure))
+          .then();
+      case DELETE -> recommendationService.deleteRecommendations(event.key());
+    };
   }
 }
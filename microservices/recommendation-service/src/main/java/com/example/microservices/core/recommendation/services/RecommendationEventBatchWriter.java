@@ -0,0 +1,23 @@
+package com.example.microservices.core.recommendation.services;
+
+import com.example.api.core.recommendation.Recommendation;
+import com.example.microservices.core.recommendation.persistence.RecommendationEntity;
+import com.example.util.messaging.MongoEventBatchWriter;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies a batch of recommendation events as Mongo bulk writes, see {@link MongoEventBatchWriter}.
+ */
+@Component
+public class RecommendationEventBatchWriter extends MongoEventBatchWriter<Recommendation, RecommendationEntity> {
+
+  public RecommendationEventBatchWriter(ReactiveMongoTemplate mongoTemplate, RecommendationMapper mapper) {
+    super(mongoTemplate, RecommendationEntity.class, Recommendation::getProductId, recommendation -> {
+      RecommendationEntity entity = mapper.apiToEntity(recommendation);
+      entity.setVersion(0);
+      return entity;
+    }, recommendation -> "Duplicate key, Product Id: " + recommendation.getProductId() + ", Recommendation Id:"
+        + recommendation.getRecommendationId());
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.microservices.core.recommendation.services;
+
+import com.example.api.core.recommendation.RecommendationService;
+import com.example.api.grpc.GrpcMessages;
+import com.example.api.grpc.PageRequest;
+import com.example.api.grpc.ProductRequest;
+import com.example.api.grpc.ProductsRequest;
+import com.example.api.grpc.RecommendationMessage;
+import com.example.api.grpc.RecommendationServiceGrpc;
+import com.example.util.grpc.GrpcStreams;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import net.devh.boot.grpc.server.service.GrpcService;
+
+/**
+ * gRPC endpoint of the recommendation reads, recommendations are streamed as they are read from the database.
+ */
+@GrpcService
+@RequiredArgsConstructor
+public class RecommendationGrpcService extends RecommendationServiceGrpc.RecommendationServiceImplBase {
+  private final RecommendationService recommendationService;
+
+  @Override
+  public void getRecommendations(ProductRequest request, StreamObserver<RecommendationMessage> responseObserver) {
+    GrpcStreams.serve(() -> recommendationService.getRecommendations(request.getProductId()), GrpcMessages::toMessage,
+        responseObserver);
+  }
+
+  @Override
+  public void getRecommendationsPage(PageRequest request, StreamObserver<RecommendationMessage> responseObserver) {
+    GrpcStreams.serve(() ->
+        recommendationService.getRecommendations(request.getProductId(), request.getAfter(), request.getLimit()),
+        GrpcMessages::toMessage, responseObserver);
+  }
+
+  @Override
+  public void getRecommendationsBatch(ProductsRequest request, StreamObserver<RecommendationMessage> responseObserver) {
+    GrpcStreams.serve(() -> recommendationService.getRecommendations(request.getProductIdsList()),
+        GrpcMessages::toMessage, responseObserver);
+  }
+}
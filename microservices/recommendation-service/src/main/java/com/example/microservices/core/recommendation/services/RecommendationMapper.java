@@ -2,6 +2,7 @@ package com.example.microservices.core.recommendation.services;
 
 import com.example.api.core.recommendation.Recommendation;
 import com.example.microservices.core.recommendation.persistence.RecommendationEntity;
+import com.example.microservices.core.recommendation.persistence.RecommendationView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
@@ -20,4 +21,10 @@ public interface RecommendationMapper {
       @Mapping(target = "rate", source = "entity.rating")
   })
   Recommendation entityToApi(RecommendationEntity entity);
+
+  @Mappings({
+      @Mapping(target = "serviceAddress", ignore = true),
+      @Mapping(target = "rate", source = "view.rating")
+  })
+  Recommendation viewToApi(RecommendationView view);
 }
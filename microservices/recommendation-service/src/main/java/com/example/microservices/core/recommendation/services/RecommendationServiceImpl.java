@@ -3,15 +3,22 @@ package com.example.microservices.core.recommendation.services;
 import com.example.api.core.recommendation.Recommendation;
 import com.example.api.core.recommendation.RecommendationService;
 import com.example.api.exception.InvalidInputException;
+import com.example.microservices.core.recommendation.persistence.RecommendationEntity;
 import com.example.microservices.core.recommendation.persistence.RecommendationRepository;
 import com.example.util.http.ServiceUtil;
+import com.example.util.messaging.MongoEventBatchWriter;
+import com.mongodb.bulk.BulkWriteError;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.logging.Level;
 
 @RestController
@@ -22,6 +29,7 @@ public class RecommendationServiceImpl implements RecommendationService {
   private final ServiceUtil serviceUtil;
   private final RecommendationRepository repository;
   private final RecommendationMapper mapper;
+  private final ReactiveMongoTemplate mongoTemplate;
 
   @Override
   public Flux<Recommendation> getRecommendations(int productId) {
@@ -29,9 +37,36 @@ public class RecommendationServiceImpl implements RecommendationService {
     if (productId < 1) {
       throw new InvalidInputException("Invalid productId: " + productId);
     }
-    return repository.findByProductId(productId)
+    return repository.findViewsByProductId(productId)
         .log(log.getName(), Level.FINE)
-        .map(mapper::entityToApi)
+        .map(mapper::viewToApi)
+        .map(r -> r.setServiceAddress(serviceUtil.getServiceAddress()));
+  }
+
+  @Override
+  public Flux<Recommendation> getRecommendations(int productId, int after, int limit) {
+    log.debug("Will get {} recommendations after id={} for product with id={}", limit, after, productId);
+    if (productId < 1) {
+      throw new InvalidInputException("Invalid productId: " + productId);
+    }
+    if (limit < 1) {
+      throw new InvalidInputException("Invalid limit: " + limit);
+    }
+    return repository.findByProductIdAndRecommendationIdGreaterThanOrderByRecommendationIdAsc(productId, after, Limit.of(limit))
+        .log(log.getName(), Level.FINE)
+        .map(mapper::viewToApi)
+        .map(r -> r.setServiceAddress(serviceUtil.getServiceAddress()));
+  }
+
+  @Override
+  public Flux<Recommendation> getRecommendations(List<Integer> productIds) {
+    log.debug("Will get recommendations for products with ids={}", productIds);
+    productIds.stream().filter(productId -> productId < 1).findFirst().ifPresent(productId -> {
+      throw new InvalidInputException("Invalid productId: " + productId);
+    });
+    return repository.findByProductIdIn(productIds)
+        .log(log.getName(), Level.FINE)
+        .map(mapper::viewToApi)
         .map(r -> r.setServiceAddress(serviceUtil.getServiceAddress()));
   }
 
@@ -50,6 +85,48 @@ public class RecommendationServiceImpl implements RecommendationService {
         .map(mapper::entityToApi);
   }
 
+  @Override
+  public Flux<Recommendation> createRecommendations(List<Recommendation> body) {
+    body.stream().filter(r -> r.getProductId() < 1).findFirst().ifPresent(r -> {
+      throw new InvalidInputException("Invalid productId: " + r.getProductId());
+    });
+    body.stream().filter(r -> r.getProductId() != body.getFirst().getProductId()).findFirst().ifPresent(r -> {
+      throw new InvalidInputException("Invalid productId: " + r.getProductId() + ", the batch is of productId: "
+          + body.getFirst().getProductId());
+    });
+    if (body.isEmpty()) {
+      return Flux.empty();
+    }
+    List<RecommendationEntity> entities = body.stream().map(recommendation -> {
+      RecommendationEntity entity = mapper.apiToEntity(recommendation);
+      entity.setVersion(0);
+      return entity;
+    }).toList();
+    // An unordered bulk insert writes every recommendation of the batch that is not a duplicate, wherever the
+    // duplicates are, so a retry of the batch only fails on the recommendations that already exist
+    return Mono.defer(() -> mongoTemplate.bulkOps(BulkMode.UNORDERED, RecommendationEntity.class)
+            .insert(entities)
+            .execute())
+        .log(log.getName(), Level.FINE)
+        .onErrorMap(e -> MongoEventBatchWriter.writeErrors(e) != null,
+            e -> batchInsertError(body, MongoEventBatchWriter.writeErrors(e)))
+        .thenMany(Flux.fromIterable(entities))
+        .map(mapper::entityToApi);
+  }
+
+  private static RuntimeException batchInsertError(List<Recommendation> body, List<BulkWriteError> errors) {
+    List<Integer> duplicates = errors.stream()
+        .filter(error -> error.getCode() == MongoEventBatchWriter.DUPLICATE_KEY_CODE)
+        .map(error -> body.get(error.getIndex()).getRecommendationId())
+        .toList();
+    if (duplicates.size() < errors.size()) {
+      return new IllegalStateException(errors.getFirst().getMessage());
+    }
+    return new InvalidInputException("Duplicate key, Product Id: " + body.getFirst().getProductId()
+        + ", Recommendation Ids: " + duplicates + ", the other " + (body.size() - duplicates.size())
+        + " recommendations of the batch are created");
+  }
+
   @Override
   public Mono<Void> deleteRecommendations(int productId) {
     log.debug("deleteRecommendations: tries to delete recommendations for the product with productId: {}", productId);
@@ -0,0 +1,135 @@
+package com.example.microservices.core.recommendation;
+
+import com.example.api.core.recommendation.Recommendation;
+import com.example.api.event.Event;
+import com.example.microservices.core.recommendation.persistence.MongoDbTestBase;
+import com.example.microservices.core.recommendation.persistence.RecommendationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.EnableTestBinder;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static com.example.api.event.Event.Type.CREATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {"eureka.client.enabled=false"})
+@EnableTestBinder
+class RecommendationServiceApplicationTests extends MongoDbTestBase {
+  private static final String DEAD_LETTER_DESTINATION = "error.recommendations.recommendationGroup";
+
+  @Autowired
+  private WebTestClient client;
+  @Autowired
+  private RecommendationRepository repository;
+  @Autowired
+  private Function<Flux<Message<Event<Integer, Recommendation>>>, Flux<Void>> messageProcessor;
+  @Autowired
+  private OutputDestination outputDestination;
+  @Autowired
+  private ObjectMapper mapper;
+
+  @BeforeEach
+  void setupDb() {
+    StepVerifier.create(repository.deleteAll()).verifyComplete();
+    outputDestination.clear();
+  }
+
+  @Test
+  void createRecommendationsInBatch() throws IOException {
+
+    int productId = 1;
+
+    send(Event.createBatch(productId, recommendations(productId, 1, 3))).verifyComplete();
+    assertCount(productId, 3);
+
+    // Only the duplicate is sent to the dead letter topic, the rest of the batch is created
+    send(Event.createBatch(productId, recommendations(productId, 3, 5))).verifyComplete();
+    assertCount(productId, 5);
+
+    assertDeadLetter(productId, "Duplicate key, Product Id: 1, Recommendation Id:3");
+    assertNull(outputDestination.receive(100, DEAD_LETTER_DESTINATION));
+  }
+
+  @Test
+  void rejectsRecommendationsOfAnotherProductInABatch() throws IOException {
+
+    send(Event.createBatch(1, List.of(recommendation(1, 1), recommendation(2, 1)))).verifyComplete();
+
+    assertCount(1, 1);
+    assertCount(2, 0);
+    assertDeadLetter(1, "Invalid productId: 2, the key of its event is 1");
+  }
+
+  @Test
+  void createRecommendationsInBatchOverHttp() {
+
+    int productId = 1;
+
+    postRecommendations(recommendations(productId, 1, 2), OK);
+
+    postRecommendations(recommendations(productId, 2, 3), UNPROCESSABLE_ENTITY)
+        .jsonPath("$.message").isEqualTo("Duplicate key, Product Id: 1, Recommendation Ids: [2], "
+            + "the other 1 recommendations of the batch are created");
+    assertCount(productId, 3);
+
+    postRecommendations(List.of(recommendation(1, 4), recommendation(2, 1)), UNPROCESSABLE_ENTITY)
+        .jsonPath("$.message").isEqualTo("Invalid productId: 2, the batch is of productId: 1");
+    assertCount(productId, 3);
+  }
+
+  private WebTestClient.BodyContentSpec postRecommendations(List<Recommendation> body, HttpStatus expectedStatus) {
+    return client.post()
+        .uri("/recommendation/batch")
+        .bodyValue(body)
+        .accept(APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isEqualTo(expectedStatus)
+        .expectBody();
+  }
+
+  private void assertCount(int productId, long expectedCount) {
+    StepVerifier.create(repository.findByProductId(productId).count())
+        .expectNext(expectedCount)
+        .verifyComplete();
+  }
+
+  private void assertDeadLetter(int productId, String exceptionMessage) throws IOException {
+    Message<byte[]> deadLetter = outputDestination.receive(1000, DEAD_LETTER_DESTINATION);
+    Event<?, ?> failedEvent = mapper.readValue(deadLetter.getPayload(), Event.class);
+    assertEquals(CREATE, failedEvent.eventType());
+    assertEquals(productId, failedEvent.key());
+    assertEquals(exceptionMessage, deadLetter.getHeaders().get("x-exception-message"));
+  }
+
+  private StepVerifier.FirstStep<Void> send(Event<Integer, Recommendation> event) {
+    return StepVerifier.create(messageProcessor.apply(Flux.just(MessageBuilder.withPayload(event).build())));
+  }
+
+  private static List<Recommendation> recommendations(int productId, int firstId, int lastId) {
+    return IntStream.rangeClosed(firstId, lastId).mapToObj(id -> recommendation(productId, id)).toList();
+  }
+
+  private static Recommendation recommendation(int productId, int recommendationId) {
+    return new Recommendation(productId, recommendationId, "Author " + recommendationId, recommendationId,
+        "Content " + recommendationId, "SA");
+  }
+}
@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 
@@ -44,6 +45,23 @@ class PersistenceTests extends MongoDbTestBase {
     assertEquals(2, (long)repository.count().block());
   }
 
+  @Test
+  void getPageByProductId() {
+    repository.save(new RecommendationEntity(1, 3, "a", 3, "c")).block();
+    repository.save(new RecommendationEntity(1, 1, "a", 3, "c")).block();
+
+    List<RecommendationView> firstPage = repository
+        .findByProductIdAndRecommendationIdGreaterThanOrderByRecommendationIdAsc(1, 0, Limit.of(2)).collectList().block();
+    assertThat(firstPage, hasSize(2));
+    assertEquals(1, firstPage.get(0).getRecommendationId());
+    assertEquals(2, firstPage.get(1).getRecommendationId());
+
+    List<RecommendationView> secondPage = repository
+        .findByProductIdAndRecommendationIdGreaterThanOrderByRecommendationIdAsc(1, 2, Limit.of(2)).collectList().block();
+    assertThat(secondPage, hasSize(1));
+    assertEquals(3, secondPage.get(0).getRecommendationId());
+  }
+
   @Test
   void update() {
     savedEntity.setAuthor("a2");
@@ -0,0 +1,83 @@
+package com.example.microservices.core.recommendation.services;
+
+import com.example.api.core.recommendation.Recommendation;
+import com.example.api.event.Event;
+import com.example.microservices.core.recommendation.persistence.MongoDbTestBase;
+import com.example.microservices.core.recommendation.persistence.RecommendationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.EnableTestBinder;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static com.example.api.event.Event.Type.CREATE;
+import static com.example.api.event.Event.Type.DELETE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {"eureka.client.enabled=false"})
+@EnableTestBinder
+class RecommendationEventBatchWriterTests extends MongoDbTestBase {
+
+  @Autowired
+  private RecommendationRepository repository;
+  @Autowired
+  private RecommendationEventBatchWriter writer;
+
+  @BeforeEach
+  void setupDb() {
+    StepVerifier.create(repository.deleteAll()).verifyComplete();
+  }
+
+  @Test
+  void writesTheBatchAndReturnsTheFailedItems() {
+
+    StepVerifier.create(writer.write(List.of(
+            createEvent(1, 1),
+            Event.createBatch(1, List.of(recommendation(1, 2), recommendation(1, 1), recommendation(1, 3))),
+            createEvent(2, 1),
+            new Event<>(DELETE, 2, null),
+            createEvent(3, 1))))
+        .assertNext(failures -> assertThat(failures).singleElement().satisfies(failure -> {
+          assertThat(failure.event().eventType()).isEqualTo(CREATE);
+          assertThat(failure.event().key()).isEqualTo(1);
+          assertThat(failure.cause()).hasMessage("Duplicate key, Product Id: 1, Recommendation Id:1");
+        }))
+        .verifyComplete();
+
+    assertCount(1, 3);
+    assertCount(2, 0);
+    assertCount(3, 1);
+  }
+
+  @Test
+  void createsAgainAfterADeleteInTheSameBatch() {
+
+    StepVerifier.create(writer.write(List.of(
+            createEvent(1, 1),
+            new Event<>(DELETE, 1, null),
+            createEvent(1, 1))))
+        .expectNext(List.of())
+        .verifyComplete();
+
+    assertCount(1, 1);
+  }
+
+  private void assertCount(int productId, long expectedCount) {
+    StepVerifier.create(repository.findByProductId(productId).count())
+        .expectNext(expectedCount)
+        .verifyComplete();
+  }
+
+  private static Event<Integer, Recommendation> createEvent(int productId, int recommendationId) {
+    return new Event<>(CREATE, productId, recommendation(productId, recommendationId));
+  }
+
+  private static Recommendation recommendation(int productId, int recommendationId) {
+    return new Recommendation(productId, recommendationId, "Author " + recommendationId, recommendationId,
+        "Content " + recommendationId, "SA");
+  }
+}
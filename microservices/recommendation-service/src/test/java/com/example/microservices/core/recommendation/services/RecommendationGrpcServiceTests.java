@@ -0,0 +1,125 @@
+package com.example.microservices.core.recommendation.services;
+
+import com.example.api.core.recommendation.Recommendation;
+import com.example.api.core.recommendation.RecommendationService;
+import com.example.api.exception.InvalidInputException;
+import com.example.api.grpc.PageRequest;
+import com.example.api.grpc.ProductRequest;
+import com.example.api.grpc.ProductsRequest;
+import com.example.api.grpc.RecommendationMessage;
+import com.example.api.grpc.RecommendationServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecommendationGrpcServiceTests {
+  private final RecommendationService recommendationService = mock(RecommendationService.class);
+  private Server server;
+  private ManagedChannel channel;
+  private RecommendationServiceGrpc.RecommendationServiceBlockingStub stub;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    String name = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(name)
+        .addService(new RecommendationGrpcService(recommendationService))
+        .build()
+        .start();
+    channel = InProcessChannelBuilder.forName(name).build();
+    stub = RecommendationServiceGrpc.newBlockingStub(channel);
+  }
+
+  @AfterEach
+  void stopServer() {
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  void getRecommendations() {
+    when(recommendationService.getRecommendations(1))
+        .thenReturn(Flux.just(recommendation(1, 1), recommendation(1, 2)));
+
+    List<RecommendationMessage> messages = toList(
+        stub.getRecommendations(ProductRequest.newBuilder().setProductId(1).build()));
+
+    assertThat(messages).extracting(RecommendationMessage::getRecommendationId).containsExactly(1, 2);
+    assertThat(messages.getFirst().getProductId()).isEqualTo(1);
+    assertThat(messages.getFirst().getAuthor()).isEqualTo("Author 1");
+    assertThat(messages.getFirst().getRate()).isEqualTo(1);
+    assertThat(messages.getFirst().getContent()).isEqualTo("Content 1");
+    assertThat(messages.getFirst().getServiceAddress()).isEqualTo("address");
+  }
+
+  @Test
+  void getRecommendationsPage() {
+    when(recommendationService.getRecommendations(1, 1, 2))
+        .thenReturn(Flux.just(recommendation(1, 2), recommendation(1, 3)));
+
+    List<RecommendationMessage> messages = toList(stub.getRecommendationsPage(
+        PageRequest.newBuilder().setProductId(1).setAfter(1).setLimit(2).build()));
+
+    assertThat(messages).extracting(RecommendationMessage::getRecommendationId).containsExactly(2, 3);
+  }
+
+  @Test
+  void getRecommendationsBatch() {
+    when(recommendationService.getRecommendations(List.of(1, 2)))
+        .thenReturn(Flux.just(recommendation(1, 1), recommendation(2, 1)));
+
+    List<RecommendationMessage> messages = toList(stub.getRecommendationsBatch(
+        ProductsRequest.newBuilder().addAllProductIds(List.of(1, 2)).build()));
+
+    assertThat(messages).extracting(RecommendationMessage::getProductId).containsExactly(1, 2);
+  }
+
+  @Test
+  void getRecommendationsInvalidParameter() {
+    when(recommendationService.getRecommendations(-1))
+        .thenReturn(Flux.error(new InvalidInputException("Invalid productId: -1")));
+
+    assertThatThrownBy(() -> toList(stub.getRecommendations(ProductRequest.newBuilder().setProductId(-1).build())))
+        .isInstanceOfSatisfying(StatusRuntimeException.class, e -> {
+          assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+          assertThat(e.getStatus().getDescription()).isEqualTo("Invalid productId: -1");
+        });
+  }
+
+  @Test
+  void failsTheCallWhenTheStreamFails() {
+    when(recommendationService.getRecommendations(1)).thenReturn(Flux.concat(
+        Flux.just(recommendation(1, 1)), Flux.error(new IllegalStateException("Connection reset"))));
+
+    assertThatThrownBy(() -> toList(stub.getRecommendations(ProductRequest.newBuilder().setProductId(1).build())))
+        .isInstanceOfSatisfying(StatusRuntimeException.class,
+            e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INTERNAL));
+  }
+
+  private static List<RecommendationMessage> toList(Iterator<RecommendationMessage> messages) {
+    List<RecommendationMessage> list = new ArrayList<>();
+    messages.forEachRemaining(list::add);
+    return list;
+  }
+
+  private static Recommendation recommendation(int productId, int recommendationId) {
+    return new Recommendation(productId, recommendationId, "Author " + recommendationId, recommendationId,
+        "Content " + recommendationId, "address");
+  }
+}
@@ -0,0 +1,126 @@
+package com.example.microservices.core.review;
+
+import com.example.api.core.review.Review;
+import com.example.api.core.review.ReviewService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.stream.binder.test.EnableTestBinder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Latency and throughput of bursts of concurrent review reads, against Postgres in a container (Docker is
+ * required). The modes are JPA on the bounded elastic {@code jdbcScheduler}, JPA on virtual threads and R2DBC.
+ * Reads rejected by a full scheduler queue are counted as {@code failedReads} instead of failing the benchmark.
+ * Run with {@code ./gradlew :microservices:review-service:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReviewPersistenceBenchmark {
+  private static final int PRODUCTS = 100;
+  private static final int REVIEWS_PER_PRODUCT = 10;
+
+  @Param({"jpa", "jpa-virtual-threads", "r2dbc"})
+  public String mode;
+
+  @Param({"10", "100", "1000"})
+  public int concurrentReads;
+
+  private PostgreSQLContainer<?> database;
+  private ConfigurableApplicationContext context;
+  private ReviewService reviewService;
+
+  @Setup
+  public void setup() {
+    database = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16.3"));
+    database.start();
+
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("server.port", 0);
+    properties.put("eureka.client.enabled", false);
+    properties.put("management.tracing.enabled", false);
+    properties.put("spring.datasource.url", database.getJdbcUrl());
+    properties.put("spring.datasource.username", database.getUsername());
+    properties.put("spring.datasource.password", database.getPassword());
+    properties.put("spring.r2dbc.url", "r2dbc:postgresql://%s:%d/%s".formatted(database.getHost(),
+        database.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT), database.getDatabaseName()));
+    properties.put("app.jdbc.virtual-threads", "jpa-virtual-threads".equals(mode));
+    properties.put("logging.level.com.example.microservices", "WARN");
+    properties.put("logging.level.org.hibernate.SQL", "WARN");
+    properties.put("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN");
+    context = new SpringApplicationBuilder(ReviewServiceApplication.class, OfflineMessaging.class)
+        .profiles("r2dbc".equals(mode) ? new String[]{"r2dbc"} : new String[0])
+        .properties(properties)
+        .run();
+    reviewService = context.getBean(ReviewService.class);
+
+    Flux.range(1, PRODUCTS).concatMap(productId -> reviewService.createReviews(reviews(productId))).blockLast();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+    database.stop();
+  }
+
+  @Benchmark
+  public long concurrentReads(ReadFailures failures) {
+    return Flux.range(0, concurrentReads)
+        .flatMap(i -> reviewService.getReviews(1 + i % PRODUCTS).count()
+            .onErrorResume(e -> {
+              failures.failed.incrementAndGet();
+              return Mono.just(0L);
+            }), concurrentReads)
+        .reduce(0L, Long::sum)
+        .block();
+  }
+
+  private static List<Review> reviews(int productId) {
+    return IntStream.rangeClosed(1, REVIEWS_PER_PRODUCT)
+        .mapToObj(id -> new Review(productId, id, "Author " + id, "Subject " + id, "Content " + id, null))
+        .toList();
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ReadFailures {
+    private final AtomicLong failed = new AtomicLong();
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      failed.set(0);
+    }
+
+    public long failedReads() {
+      return failed.get();
+    }
+  }
+
+  /**
+   * Replaces the Kafka binder with the in-memory test binder, no events are sent by the benchmark.
+   */
+  @EnableTestBinder
+  static class OfflineMessaging {
+  }
+}
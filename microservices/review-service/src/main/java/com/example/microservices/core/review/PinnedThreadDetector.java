@@ -0,0 +1,87 @@
+package com.example.microservices.core.review;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier thread, e.g. in {@code synchronized} code of the
+ * JDBC driver or Hibernate. A pinned virtual thread holds one of the few carrier threads while it waits, so too
+ * many of them stall all virtual threads. The {@code jdk.VirtualThreadPinned} JFR events longer than
+ * {@code app.jdbc.pinned-threshold} are recorded as {@code jvm.threads.virtual.pinned}, tagged with the first
+ * frame outside the JDK, and the stack trace of each new location is logged once.
+ */
+@Component
+@ConditionalOnProperty(name = "app.jdbc.virtual-threads", havingValue = "true")
+@Slf4j
+public class PinnedThreadDetector {
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final String PINNED_METRIC = "jvm.threads.virtual.pinned";
+  private static final List<String> JDK_PACKAGES = List.of("java.", "javax.", "jdk.", "sun.");
+
+  private final MeterRegistry registry;
+  private final Duration threshold;
+  private final Set<String> loggedLocations = ConcurrentHashMap.newKeySet();
+  private RecordingStream stream;
+
+  public PinnedThreadDetector(MeterRegistry registry,
+                              @Value("${app.jdbc.pinned-threshold:20ms}") Duration threshold) {
+    this.registry = registry;
+    this.threshold = threshold;
+  }
+
+  @PostConstruct
+  void start() {
+    stream = new RecordingStream();
+    stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    stream.onEvent(PINNED_EVENT, this::pinned);
+    stream.startAsync();
+    log.info("Reports virtual threads pinned for longer than {}", threshold);
+  }
+
+  @PreDestroy
+  void stop() {
+    stream.close();
+  }
+
+  private void pinned(RecordedEvent event) {
+    RecordedStackTrace stackTrace = event.getStackTrace();
+    List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+    String location = frames.stream()
+        .filter(RecordedFrame::isJavaFrame)
+        .map(PinnedThreadDetector::frameName)
+        .filter(name -> JDK_PACKAGES.stream().noneMatch(name::startsWith))
+        .findFirst()
+        .orElse("unknown");
+
+    Timer.builder(PINNED_METRIC)
+        .description("Time virtual threads blocked while pinned to their carrier thread")
+        .tag("location", location)
+        .register(registry)
+        .record(event.getDuration());
+
+    if (loggedLocations.add(location)) {
+      log.warn("Virtual thread pinned for {} ms at {}:\n\t{}", event.getDuration().toMillis(), location,
+          frames.stream().map(PinnedThreadDetector::frameName).collect(Collectors.joining("\n\t")));
+    }
+  }
+
+  private static String frameName(RecordedFrame frame) {
+    return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+  }
+}
@@ -7,9 +7,14 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import reactor.core.Disposable;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
 @SpringBootApplication
 @ComponentScan("com.example")
 @Slf4j
@@ -21,10 +26,62 @@ public class ReviewServiceApplication {
 		log.info("Connected to PostgresDb: {}", postgresDbUrl);
 	}
 
-	@Bean
+	@Bean(destroyMethod = "dispose")
 	public Scheduler jdbcScheduler(@Value("${app.threadPoolSize:10}")Integer threadPoolSize,
-								   @Value("${app.taskQueueSize:100}")Integer taskQueueSize) {
+								   @Value("${app.taskQueueSize:100}")Integer taskQueueSize,
+								   @Value("${app.jdbc.virtual-threads:false}") boolean virtualThreads,
+								   @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxPoolSize) {
+		if (virtualThreads) {
+			log.info("Runs JDBC calls on virtual threads, at most {} at a time", maxPoolSize);
+			return virtualThreadScheduler(maxPoolSize);
+		}
 		return Schedulers.newBoundedElastic(threadPoolSize, taskQueueSize, "jdbc-pool");
 	}
 
+	/**
+	 * Runs each task on a new virtual thread. At most maxConcurrency tasks run at a time, one per connection of the
+	 * pool, the others wait for a permit on their virtual thread. Waiting tasks hold neither a platform thread nor a
+	 * connection and are not limited in number, unlike the queue of the bounded elastic scheduler.
+	 * <p>
+	 * Disposing the scheduler rejects new tasks and closes the executor, which waits for the tasks already accepted.
+	 */
+	static Scheduler virtualThreadScheduler(int maxConcurrency) {
+		Semaphore permits = new Semaphore(maxConcurrency, true);
+		ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("jdbc-vt-", 0).factory());
+		return new VirtualThreadScheduler(Schedulers.fromExecutor(task -> executor.execute(() -> {
+			permits.acquireUninterruptibly();
+			try {
+				task.run();
+			} finally {
+				permits.release();
+			}
+		})), executor);
+	}
+
+	/**
+	 * A scheduler from {@link Schedulers#fromExecutor} does not own its executor, this one closes it on dispose.
+	 */
+	private record VirtualThreadScheduler(Scheduler delegate, ExecutorService executor) implements Scheduler {
+
+		@Override
+		public Disposable schedule(Runnable task) {
+			return delegate.schedule(task);
+		}
+
+		@Override
+		public Worker createWorker() {
+			return delegate.createWorker();
+		}
+
+		@Override
+		public boolean isDisposed() {
+			return delegate.isDisposed();
+		}
+
+		@Override
+		public void dispose() {
+			delegate.dispose();
+			executor.close();
+		}
+	}
 }
@@ -0,0 +1,27 @@
+package com.example.microservices.core.review.persistence;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Non-blocking access to the {@code reviews} table, used in the {@code r2dbc} profile. The reads emit the rows as
+ * they are decoded from the result set.
+ */
+public interface ReactiveReviewRepository extends ReactiveCrudRepository<ReviewRow, Integer> {
+  Flux<ReviewView> findViewsByProductId(int productId);
+
+  Flux<ReviewView> findByProductIdAndReviewIdGreaterThanOrderByReviewIdAsc(int productId, int reviewId, Limit limit);
+
+  Flux<ReviewView> findByProductIdIn(Collection<Integer> productIds);
+
+  Mono<Long> countByProductId(int productId);
+
+  Mono<Long> deleteByProductId(int productId);
+
+  Mono<Long> deleteByProductIdIn(Set<Integer> productIds);
+}
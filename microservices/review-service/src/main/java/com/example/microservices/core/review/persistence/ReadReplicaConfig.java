@@ -0,0 +1,75 @@
+package com.example.microservices.core.review.persistence;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Replaces the data source of Spring Boot with a {@link ReadReplicaRoutingDataSource} when read replicas are
+ * configured in {@code app.datasource.replicas.urls}, e.g. hot standbys of the primary fed by streaming
+ * replication. The primary keeps the {@code spring.datasource} settings, each replica gets a pool of its own. The
+ * replicas are checked against the WAL position of the primary.
+ */
+@Configuration
+@Profile("!r2dbc")
+@ConditionalOnProperty("app.datasource.replicas.urls")
+public class ReadReplicaConfig {
+
+  // Only injected by name, the routing data source below is the data source of the application
+  @Bean(defaultCandidate = false)
+  HikariDataSource primaryDataSource(DataSourceProperties properties, Environment environment) {
+    HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+    return primary;
+  }
+
+  @Bean
+  ReadReplicas readReplicas(@Qualifier("primaryDataSource") HikariDataSource primary,
+                            @Value("${app.datasource.replicas.urls}") List<String> urls,
+                            @Value("${app.datasource.replicas.username:${spring.datasource.username}}") String username,
+                            @Value("${app.datasource.replicas.password:${spring.datasource.password}}") String password,
+                            @Value("${app.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize,
+                            @Value("${app.datasource.replicas.connection-timeout:2s}") Duration connectionTimeout,
+                            @Value("${app.datasource.replicas.max-lag:1s}") Duration maxLag,
+                            @Value("${app.datasource.replicas.check-interval:1s}") Duration checkInterval,
+                            MeterRegistry meterRegistry) {
+    List<HikariDataSource> pools = IntStream.range(0, urls.size()).mapToObj(i -> {
+      HikariConfig config = new HikariConfig();
+      config.setPoolName("replica-" + (i + 1));
+      config.setJdbcUrl(urls.get(i).trim());
+      config.setUsername(username);
+      config.setPassword(password);
+      config.setMaximumPoolSize(maximumPoolSize);
+      config.setConnectionTimeout(connectionTimeout.toMillis());
+      config.setReadOnly(true);
+      // The service starts without its replicas, they are used once their health check passes
+      config.setInitializationFailTimeout(-1);
+      config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+      return new HikariDataSource(config);
+    }).toList();
+    return new ReadReplicas(primary, pools, maxLag, checkInterval, meterRegistry);
+  }
+
+  @Bean
+  @Primary
+  DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary, ReadReplicas readReplicas) {
+    return new ReadReplicaRoutingDataSource(primary, readReplicas);
+  }
+}
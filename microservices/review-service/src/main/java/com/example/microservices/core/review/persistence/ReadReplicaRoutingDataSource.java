@@ -0,0 +1,47 @@
+package com.example.microservices.core.review.persistence;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * Sends the connections of read-only transactions, e.g. of the {@code @Transactional(readOnly = true)} methods of
+ * {@link ReviewRepository}, to an available read replica and all others to the primary. Read-only transactions
+ * use the primary as well while no replica is available.
+ * <p>
+ * The connection is fetched lazily, when the transaction runs its first statement. By then the transaction
+ * manager has marked the connection as read-only, which decides where it is fetched from.
+ */
+public class ReadReplicaRoutingDataSource extends LazyConnectionDataSourceProxy {
+
+  public ReadReplicaRoutingDataSource(DataSource primary, ReadReplicas replicas) {
+    setTargetDataSource(primary);
+    setReadOnlyDataSource(new ReplicaOrPrimary(primary, replicas));
+    afterPropertiesSet();
+  }
+
+  private static final class ReplicaOrPrimary extends AbstractDataSource {
+    private final DataSource primary;
+    private final ReadReplicas replicas;
+
+    private ReplicaOrPrimary(DataSource primary, ReadReplicas replicas) {
+      this.primary = primary;
+      this.replicas = replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      Connection connection = replicas.getConnection().orElse(null);
+      return connection != null ? connection : primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+      throw new SQLFeatureNotSupportedException("The read replicas use the credentials of their pools");
+    }
+  }
+}
@@ -0,0 +1,259 @@
+package com.example.microservices.core.review.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Connection pools of the read replicas of the review database, used by {@link ReadReplicaRoutingDataSource}.
+ * <p>
+ * Each replica is checked every {@code app.datasource.replicas.check-interval}. It is used while it answers, streams
+ * the WAL from the primary and its replay lag is at most {@code app.datasource.replicas.max-lag}, and not before its
+ * first check has passed. A replica has no lag when it has replayed all WAL the primary had written when the check
+ * started, otherwise its lag is the age of its last replayed transaction. The WAL it has received is not enough, a
+ * replica whose WAL receiver is stuck or disconnected has replayed all of it and still misses the latest writes.
+ * The replicas are reported by the health endpoint as {@code readReplicas}, the service stays up without them.
+ * <p>
+ * Reads that must see all writes committed before they start go through {@link #readCaughtUp}, they only use a
+ * replica that has replayed the WAL of the primary up to that point.
+ */
+@Slf4j
+public class ReadReplicas implements HealthIndicator {
+  private static final String PRIMARY_QUERY = "select pg_current_wal_lsn()";
+  // Whether the replica streams from the primary, whether it has replayed the WAL the primary had written when the
+  // check started, and the age of the last replayed transaction
+  private static final String REPLICA_QUERY = """
+      select pg_is_in_recovery(), (select status from pg_stat_wal_receiver),
+        pg_last_wal_replay_lsn() >= cast(? as pg_lsn),
+        extract(epoch from now() - pg_last_xact_replay_timestamp())""";
+  private static final String REPLAYED_QUERY = "select pg_last_wal_replay_lsn() >= cast(? as pg_lsn)";
+
+  private final DataSource primary;
+  private final List<Replica> replicas;
+  private final Duration maxLag;
+  private final Duration checkInterval;
+  private final Counter primaryFallbacks;
+  private final AtomicInteger next = new AtomicInteger();
+  // The WAL position a replica must have replayed to serve the reads of the current thread, see readCaughtUp
+  private final ThreadLocal<String> requiredLsn = new ThreadLocal<>();
+  private ScheduledExecutorService checker;
+
+  public ReadReplicas(DataSource primary, List<HikariDataSource> pools, Duration maxLag, Duration checkInterval,
+                      MeterRegistry registry) {
+    this.primary = primary;
+    this.replicas = pools.stream().map(Replica::new).toList();
+    this.maxLag = maxLag;
+    this.checkInterval = checkInterval;
+    this.primaryFallbacks = Counter.builder("app.datasource.replica.fallbacks")
+        .description("Read-only transactions sent to the primary because no replica was available or caught up")
+        .register(registry);
+    for (Replica replica : replicas) {
+      Gauge.builder("app.datasource.replica.lag", replica, r -> r.lagSeconds)
+          .description("Replay lag of the read replica at its last check")
+          .baseUnit("seconds")
+          .tag("replica", replica.name())
+          .register(registry);
+      Gauge.builder("app.datasource.replica.available", replica, r -> r.available ? 1 : 0)
+          .description("Whether read-only transactions are sent to the read replica")
+          .tag("replica", replica.name())
+          .register(registry);
+    }
+  }
+
+  @PostConstruct
+  void start() {
+    // One thread per replica, a replica that does not answer does not delay the checks of the others
+    checker = Executors.newScheduledThreadPool(replicas.size(), Thread.ofPlatform().name("replica-check-", 0)
+        .daemon().factory());
+    for (Replica replica : replicas) {
+      checker.scheduleWithFixedDelay(() -> check(replica), 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    log.info("Sends read-only transactions to {} read replicas with a replay lag of at most {}",
+        replicas.size(), maxLag);
+  }
+
+  @PreDestroy
+  void stop() {
+    checker.shutdownNow();
+    replicas.forEach(replica -> replica.pool.close());
+  }
+
+  /**
+   * Runs the read-only transactions of the read on a replica that has replayed all WAL the primary had written when
+   * the read started, or on the primary if none has. The read then sees every write committed before it, like a read
+   * of the primary, whatever the lag of the replicas. It costs a query of the WAL position of the primary.
+   */
+  public <T> T readCaughtUp(Supplier<T> read) {
+    try {
+      requiredLsn.set(primaryLsn());
+    } catch (SQLException e) {
+      throw new DataAccessResourceFailureException(e.getMessage(), e);
+    }
+    try {
+      return read.get();
+    } finally {
+      requiredLsn.remove();
+    }
+  }
+
+  /**
+   * Returns a connection to the next available replica, round robin, or empty when none is available. A replica
+   * that fails to give a connection is left out until its next successful check. Within {@link #readCaughtUp}, a
+   * replica that has not replayed the required WAL yet is skipped.
+   */
+  Optional<Connection> getConnection() {
+    List<Replica> available = replicas.stream().filter(replica -> replica.available).toList();
+    int start = Math.floorMod(next.getAndIncrement(), Math.max(available.size(), 1));
+    for (int i = 0; i < available.size(); i++) {
+      Replica replica = available.get((start + i) % available.size());
+      try {
+        Connection connection = replica.pool.getConnection();
+        if (hasReplayedRequiredLsn(connection)) {
+          return Optional.of(connection);
+        }
+        connection.close();
+      } catch (SQLException e) {
+        replica.update(false, e.toString());
+      }
+    }
+    primaryFallbacks.increment();
+    return Optional.empty();
+  }
+
+  private boolean hasReplayedRequiredLsn(Connection connection) throws SQLException {
+    String lsn = requiredLsn.get();
+    if (lsn == null) {
+      return true;
+    }
+    try (PreparedStatement statement = connection.prepareStatement(REPLAYED_QUERY)) {
+      statement.setString(1, lsn);
+      try (ResultSet result = statement.executeQuery()) {
+        result.next();
+        // Null on a server that is not a standby, which is kept in sync otherwise
+        boolean replayed = result.getBoolean(1);
+        return replayed || result.wasNull();
+      }
+    } catch (SQLException e) {
+      connection.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public Health health() {
+    Map<String, Object> details = new LinkedHashMap<>();
+    for (Replica replica : replicas) {
+      details.put(replica.name(), Map.of("available", replica.available, "lagSeconds", replica.lagSeconds,
+          "status", replica.status));
+    }
+    return Health.up().withDetails(details).build();
+  }
+
+  private void check(Replica replica) {
+    try {
+      String primaryLsn = primaryLsn();
+      try (Connection connection = replica.pool.getConnection();
+           PreparedStatement statement = connection.prepareStatement(REPLICA_QUERY)) {
+        statement.setQueryTimeout(queryTimeoutSeconds());
+        statement.setString(1, primaryLsn);
+        try (ResultSet result = statement.executeQuery()) {
+          result.next();
+          check(replica, result);
+        }
+      }
+    } catch (SQLException | RuntimeException e) {
+      replica.update(false, e.toString());
+    }
+  }
+
+  private void check(Replica replica, ResultSet result) throws SQLException {
+    boolean inRecovery = result.getBoolean(1);
+    String receiver = result.getString(2);
+    boolean caughtUp = result.getBoolean(3);
+    double replayAge = result.getDouble(4);
+    if (result.wasNull()) {
+      replayAge = Double.POSITIVE_INFINITY;
+    }
+    if (!inRecovery) {
+      // Not a standby, e.g. a copy of the primary that is kept in sync otherwise
+      replica.lagSeconds = 0;
+    } else if (!"streaming".equals(receiver)) {
+      // A replica that has lost its primary has replayed all it has received, but does not know what it misses
+      replica.lagSeconds = Double.NaN;
+      replica.update(false, "WAL receiver is " + (receiver == null ? "not running" : receiver));
+      return;
+    } else {
+      // Behind the primary by at least the age of its last replayed transaction
+      replica.lagSeconds = caughtUp ? 0 : replayAge;
+    }
+    boolean withinMaxLag = replica.lagSeconds * 1000 <= maxLag.toMillis();
+    replica.update(withinMaxLag, withinMaxLag ? "ok" : "replay lag of %.3f s".formatted(replica.lagSeconds));
+  }
+
+  private String primaryLsn() throws SQLException {
+    try (Connection connection = primary.getConnection(); Statement statement = connection.createStatement()) {
+      statement.setQueryTimeout(queryTimeoutSeconds());
+      try (ResultSet result = statement.executeQuery(PRIMARY_QUERY)) {
+        result.next();
+        return result.getString(1);
+      }
+    } catch (SQLException e) {
+      throw new SQLException("The WAL position of the primary could not be read: " + e.getMessage(), e);
+    }
+  }
+
+  private int queryTimeoutSeconds() {
+    return (int) Math.max(checkInterval.toSeconds(), 1);
+  }
+
+  private static final class Replica {
+    private final HikariDataSource pool;
+    private volatile boolean available;
+    private volatile double lagSeconds = Double.NaN;
+    private volatile String status = "not checked yet";
+    private boolean checked;
+
+    private Replica(HikariDataSource pool) {
+      this.pool = pool;
+    }
+
+    private String name() {
+      return pool.getPoolName();
+    }
+
+    private synchronized void update(boolean available, String status) {
+      if (available && !this.available) {
+        log.info("Read replica {} is available", name());
+      } else if (!available && (this.available || !checked)) {
+        log.warn("Read replica {} is not available, falls back to the primary: {}", name(), status);
+      }
+      this.available = available;
+      this.status = status;
+      this.checked = true;
+    }
+  }
+}
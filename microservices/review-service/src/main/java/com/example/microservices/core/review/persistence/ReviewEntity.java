@@ -3,12 +3,21 @@ package com.example.microservices.core.review.persistence;
 import jakarta.persistence.*;
 import lombok.Data;
 
+/**
+ * The ids come from {@value #ID_SEQUENCE} in blocks of {@value #ID_ALLOCATION_SIZE}, so a batch of inserts needs one
+ * sequence call per block and Hibernate can send the inserts as JDBC batches of {@code hibernate.jdbc.batch_size}.
+ */
 @Entity
 @Table(name = "reviews", indexes = {@Index(name = "reviews_unique_idx", unique = true,
     columnList = "productId,reviewId")})
 @Data
 public class ReviewEntity {
-  @Id @GeneratedValue
+  static final String ID_SEQUENCE = "review_entity_seq";
+  static final int ID_ALLOCATION_SIZE = 50;
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "review_id")
+  @SequenceGenerator(name = "review_id", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
   private int id;
   @Version
   private int version;
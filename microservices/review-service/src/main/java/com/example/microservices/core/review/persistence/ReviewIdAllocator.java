@@ -0,0 +1,62 @@
+package com.example.microservices.core.review.persistence;
+
+import org.reactivestreams.Publisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Gives new {@link ReviewRow}s an id from the sequence Hibernate uses for {@link ReviewEntity}, allocated the way
+ * Hibernate's pooled optimizer does: each value {@code n} read from the sequence reserves the ids
+ * {@code n - 49} to {@code n}. Rows written through R2DBC and through JPA therefore never get the same id, and the
+ * sequence is only read once per 50 rows.
+ */
+@Component
+@Profile("r2dbc")
+public class ReviewIdAllocator implements BeforeConvertCallback<ReviewRow> {
+  private final DatabaseClient databaseClient;
+  private long next = 1;
+  private long last = 0;
+
+  public ReviewIdAllocator(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  @Override
+  public Publisher<ReviewRow> onBeforeConvert(ReviewRow row, SqlIdentifier table) {
+    if (row.getId() != null) {
+      return Mono.just(row);
+    }
+    return nextId().map(id -> {
+      row.setId(id);
+      return row;
+    });
+  }
+
+  private Mono<Integer> nextId() {
+    return Mono.defer(() -> {
+      Integer id = take();
+      if (id != null) {
+        return Mono.just(id);
+      }
+      // Concurrent refills each reserve their own block, the remainder of the replaced block is left unused
+      return databaseClient.sql("SELECT nextval('" + ReviewEntity.ID_SEQUENCE + "')")
+          .map(row -> row.get(0, Long.class))
+          .one()
+          .map(this::refill);
+    });
+  }
+
+  private synchronized Integer take() {
+    return next <= last ? Math.toIntExact(next++) : null;
+  }
+
+  private synchronized int refill(long sequenceValue) {
+    next = Math.max(1, sequenceValue - ReviewEntity.ID_ALLOCATION_SIZE + 1);
+    last = sequenceValue;
+    return Math.toIntExact(next++);
+  }
+}
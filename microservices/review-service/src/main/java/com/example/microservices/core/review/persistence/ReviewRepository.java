@@ -1,11 +1,49 @@
 package com.example.microservices.core.review.persistence;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface ReviewRepository extends CrudRepository<ReviewEntity, Integer> {
   @Transactional(readOnly = true)
   List<ReviewEntity> findByProductId(int productId);
+
+  @Transactional(readOnly = true)
+  List<ReviewView> findViewsByProductId(int productId);
+
+  @Transactional(readOnly = true)
+  List<ReviewView> findByProductIdAndReviewIdGreaterThanOrderByReviewIdAsc(int productId, int reviewId, Limit limit);
+
+  @Transactional(readOnly = true)
+  List<ReviewView> findByProductIdIn(Collection<Integer> productIds);
+
+  @Transactional(readOnly = true)
+  long countByProductId(int productId);
+
+  /**
+   * Deletes the reviews of a product with a single statement, without loading them or checking their versions.
+   *
+   * @return the number of deleted reviews
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from ReviewEntity r where r.productId = :productId")
+  int deleteInBulkByProductId(@Param("productId") int productId);
+
+  /**
+   * Deletes the reviews of several products with a single statement, like {@link #deleteInBulkByProductId}.
+   *
+   * @return the number of deleted reviews
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from ReviewEntity r where r.productId in :productIds")
+  int deleteInBulkByProductIdIn(@Param("productIds") Set<Integer> productIds);
 }
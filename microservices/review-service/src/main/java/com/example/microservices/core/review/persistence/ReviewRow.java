@@ -0,0 +1,36 @@
+package com.example.microservices.core.review.persistence;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A row of the {@code reviews} table as read and written through R2DBC in the {@code r2dbc} profile, the same
+ * table and columns as {@link ReviewEntity}. The id is taken from the sequence of {@link ReviewEntity} by
+ * {@link ReviewIdAllocator} before the row is inserted.
+ */
+@Table("reviews")
+@Data
+public class ReviewRow {
+  @Id
+  private Integer id;
+  @Version
+  private Integer version;
+  private int productId;
+  private int reviewId;
+  private String author;
+  private String subject;
+  private String content;
+
+  public ReviewRow() {
+  }
+
+  public ReviewRow(int productId, int reviewId, String author, String subject, String content) {
+    this.productId = productId;
+    this.reviewId = reviewId;
+    this.author = author;
+    this.subject = subject;
+    this.content = content;
+  }
+}
@@ -0,0 +1,12 @@
+package com.example.microservices.core.review.persistence;
+
+/**
+ * Closed projection of {@link ReviewEntity} for read paths, only the columns exposed by the API are selected.
+ */
+public interface ReviewView {
+  int getProductId();
+  int getReviewId();
+  String getAuthor();
+  String getSubject();
+  String getContent();
+}
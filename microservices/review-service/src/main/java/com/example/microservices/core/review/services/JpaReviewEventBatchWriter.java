@@ -0,0 +1,106 @@
+package com.example.microservices.core.review.services;
+
+import com.example.api.core.review.Review;
+import com.example.api.event.Event;
+import com.example.api.exception.InvalidInputException;
+import com.example.microservices.core.review.persistence.ReviewRepository;
+import com.example.util.messaging.EventBatches;
+import com.example.util.messaging.EventFailure;
+import com.example.util.messaging.EventItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a batch of review events with JDBC batch inserts, see {@code hibernate.jdbc.batch_size}. A run of creates
+ * is saved in one transaction. If it is rolled back on a constraint violation, its reviews are saved one by one
+ * to tell the failing events from the others. A run of deletes is a single statement for all its products. Events
+ * that fail are returned with their cause. The cached reviews of all products in the batch are dropped on all
+ * instances once it has been written.
+ */
+@Component
+@Profile("!r2dbc")
+@Slf4j
+public class JpaReviewEventBatchWriter implements ReviewEventBatchWriter {
+  private final ReviewRepository repository;
+  private final ReviewMapper mapper;
+  private final ReviewCacheInvalidations cacheInvalidations;
+  private final Scheduler jdbcScheduler;
+
+  public JpaReviewEventBatchWriter(ReviewRepository repository, ReviewMapper mapper,
+                                ReviewCacheInvalidations cacheInvalidations,
+                                @Qualifier("jdbcScheduler") Scheduler jdbcScheduler) {
+    this.repository = repository;
+    this.mapper = mapper;
+    this.cacheInvalidations = cacheInvalidations;
+    this.jdbcScheduler = jdbcScheduler;
+  }
+
+  @Override
+  public Mono<List<EventFailure<Integer, Review>>> write(List<Event<Integer, Review>> events) {
+    return Mono.fromCallable(() -> internalWrite(events))
+        .subscribeOn(jdbcScheduler)
+        .doFinally(signal -> cacheInvalidations.invalidate(events.stream().map(Event::key).distinct().toList()));
+  }
+
+  private List<EventFailure<Integer, Review>> internalWrite(List<Event<Integer, Review>> events) {
+    List<EventFailure<Integer, Review>> failures = new ArrayList<>();
+    for (List<Event<Integer, Review>> run : EventBatches.runs(events)) {
+      if (EventBatches.isDelete(run.getFirst())) {
+        delete(run, failures);
+      } else {
+        insert(run, failures);
+      }
+    }
+    return failures;
+  }
+
+  private void insert(List<Event<Integer, Review>> run, List<EventFailure<Integer, Review>> failures) {
+    List<EventItem<Integer, Review>> items = new ArrayList<>();
+    run.stream().flatMap(EventItem::of).forEach(item -> {
+      if (item.body() == null || item.body().getProductId() < 1) {
+        failures.add(item.failed(new InvalidInputException(
+            "Invalid productId: " + (item.body() == null ? null : item.body().getProductId()))));
+      } else {
+        items.add(item);
+      }
+    });
+    if (items.isEmpty()) {
+      return;
+    }
+
+    try {
+      repository.saveAll(items.stream().map(item -> mapper.apiToEntity(item.body())).toList());
+      log.debug("Batch inserted {} reviews", items.size());
+    } catch (DataIntegrityViolationException e) {
+      log.debug("Batch insert of {} reviews rolled back, inserts them one by one: {}", items.size(), e.toString());
+      for (EventItem<Integer, Review> item : items) {
+        try {
+          repository.save(mapper.apiToEntity(item.body()));
+        } catch (DataIntegrityViolationException ex) {
+          failures.add(item.failed(new InvalidInputException(String.format(
+              "Duplicate key, Product Id: %d, Review Id: %d", item.body().getProductId(), item.body().getReviewId()))));
+        }
+      }
+    }
+  }
+
+  private void delete(List<Event<Integer, Review>> run, List<EventFailure<Integer, Review>> failures) {
+    Set<Integer> productIds = run.stream().map(Event::key).collect(Collectors.toSet());
+    try {
+      int deleted = repository.deleteInBulkByProductIdIn(productIds);
+      log.debug("Bulk deleted {} reviews of {} products", deleted, productIds.size());
+    } catch (RuntimeException e) {
+      run.forEach(event -> failures.add(new EventFailure<>(event, e)));
+    }
+  }
+}
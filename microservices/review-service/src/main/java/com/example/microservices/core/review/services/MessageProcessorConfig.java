@@ -3,11 +3,17 @@ package com.example.microservices.core.review.services;
 import com.example.api.core.review.Review;
 import com.example.api.core.review.ReviewService;
 import com.example.api.event.Event;
+import com.example.util.messaging.Acknowledgements;
+import com.example.util.messaging.BatchEventProcessor;
+import com.example.util.messaging.DeadLetterPublisher;
+import com.example.util.messaging.KeyOrderedEventProcessor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.function.Function;
 
@@ -15,15 +21,47 @@ import java.util.function.Function;
 @RequiredArgsConstructor
 @Slf4j
 public class MessageProcessorConfig {
+  private static final String INPUT_BINDING = "messageProcessor-in-0";
+
   private final ReviewService reviewService;
+  private final ReviewEventBatchWriter batchWriter;
+  private final DeadLetterPublisher deadLetterPublisher;
+  private final KeyOrderedEventProcessor keyOrderedProcessor;
+  private final BatchEventProcessor batchProcessor;
+  private final ReviewCache reviewCache;
+
+  @Bean
+  Function<Flux<Message<Event<Integer, Review>>>, Flux<Void>> messageProcessor() {
+    if (batchProcessor.isEnabled()) {
+      // A failing event is sent to the dead letter topic on its own, the rest of its batch is applied
+      return messages -> batchProcessor.process(messages, batchWriter,
+          failure -> deadLetterPublisher.publish(INPUT_BINDING, failure));
+    }
+    // Events of the same product are processed in order, events of different products concurrently. The
+    // processor records the propagation latency of each event it has processed, a failing event is sent to the
+    // dead letter topic without holding up the others
+    return messages -> keyOrderedProcessor.process(messages, this::processEvent,
+        failure -> deadLetterPublisher.publish(INPUT_BINDING, failure));
+  }
 
+  /**
+   * Every instance receives all cache invalidations, without a consumer group, and drops the cached reviews of their
+   * product. They are sent by the instance that has written the reviews, see {@link ReviewCacheInvalidations}.
+   */
   @Bean
-  Function<Flux<Event<Integer, Review>>, Flux<Void>> messageProcessor() {
-    return eventFlux -> eventFlux
-        .flatMap(event ->
-            switch (event.eventType()) {
-              case CREATE -> reviewService.createReview(event.data()).then();
-              case DELETE -> reviewService.deleteReviews(event.key());
-            });
+  Function<Flux<Message<Integer>>, Flux<Void>> reviewCacheInvalidator() {
+    return messages -> messages.concatMap(message -> Mono.<Void>fromRunnable(() -> {
+      log.debug("Invalidates cached reviews for productId: {}", message.getPayload());
+      reviewCache.invalidate(message.getPayload());
+      Acknowledgements.acknowledge(message);
+    }));
+  }
+
+  private Mono<Void> processEvent(Event<Integer, Review> event) {
+    return switch (event.eventType()) {
+      case CREATE -> reviewService.createReview(event.data()).then();
+      case CREATE_BATCH -> reviewService.createReviews(event.batch()).then();
+      case DELETE -> reviewService.deleteReviews(event.key());
+    };
   }
 }
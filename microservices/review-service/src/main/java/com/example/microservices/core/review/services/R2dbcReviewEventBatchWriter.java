@@ -0,0 +1,94 @@
+package com.example.microservices.core.review.services;
+
+import com.example.api.core.review.Review;
+import com.example.api.event.Event;
+import com.example.api.exception.InvalidInputException;
+import com.example.microservices.core.review.persistence.ReactiveReviewRepository;
+import com.example.util.messaging.EventBatches;
+import com.example.util.messaging.EventFailure;
+import com.example.util.messaging.EventItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a batch of review events through R2DBC, like {@link JpaReviewEventBatchWriter}: a run of creates is saved
+ * in one transaction and, if it is rolled back on a constraint violation, saved again one by one to tell the
+ * failing events from the others. A run of deletes is a single statement for all its products.
+ */
+@Component
+@Profile("r2dbc")
+@Slf4j
+public class R2dbcReviewEventBatchWriter implements ReviewEventBatchWriter {
+  private final ReactiveReviewRepository repository;
+  private final ReviewMapper mapper;
+  private final TransactionalOperator transactionalOperator;
+
+  public R2dbcReviewEventBatchWriter(ReactiveReviewRepository repository, ReviewMapper mapper,
+                                     TransactionalOperator transactionalOperator) {
+    this.repository = repository;
+    this.mapper = mapper;
+    this.transactionalOperator = transactionalOperator;
+  }
+
+  @Override
+  public Mono<List<EventFailure<Integer, Review>>> write(List<Event<Integer, Review>> events) {
+    List<EventFailure<Integer, Review>> failures = new ArrayList<>();
+    return Flux.fromIterable(EventBatches.runs(events))
+        .concatMap(run -> EventBatches.isDelete(run.getFirst()) ? delete(run, failures) : insert(run, failures))
+        .then(Mono.fromSupplier(() -> failures));
+  }
+
+  private Mono<Void> insert(List<Event<Integer, Review>> run, List<EventFailure<Integer, Review>> failures) {
+    List<EventItem<Integer, Review>> items = new ArrayList<>();
+    run.stream().flatMap(EventItem::of).forEach(item -> {
+      if (item.body() == null || item.body().getProductId() < 1) {
+        failures.add(item.failed(new InvalidInputException(
+            "Invalid productId: " + (item.body() == null ? null : item.body().getProductId()))));
+      } else {
+        items.add(item);
+      }
+    });
+    if (items.isEmpty()) {
+      return Mono.empty();
+    }
+
+    return repository.saveAll(items.stream().map(item -> mapper.apiToRow(item.body())).toList())
+        .as(transactionalOperator::transactional)
+        .then()
+        .doOnSuccess(ignored -> log.debug("Batch inserted {} reviews", items.size()))
+        .onErrorResume(DataIntegrityViolationException.class, e -> {
+          log.debug("Batch insert of {} reviews rolled back, inserts them one by one: {}", items.size(), e.toString());
+          return Flux.fromIterable(items)
+              .concatMap(item -> repository.save(mapper.apiToRow(item.body()))
+                  .then()
+                  .onErrorResume(DataIntegrityViolationException.class, ex -> {
+                    failures.add(item.failed(new InvalidInputException(String.format(
+                        "Duplicate key, Product Id: %d, Review Id: %d",
+                        item.body().getProductId(), item.body().getReviewId()))));
+                    return Mono.empty();
+                  }))
+              .then();
+        });
+  }
+
+  private Mono<Void> delete(List<Event<Integer, Review>> run, List<EventFailure<Integer, Review>> failures) {
+    Set<Integer> productIds = run.stream().map(Event::key).collect(Collectors.toSet());
+    return repository.deleteByProductIdIn(productIds)
+        .doOnNext(deleted -> log.debug("Bulk deleted {} reviews of {} products", deleted, productIds.size()))
+        .then()
+        .onErrorResume(RuntimeException.class, e -> {
+          run.forEach(event -> failures.add(new EventFailure<>(event, e)));
+          return Mono.empty();
+        });
+  }
+}
@@ -0,0 +1,122 @@
+package com.example.microservices.core.review.services;
+
+import com.example.api.core.review.Review;
+import com.example.api.core.review.ReviewService;
+import com.example.api.exception.InvalidInputException;
+import com.example.microservices.core.review.persistence.ReactiveReviewRepository;
+import com.example.util.http.ServiceUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Non-blocking variant of {@link ReviewServiceImpl}, active in the {@code r2dbc} profile. No thread is held while
+ * a query runs, so the number of concurrent queries is only bounded by the R2DBC connection pool, and reviews are
+ * emitted one by one as their rows are read instead of after the whole result has been loaded.
+ */
+@RestController
+@Profile("r2dbc")
+@RequiredArgsConstructor
+@Slf4j
+public class R2dbcReviewServiceImpl implements ReviewService {
+
+  private final ServiceUtil serviceUtil;
+  private final ReactiveReviewRepository repository;
+  private final ReviewMapper mapper;
+  private final TransactionalOperator transactionalOperator;
+
+  @Override
+  public Flux<Review> getReviews(int productId) {
+    if (productId < 1) {
+      throw new InvalidInputException("Invalid productId: " + productId);
+    }
+    log.info("Will get reviews for product with id={}", productId);
+    return repository.findViewsByProductId(productId)
+        .map(mapper::viewToApi)
+        .map(r -> r.setServiceAddress(serviceUtil.getServiceAddress()))
+        .log(log.getName(), Level.FINE);
+  }
+
+  @Override
+  public Flux<Review> getReviews(int productId, int after, int limit) {
+    if (productId < 1) {
+      throw new InvalidInputException("Invalid productId: " + productId);
+    }
+    if (limit < 1) {
+      throw new InvalidInputException("Invalid limit: " + limit);
+    }
+    log.info("Will get {} reviews after id={} for product with id={}", limit, after, productId);
+    return repository.findByProductIdAndReviewIdGreaterThanOrderByReviewIdAsc(productId, after, Limit.of(limit))
+        .map(mapper::viewToApi)
+        .map(r -> r.setServiceAddress(serviceUtil.getServiceAddress()))
+        .log(log.getName(), Level.FINE);
+  }
+
+  @Override
+  public Flux<Review> getReviews(List<Integer> productIds) {
+    productIds.stream().filter(productId -> productId < 1).findFirst().ifPresent(productId -> {
+      throw new InvalidInputException("Invalid productId: " + productId);
+    });
+    log.info("Will get reviews for products with ids={}", productIds);
+    return repository.findByProductIdIn(productIds)
+        .map(mapper::viewToApi)
+        .map(r -> r.setServiceAddress(serviceUtil.getServiceAddress()))
+        .log(log.getName(), Level.FINE);
+  }
+
+  @Override
+  public Mono<Long> countReviews(int productId) {
+    if (productId < 1) {
+      throw new InvalidInputException("Invalid productId: " + productId);
+    }
+    log.info("Will count reviews for product with id={}", productId);
+    return repository.countByProductId(productId)
+        .log(log.getName(), Level.FINE);
+  }
+
+  @Override
+  public Mono<Review> createReview(Review body) {
+    if (body.getProductId() < 1) {
+      throw new InvalidInputException("Invalid productId: " + body.getProductId());
+    }
+    return repository.save(mapper.apiToRow(body))
+        .doOnNext(row -> log.debug("createReview: created a review row: {}/{}", row.getProductId(), row.getReviewId()))
+        .map(mapper::rowToApi)
+        .onErrorMap(DataIntegrityViolationException.class, e -> new InvalidInputException(String.format(
+            "Duplicate key, Product Id: %d, Review Id: %d", body.getProductId(), body.getReviewId())));
+  }
+
+  @Override
+  public Flux<Review> createReviews(List<Review> body) {
+    body.stream().filter(review -> review.getProductId() < 1).findFirst().ifPresent(review -> {
+      throw new InvalidInputException("Invalid productId: " + review.getProductId());
+    });
+    // The whole batch is written in one transaction
+    return repository.saveAll(body.stream().map(mapper::apiToRow).toList())
+        .map(mapper::rowToApi)
+        .collectList()
+        .as(transactionalOperator::transactional)
+        .doOnNext(list -> log.debug("createReviews: created {} review rows", list.size()))
+        .flatMapMany(Flux::fromIterable)
+        .onErrorMap(DataIntegrityViolationException.class,
+            e -> new InvalidInputException("Duplicate key in a batch of " + body.size() + " reviews"));
+  }
+
+  @Override
+  public Mono<Void> deleteReviews(int productId) {
+    if (productId < 1) {
+      throw new InvalidInputException("Invalid productId: " + productId);
+    }
+    log.debug("deleteReview: tries to delete reviews for the product with productId: {}", productId);
+    return repository.deleteByProductId(productId).then();
+  }
+}
@@ -0,0 +1,93 @@
+package com.example.microservices.core.review.services;
+
+import com.example.api.core.review.Review;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of the reviews of a product, keyed by productId.
+ * <p>
+ * Entries are bounded by their estimated heap size, {@code app.review-cache.maximum-weight} in total, so a few
+ * products with many reviews cannot crowd out the rest. A hit is emitted on the calling thread, only a miss is
+ * loaded on the {@code jdbcScheduler}, once for all concurrent readers of the product. Entries are dropped on all
+ * instances once the reviews of their product have been written, see {@link ReviewCacheInvalidations}. They
+ * expire after {@code app.review-cache.time-to-live} as a last resort. Misses are only read from a read replica
+ * that has replayed the write that dropped the entry, otherwise from the primary database.
+ */
+@Component
+@Slf4j
+public class ReviewCache {
+  private static final String CACHE_NAME = "reviews";
+  // Rough heap sizes of a list and of a review without its strings, the strings count two bytes per character
+  private static final int LIST_WEIGHT = 64;
+  private static final int REVIEW_WEIGHT = 96;
+
+  private final boolean enabled;
+  private final AsyncCache<Integer, List<Review>> cache;
+
+  public ReviewCache(@Value("${app.review-cache.enabled:true}") boolean enabled,
+                     @Value("${app.review-cache.maximum-weight:32MB}") DataSize maximumWeight,
+                     @Value("${app.review-cache.time-to-live:60s}") Duration timeToLive,
+                     MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.cache = Caffeine.newBuilder()
+        .maximumWeight(maximumWeight.toBytes())
+        .weigher(ReviewCache::weigh)
+        .expireAfterWrite(timeToLive)
+        .recordStats()
+        .buildAsync();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+  }
+
+  public Flux<Review> get(int productId, Function<Integer, Flux<Review>> loader) {
+    if (!enabled) {
+      return loader.apply(productId);
+    }
+    // Cancellation of one subscriber must not cancel the load that concurrent callers are waiting for
+    return Mono.fromFuture(() -> cache.get(productId, (key, executor) -> load(key, loader)), true)
+        .flatMapMany(Flux::fromIterable);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void invalidate(int productId) {
+    cache.synchronous().invalidate(productId);
+  }
+
+  public void invalidateAll() {
+    cache.synchronous().invalidateAll();
+  }
+
+  private CompletableFuture<List<Review>> load(int productId, Function<Integer, Flux<Review>> loader) {
+    log.debug("Loads the reviews of productId: {} into the cache", productId);
+    return Flux.defer(() -> loader.apply(productId)).collectList().toFuture();
+  }
+
+  private static int weigh(Integer productId, List<Review> reviews) {
+    long weight = LIST_WEIGHT;
+    for (Review review : reviews) {
+      weight += REVIEW_WEIGHT + 2L * (length(review.getAuthor()) + length(review.getSubject())
+          + length(review.getContent()) + length(review.getServiceAddress()));
+    }
+    return (int) Math.min(weight, Integer.MAX_VALUE);
+  }
+
+  private static int length(String value) {
+    return value == null ? 0 : value.length();
+  }
+}
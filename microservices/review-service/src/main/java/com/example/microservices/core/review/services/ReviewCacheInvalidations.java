@@ -0,0 +1,42 @@
+package com.example.microservices.core.review.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Drops the cached reviews of products after their reviews have been written, on this instance right away and on
+ * the others through the {@code review-cache-invalidations} topic, see {@link MessageProcessorConfig}. Called once
+ * the write is committed, so no instance can read the old reviews into its cache after it has received the
+ * invalidation.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewCacheInvalidations {
+  static final String OUTPUT_BINDING = "reviewCacheInvalidations-out-0";
+
+  private final ReviewCache reviewCache;
+  private final StreamBridge streamBridge;
+
+  public void invalidate(int productId) {
+    invalidate(List.of(productId));
+  }
+
+  public void invalidate(Collection<Integer> productIds) {
+    productIds.forEach(reviewCache::invalidate);
+    if (!reviewCache.isEnabled()) {
+      return;
+    }
+    for (Integer productId : productIds) {
+      // The write is committed, a failed send leaves the other instances with their entry until it expires
+      if (!streamBridge.send(OUTPUT_BINDING, productId)) {
+        log.warn("Failed to send the cache invalidation of productId: {} to the other instances", productId);
+      }
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package com.example.microservices.core.review.services;
+
+import com.example.api.core.review.Review;
+import com.example.util.messaging.EventBatchWriter;
+
+/**
+ * Applies a batch of review events in as few statements as possible. {@link JpaReviewEventBatchWriter} is used by
+ * default, {@link R2dbcReviewEventBatchWriter} in the {@code r2dbc} profile.
+ */
+public interface ReviewEventBatchWriter extends EventBatchWriter<Integer, Review> {
+}
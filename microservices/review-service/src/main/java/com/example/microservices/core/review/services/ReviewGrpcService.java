@@ -0,0 +1,47 @@
+package com.example.microservices.core.review.services;
+
+import com.example.api.core.review.ReviewService;
+import com.example.api.grpc.CountMessage;
+import com.example.api.grpc.GrpcMessages;
+import com.example.api.grpc.PageRequest;
+import com.example.api.grpc.ProductRequest;
+import com.example.api.grpc.ProductsRequest;
+import com.example.api.grpc.ReviewMessage;
+import com.example.api.grpc.ReviewServiceGrpc;
+import com.example.util.grpc.GrpcStreams;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import net.devh.boot.grpc.server.service.GrpcService;
+
+/**
+ * gRPC endpoint of the review reads, reviews are streamed as they are read from the database.
+ */
+@GrpcService
+@RequiredArgsConstructor
+public class ReviewGrpcService extends ReviewServiceGrpc.ReviewServiceImplBase {
+  private final ReviewService reviewService;
+
+  @Override
+  public void getReviews(ProductRequest request, StreamObserver<ReviewMessage> responseObserver) {
+    GrpcStreams.serve(() -> reviewService.getReviews(request.getProductId()), GrpcMessages::toMessage,
+        responseObserver);
+  }
+
+  @Override
+  public void getReviewsPage(PageRequest request, StreamObserver<ReviewMessage> responseObserver) {
+    GrpcStreams.serve(() -> reviewService.getReviews(request.getProductId(), request.getAfter(), request.getLimit()),
+        GrpcMessages::toMessage, responseObserver);
+  }
+
+  @Override
+  public void getReviewsBatch(ProductsRequest request, StreamObserver<ReviewMessage> responseObserver) {
+    GrpcStreams.serve(() -> reviewService.getReviews(request.getProductIdsList()), GrpcMessages::toMessage,
+        responseObserver);
+  }
+
+  @Override
+  public void countReviews(ProductRequest request, StreamObserver<CountMessage> responseObserver) {
+    GrpcStreams.serve(() -> reviewService.countReviews(request.getProductId()), GrpcMessages::toCountMessage,
+        responseObserver);
+  }
+}
@@ -2,6 +2,8 @@ package com.example.microservices.core.review.services;
 
 import com.example.api.core.review.Review;
 import com.example.microservices.core.review.persistence.ReviewEntity;
+import com.example.microservices.core.review.persistence.ReviewRow;
+import com.example.microservices.core.review.persistence.ReviewView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
@@ -13,9 +15,25 @@ public interface ReviewMapper {
   })
   Review entityToApi(ReviewEntity entity);
 
+  @Mappings({
+      @Mapping(target = "serviceAddress", ignore = true)
+  })
+  Review viewToApi(ReviewView view);
+
   @Mappings({
       @Mapping(target = "id", ignore = true),
       @Mapping(target = "version", ignore = true)
   })
   ReviewEntity apiToEntity(Review api);
+
+  @Mappings({
+      @Mapping(target = "serviceAddress", ignore = true)
+  })
+  Review rowToApi(ReviewRow row);
+
+  @Mappings({
+      @Mapping(target = "id", ignore = true),
+      @Mapping(target = "version", ignore = true)
+  })
+  ReviewRow apiToRow(Review api);
 }
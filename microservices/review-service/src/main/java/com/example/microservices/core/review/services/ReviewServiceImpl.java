@@ -3,13 +3,17 @@ package com.example.microservices.core.review.services;
 import com.example.api.core.review.Review;
 import com.example.api.core.review.ReviewService;
 import com.example.api.exception.InvalidInputException;
+import com.example.microservices.core.review.persistence.ReadReplicas;
 import com.example.microservices.core.review.persistence.ReviewEntity;
 import com.example.microservices.core.review.persistence.ReviewRepository;
 import com.example.util.http.ServiceUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -18,8 +22,10 @@ import reactor.core.scheduler.Scheduler;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
+import java.util.stream.StreamSupport;
 
 @RestController
+@Profile("!r2dbc")
 @RequiredArgsConstructor
 @Slf4j
 public class ReviewServiceImpl implements ReviewService {
@@ -27,6 +33,9 @@ public class ReviewServiceImpl implements ReviewService {
   private final ServiceUtil serviceUtil;
   private final ReviewRepository repository;
   private final ReviewMapper mapper;
+  private final ReviewCache reviewCache;
+  private final ReviewCacheInvalidations cacheInvalidations;
+  private final ObjectProvider<ReadReplicas> readReplicas;
   @Qualifier("jdbcScheduler")
   private final Scheduler jdbcScheduler;
 
@@ -36,27 +45,94 @@ public class ReviewServiceImpl implements ReviewService {
       throw new InvalidInputException("Invalid productId: " + productId);
     }
     log.info("Will get reviews for product with id={}", productId);
-    return Mono.fromCallable(() -> internalGetReview(productId))
+    // Only a cache miss is read on the jdbcScheduler
+    return reviewCache.get(productId, id -> Mono.fromCallable(() -> loadReviews(id))
+            .flatMapMany(Flux::fromIterable)
+            .subscribeOn(jdbcScheduler))
+        .log(log.getName(), Level.FINE);
+  }
+
+  private List<Review> loadReviews(int productId) {
+    ReadReplicas replicas = readReplicas.getIfAvailable();
+    if (!reviewCache.isEnabled() || replicas == null) {
+      return internalGetReview(productId);
+    }
+    // Writes evict the entry once they are committed, a read replica that has not replayed them yet would fill the
+    // cache with the old reviews until they expire. Misses only read a replica that has caught up with the primary
+    return replicas.readCaughtUp(() -> internalGetReview(productId));
+  }
+
+  private List<Review> internalGetReview(int productId) {
+    List<Review> list = repository.findViewsByProductId(productId).stream()
+        .map(mapper::viewToApi)
+        .map(r -> r.setServiceAddress(serviceUtil.getServiceAddress()))
+        .toList();
+    log.debug("/reviews response size: {}", list.size());
+    return list;
+  }
+
+  @Override
+  public Flux<Review> getReviews(int productId, int after, int limit) {
+    if (productId < 1) {
+      throw new InvalidInputException("Invalid productId: " + productId);
+    }
+    if (limit < 1) {
+      throw new InvalidInputException("Invalid limit: " + limit);
+    }
+    log.info("Will get {} reviews after id={} for product with id={}", limit, after, productId);
+    return Mono.fromCallable(() -> internalGetReviewPage(productId, after, limit))
         .flatMapMany(Flux::fromIterable)
         .log(log.getName(), Level.FINE)
         .subscribeOn(jdbcScheduler);
   }
 
-  private List<Review> internalGetReview(int productId) {
-    List<Review> list = repository.findByProductId(productId).stream()
-        .map(mapper::entityToApi)
+  private List<Review> internalGetReviewPage(int productId, int after, int limit) {
+    return repository.findByProductIdAndReviewIdGreaterThanOrderByReviewIdAsc(productId, after, Limit.of(limit)).stream()
+        .map(mapper::viewToApi)
+        .map(r -> r.setServiceAddress(serviceUtil.getServiceAddress()))
+        .toList();
+  }
+
+  @Override
+  public Flux<Review> getReviews(List<Integer> productIds) {
+    productIds.stream().filter(productId -> productId < 1).findFirst().ifPresent(productId -> {
+      throw new InvalidInputException("Invalid productId: " + productId);
+    });
+    log.info("Will get reviews for products with ids={}", productIds);
+    return Mono.fromCallable(() -> internalGetReviews(productIds))
+        .flatMapMany(Flux::fromIterable)
+        .log(log.getName(), Level.FINE)
+        .subscribeOn(jdbcScheduler);
+  }
+
+  private List<Review> internalGetReviews(List<Integer> productIds) {
+    List<Review> list = repository.findByProductIdIn(productIds).stream()
+        .map(mapper::viewToApi)
         .map(r -> r.setServiceAddress(serviceUtil.getServiceAddress()))
         .toList();
     log.debug("/reviews response size: {}", list.size());
     return list;
   }
 
+  @Override
+  public Mono<Long> countReviews(int productId) {
+    if (productId < 1) {
+      throw new InvalidInputException("Invalid productId: " + productId);
+    }
+    log.info("Will count reviews for product with id={}", productId);
+    return Mono.fromCallable(() -> repository.countByProductId(productId))
+        .log(log.getName(), Level.FINE)
+        .subscribeOn(jdbcScheduler);
+  }
+
   @Override
   public Mono<Review> createReview(Review body) {
     if (body.getProductId() < 1) {
       throw new InvalidInputException("Invalid productId: " + body.getProductId());
     }
-    return Mono.fromCallable(() -> internalCreateReview(body)).subscribeOn(jdbcScheduler);
+    return Mono.fromCallable(() -> internalCreateReview(body))
+        .subscribeOn(jdbcScheduler)
+        .doFinally(signal -> cacheInvalidations.invalidate(body.getProductId()));
   }
 
   private Review internalCreateReview(Review body) {
@@ -79,16 +155,45 @@ public class ReviewServiceImpl implements ReviewService {
     }
   }
 
+  @Override
+  public Flux<Review> createReviews(List<Review> body) {
+    body.stream().filter(review -> review.getProductId() < 1).findFirst().ifPresent(review -> {
+      throw new InvalidInputException("Invalid productId: " + review.getProductId());
+    });
+    return Mono.fromCallable(() -> internalCreateReviews(body))
+        .subscribeOn(jdbcScheduler)
+        .doFinally(signal -> cacheInvalidations.invalidate(body.stream().map(Review::getProductId).distinct().toList()))
+        .flatMapMany(Flux::fromIterable);
+  }
+
+  private List<Review> internalCreateReviews(List<Review> body) {
+    try {
+      // saveAll writes the whole batch in one transaction
+      Iterable<ReviewEntity> newEntities = repository.saveAll(body.stream().map(mapper::apiToEntity).toList());
+      List<Review> list = StreamSupport.stream(newEntities.spliterator(), false)
+          .map(mapper::entityToApi)
+          .toList();
+      log.debug("createReviews: created {} review entities", list.size());
+      return list;
+    } catch (DataIntegrityViolationException e) {
+      throw new InvalidInputException("Duplicate key in a batch of " + body.size() + " reviews");
+    }
+  }
+
   @Override
   public Mono<Void> deleteReviews(int productId) {
     if (productId < 1) {
       throw new InvalidInputException("Invalid productId: " + productId);
     }
     log.debug("deleteReview: tries to delete reviews for the product with productId: {}", productId);
-    return Mono.fromRunnable(() -> internalDeleteReviews(productId)).subscribeOn(jdbcScheduler).then();
+    return Mono.fromRunnable(() -> internalDeleteReviews(productId))
+        .subscribeOn(jdbcScheduler)
+        .doFinally(signal -> cacheInvalidations.invalidate(productId))
+        .then();
   }
 
   private void internalDeleteReviews(int productId) {
-    repository.deleteAll(repository.findByProductId(productId));
+    int deleted = repository.deleteInBulkByProductId(productId);
+    log.debug("deleteReviews: deleted {} reviews of the product with productId: {}", deleted, productId);
   }
 }
@@ -0,0 +1,14 @@
+-- The schema Hibernate generates for ReviewEntity
+CREATE SEQUENCE IF NOT EXISTS review_entity_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS reviews (
+  id integer NOT NULL PRIMARY KEY,
+  version integer NOT NULL,
+  product_id integer NOT NULL,
+  review_id integer NOT NULL,
+  author varchar(255),
+  subject varchar(255),
+  content varchar(255)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS reviews_unique_idx ON reviews (product_id, review_id);
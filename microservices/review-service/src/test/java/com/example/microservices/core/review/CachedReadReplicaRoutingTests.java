@@ -0,0 +1,164 @@
+package com.example.microservices.core.review;
+
+import com.example.api.core.review.Review;
+import com.example.api.event.Event;
+import com.example.microservices.core.review.persistence.PrimaryReplicaTestBase;
+import com.example.microservices.core.review.persistence.ReviewRepository;
+import com.example.microservices.core.review.services.ReviewCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.EnableTestBinder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.example.api.event.Event.Type.CREATE;
+import static com.example.api.event.Event.Type.DELETE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * The review cache in front of a read replica. The replica is kept in use while its replay is paused, so every read
+ * it serves misses the writes that follow the pause. Cache misses are only read from the replica once it has caught
+ * up, the reads sent to the primary instead are counted as fallbacks.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {
+    "app.review-cache.enabled=true",
+    "app.datasource.replicas.max-lag=1h",
+    "app.datasource.replicas.check-interval=200ms"})
+@ActiveProfiles("test")
+@EnableTestBinder
+class CachedReadReplicaRoutingTests extends PrimaryReplicaTestBase {
+  private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+  @Autowired
+  private WebTestClient client;
+  @Autowired
+  private ReviewRepository repository;
+  @Autowired
+  private ReviewCache reviewCache;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+  @Autowired
+  private MeterRegistry meterRegistry;
+  @Autowired
+  private Function<Flux<Message<Event<Integer, Review>>>, Flux<Void>> messageProcessor;
+
+  @DynamicPropertySource
+  static void replicaProperties(DynamicPropertyRegistry registry) {
+    registry.add("app.datasource.replicas.urls", PrimaryReplicaTestBase::replicaJdbcUrl);
+  }
+
+  @BeforeEach
+  void setupDb() throws InterruptedException {
+    repository.deleteAll();
+    reviewCache.invalidateAll();
+    long deadline = System.nanoTime() + TIMEOUT.toNanos();
+    while (!isOnReplica()) {
+      assertThat(System.nanoTime()).as("replica in use within %s", TIMEOUT).isLessThan(deadline);
+      Thread.sleep(100);
+    }
+  }
+
+  @Test
+  void loadsCacheMissesFromThePrimaryWhileTheReplicaLagsBehind() throws Exception {
+    assertThat(getReviews(1)).isEmpty();
+
+    executeOnReplica("select pg_wal_replay_pause()");
+    try {
+      send(new Event<>(CREATE, 1, review(1, 1)));
+
+      // The replica still serves the other reads without the review
+      assertThat(isOnReplica()).isTrue();
+      assertThat(getReviewPage(1)).isEmpty();
+      double fallbacks = fallbacks();
+      assertThat(getReviews(1)).hasSize(1);
+      assertThat(fallbacks()).isGreaterThan(fallbacks);
+
+      send(new Event<>(DELETE, 1, null));
+
+      assertThat(getReviews(1)).isEmpty();
+    } finally {
+      executeOnReplica("select pg_wal_replay_resume()");
+    }
+  }
+
+  @Test
+  void loadsCacheMissesFromTheReplicaOnceItHasCaughtUp() throws InterruptedException {
+    send(new Event<>(CREATE, 1, review(1, 1)));
+    long deadline = System.nanoTime() + TIMEOUT.toNanos();
+    while (getReviewPage(1).isEmpty()) {
+      assertThat(System.nanoTime()).as("review replayed within %s", TIMEOUT).isLessThan(deadline);
+      Thread.sleep(100);
+    }
+
+    double fallbacks = fallbacks();
+    assertThat(getReviews(1)).hasSize(1);
+    assertThat(fallbacks()).isEqualTo(fallbacks);
+  }
+
+  @Test
+  void cachesTheReviewsReadFromThePrimary() {
+    send(new Event<>(CREATE, 1, review(1, 1)));
+    assertThat(getReviews(1)).hasSize(1);
+
+    // Written behind the back of the cache, the cached reviews are returned until the entry is dropped
+    jdbcTemplate.update("delete from reviews where product_id = 1");
+    assertThat(getReviews(1)).hasSize(1);
+
+    reviewCache.invalidate(1);
+    assertThat(getReviews(1)).isEmpty();
+  }
+
+  private boolean isOnReplica() {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.setReadOnly(true);
+    return Boolean.TRUE.equals(transaction.execute(
+        status -> jdbcTemplate.queryForObject("select pg_is_in_recovery()", Boolean.class)));
+  }
+
+  private double fallbacks() {
+    return meterRegistry.get("app.datasource.replica.fallbacks").counter().count();
+  }
+
+  private List<Review> getReviews(int productId) {
+    return get("/review?productId=" + productId);
+  }
+
+  private List<Review> getReviewPage(int productId) {
+    return get("/review?productId=" + productId + "&limit=10");
+  }
+
+  private List<Review> get(String uri) {
+    return client.get().uri(uri).accept(APPLICATION_JSON).exchange()
+        .expectStatus().isOk()
+        .expectBodyList(Review.class)
+        .returnResult()
+        .getResponseBody();
+  }
+
+  private void send(Event<Integer, Review> event) {
+    messageProcessor.apply(Flux.just(MessageBuilder.withPayload(event).build())).blockLast();
+  }
+
+  private static Review review(int productId, int reviewId) {
+    return new Review(productId, reviewId, "Author " + reviewId, "Subject " + reviewId, "Content " + reviewId, "SA");
+  }
+}
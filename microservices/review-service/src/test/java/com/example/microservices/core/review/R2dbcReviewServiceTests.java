@@ -0,0 +1,125 @@
+package com.example.microservices.core.review;
+
+import com.example.api.core.review.Review;
+import com.example.api.event.Event;
+import com.example.microservices.core.review.persistence.PostgresSQLTestBase;
+import com.example.microservices.core.review.persistence.ReactiveReviewRepository;
+import com.example.microservices.core.review.persistence.ReviewRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.EnableTestBinder;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static com.example.api.event.Event.Type.CREATE;
+import static com.example.api.event.Event.Type.DELETE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@ActiveProfiles({"test", "r2dbc"})
+@EnableTestBinder
+class R2dbcReviewServiceTests extends PostgresSQLTestBase {
+  @Autowired
+  private WebTestClient client;
+  @Autowired
+  private ReactiveReviewRepository repository;
+  @Autowired
+  private Function<Flux<Message<Event<Integer, Review>>>, Flux<Void>> messageProcessor;
+  @Autowired
+  private OutputDestination outputDestination;
+
+  @BeforeEach
+  void setupDb() {
+    repository.deleteAll().block();
+    outputDestination.clear();
+  }
+
+  @Test
+  void getReviewsByProductId() {
+    send(Event.createBatch(1, reviews(1, 3))).verifyComplete();
+    send(new Event<>(CREATE, 2, review(2, 1))).verifyComplete();
+
+    client.get().uri("/review?productId=1").accept(APPLICATION_JSON).exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.length()").isEqualTo(3)
+        .jsonPath("$[2].reviewId").isEqualTo(3)
+        .jsonPath("$[2].serviceAddress").isNotEmpty();
+
+    client.get().uri("/review?productIds=1,2").accept(APPLICATION_JSON).exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.length()").isEqualTo(4);
+
+    client.get().uri("/review?productId=1&after=1&limit=1").accept(APPLICATION_JSON).exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.length()").isEqualTo(1)
+        .jsonPath("$[0].reviewId").isEqualTo(2);
+  }
+
+  @Test
+  void duplicateError() {
+    send(new Event<>(CREATE, 1, review(1, 1))).verifyComplete();
+
+    send(new Event<>(CREATE, 1, review(1, 1))).verifyComplete();
+    assertThat(receiveDeadLetterMessage()).isEqualTo("Duplicate key, Product Id: 1, Review Id: 1");
+
+    StepVerifier.create(repository.count()).expectNext(1L).verifyComplete();
+  }
+
+  @Test
+  void createsLargeBatchesWithUniqueIds() {
+    // More reviews than ids are reserved with one read of the sequence
+    send(Event.createBatch(1, reviews(1, 120))).verifyComplete();
+
+    List<Integer> ids = repository.findAll().map(ReviewRow::getId).collectList().block();
+    assertThat(ids).hasSize(120).doesNotHaveDuplicates().allMatch(id -> id > 0);
+
+    send(Event.createBatch(1, reviews(1, 3))).verifyComplete();
+    assertThat(receiveDeadLetterMessage()).isEqualTo("Duplicate key in a batch of 3 reviews");
+    StepVerifier.create(repository.count()).expectNext(120L).verifyComplete();
+  }
+
+  @Test
+  void deleteReviews() {
+    send(Event.createBatch(1, reviews(1, 3))).verifyComplete();
+    send(new Event<>(CREATE, 2, review(2, 1))).verifyComplete();
+
+    send(new Event<>(DELETE, 1, null)).verifyComplete();
+    StepVerifier.create(repository.findViewsByProductId(1)).verifyComplete();
+    StepVerifier.create(repository.count()).expectNext(1L).verifyComplete();
+
+    send(new Event<>(DELETE, 1, null)).verifyComplete();
+  }
+
+  private StepVerifier.FirstStep<Void> send(Event<Integer, Review> event) {
+    return StepVerifier.create(messageProcessor.apply(Flux.just(MessageBuilder.withPayload(event).build())));
+  }
+
+  private String receiveDeadLetterMessage() {
+    Message<byte[]> message = outputDestination.receive(1000, "error.reviews.reviewGroup");
+    return message == null ? null : (String) message.getHeaders().get("x-exception-message");
+  }
+
+  private static List<Review> reviews(int productId, int count) {
+    return IntStream.rangeClosed(1, count).mapToObj(reviewId -> review(productId, reviewId)).toList();
+  }
+
+  private static Review review(int productId, int reviewId) {
+    return new Review(productId, reviewId, "Author " + reviewId, "Subject " + reviewId, "Content " + reviewId, "SA");
+  }
+}
@@ -0,0 +1,161 @@
+package com.example.microservices.core.review;
+
+import com.example.api.core.review.Review;
+import com.example.api.event.Event;
+import com.example.microservices.core.review.persistence.PrimaryReplicaTestBase;
+import com.example.microservices.core.review.persistence.ReviewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.EnableTestBinder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static com.example.api.event.Event.Type.CREATE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {
+    "app.review-cache.enabled=false",
+    "app.datasource.replicas.connection-timeout=500ms",
+    "app.datasource.replicas.max-lag=1s",
+    "app.datasource.replicas.check-interval=200ms"})
+@ActiveProfiles("test")
+@EnableTestBinder
+class ReadReplicaRoutingTests extends PrimaryReplicaTestBase {
+  private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+  @Autowired
+  private WebTestClient client;
+  @Autowired
+  private ReviewRepository repository;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+  @Autowired
+  private Function<Flux<Message<Event<Integer, Review>>>, Flux<Void>> messageProcessor;
+
+  @DynamicPropertySource
+  static void replicaProperties(DynamicPropertyRegistry registry) {
+    // The second replica does not exist, it is left out by the health checks
+    registry.add("app.datasource.replicas.urls", () -> replicaJdbcUrl() + ",jdbc:postgresql://localhost:1/test");
+  }
+
+  @BeforeEach
+  void setupDb() {
+    repository.deleteAll();
+    await(() -> isOnReplica(true));
+  }
+
+  @Test
+  void sendsReadOnlyTransactionsToTheReplica() {
+    assertThat(isOnReplica(true)).isTrue();
+    assertThat(isOnReplica(false)).isFalse();
+  }
+
+  @Test
+  void readsReviewsWrittenToThePrimaryFromTheReplica() {
+    send(new Event<>(CREATE, 1, review(1, 1)));
+
+    await(() -> countReviews(1) == 1);
+  }
+
+  @Test
+  void fallsBackToThePrimaryWhileTheReplicaLagsBehind() throws Exception {
+    executeOnReplica("select pg_wal_replay_pause()");
+    try {
+      send(new Event<>(CREATE, 1, review(1, 1)));
+
+      await(() -> !isOnReplica(true));
+      assertThat(countReviews(1)).isEqualTo(1);
+    } finally {
+      executeOnReplica("select pg_wal_replay_resume()");
+    }
+
+    await(() -> isOnReplica(true));
+    assertThat(countReviews(1)).isEqualTo(1);
+  }
+
+  @Test
+  void fallsBackToThePrimaryWhileTheReplicaDoesNotStream() throws Exception {
+    String primaryConninfo = queryOnReplica("show primary_conninfo");
+    // The replica stops its WAL receiver, it has replayed all it has received but misses the writes that follow
+    executeOnReplica("alter system set primary_conninfo = ''");
+    executeOnReplica("select pg_reload_conf()");
+    try {
+      await(() -> !isOnReplica(true));
+      send(new Event<>(CREATE, 1, review(1, 1)));
+      assertThat(countReviews(1)).isEqualTo(1);
+    } finally {
+      executeOnReplica("alter system set primary_conninfo = '" + primaryConninfo.replace("'", "''") + "'");
+      executeOnReplica("select pg_reload_conf()");
+    }
+
+    await(() -> isOnReplica(true));
+    assertThat(countReviews(1)).isEqualTo(1);
+  }
+
+  @Test
+  void reportsTheReplicasInTheHealthEndpoint() {
+    await(() -> isOnReplica(true));
+
+    client.get().uri("/actuator/health").accept(APPLICATION_JSON).exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.status").isEqualTo("UP")
+        .jsonPath("$.components.readReplicas.details['replica-1'].available").isEqualTo(true)
+        .jsonPath("$.components.readReplicas.details['replica-2'].available").isEqualTo(false);
+  }
+
+  private boolean isOnReplica(boolean readOnly) {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.setReadOnly(readOnly);
+    return Boolean.TRUE.equals(transaction.execute(
+        status -> jdbcTemplate.queryForObject("select pg_is_in_recovery()", Boolean.class)));
+  }
+
+  private int countReviews(int productId) {
+    return client.get().uri("/review?productId=" + productId).accept(APPLICATION_JSON).exchange()
+        .expectStatus().isOk()
+        .expectBodyList(Review.class)
+        .returnResult()
+        .getResponseBody()
+        .size();
+  }
+
+  private void send(Event<Integer, Review> event) {
+    messageProcessor.apply(Flux.just(MessageBuilder.withPayload(event).build())).blockLast();
+  }
+
+  private static void await(BooleanSupplier condition) {
+    long deadline = System.nanoTime() + TIMEOUT.toNanos();
+    while (!condition.getAsBoolean()) {
+      assertThat(System.nanoTime()).as("condition met within %s", TIMEOUT).isLessThan(deadline);
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private static Review review(int productId, int reviewId) {
+    return new Review(productId, reviewId, "Author " + reviewId, "Subject " + reviewId, "Content " + reviewId, "SA");
+  }
+}
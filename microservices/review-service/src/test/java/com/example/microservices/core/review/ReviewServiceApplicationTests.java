@@ -2,22 +2,30 @@ package com.example.microservices.core.review;
 
 import com.example.api.core.review.Review;
 import com.example.api.event.Event;
-import com.example.api.exception.InvalidInputException;
 import com.example.microservices.core.review.persistence.PostgresSQLTestBase;
+import com.example.microservices.core.review.persistence.ReviewEntity;
 import com.example.microservices.core.review.persistence.ReviewRepository;
+import com.example.microservices.core.review.services.ReviewCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cloud.stream.binder.test.EnableTestBinder;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
 import org.springframework.http.HttpStatus;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import static com.example.api.event.Event.Type.CREATE;
 import static com.example.api.event.Event.Type.DELETE;
@@ -31,16 +39,26 @@ import static reactor.core.publisher.Mono.just;
 @ActiveProfiles("test")
 @EnableTestBinder
 class ReviewServiceApplicationTests extends PostgresSQLTestBase {
+  private static final String CACHE_INVALIDATIONS = "review-cache-invalidations";
+
   @Autowired
   private WebTestClient client;
   @Autowired
   private ReviewRepository repository;
   @Autowired
-  private Function<Flux<Event<Integer, Review>>, Flux<Void>> messageProcessor;
+  private ReviewCache reviewCache;
+  @Autowired
+  private Function<Flux<Message<Event<Integer, Review>>>, Flux<Void>> messageProcessor;
+  @Autowired
+  private InputDestination inputDestination;
+  @Autowired
+  private OutputDestination outputDestination;
 
   @BeforeEach
   void setupDb() {
     repository.deleteAll();
+    reviewCache.invalidateAll();
+    outputDestination.clear();
   }
 
   @Test
@@ -63,6 +81,51 @@ class ReviewServiceApplicationTests extends PostgresSQLTestBase {
       .jsonPath("$[2].reviewId").isEqualTo(3);
   }
 
+  @Test
+  void getReviewsByProductIds() {
+
+    postAndVerifyReview(1, 1, OK);
+    postAndVerifyReview(1, 2, OK);
+    postAndVerifyReview(2, 1, OK);
+    postAndVerifyReview(3, 1, OK);
+
+    getAndVerifyReviewsByProductId("?productIds=1,2", OK)
+      .jsonPath("$.length()").isEqualTo(3);
+  }
+
+  @Test
+  void getReviewsPageByProductId() {
+
+    int productId = 1;
+    for (int reviewId = 1; reviewId <= 5; reviewId++) {
+      postAndVerifyReview(productId, reviewId, OK);
+    }
+
+    getAndVerifyReviewsByProductId("?productId=" + productId + "&limit=2", OK)
+      .jsonPath("$.length()").isEqualTo(2)
+      .jsonPath("$[0].reviewId").isEqualTo(1)
+      .jsonPath("$[1].reviewId").isEqualTo(2);
+
+    getAndVerifyReviewsByProductId("?productId=" + productId + "&after=4&limit=2", OK)
+      .jsonPath("$.length()").isEqualTo(1)
+      .jsonPath("$[0].reviewId").isEqualTo(5);
+  }
+
+  @Test
+  void countReviewsByProductId() {
+
+    postAndVerifyReview(1, 1, OK);
+    postAndVerifyReview(1, 2, OK);
+    postAndVerifyReview(2, 1, OK);
+
+    client.get()
+      .uri("/review/count?productId=1")
+      .accept(APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isEqualTo(OK)
+      .expectBody(Long.class).isEqualTo(2L);
+  }
+
   @Test
   void duplicateError() {
 
@@ -74,13 +137,30 @@ class ReviewServiceApplicationTests extends PostgresSQLTestBase {
     sendCreateProductEvent(productId, reviewId).verifyComplete();
     assertEquals(1, repository.count());
 
-    sendCreateProductEvent(productId, reviewId)
-        .verifyErrorMatches(ex -> ex instanceof InvalidInputException iie
-            && iie.getMessage().equals("Duplicate key, Product Id: 1, Review Id: 1"));
+    // The failing event is sent to the dead letter topic, the events after it are still processed
+    sendCreateProductEvent(productId, reviewId).verifyComplete();
+    assertEquals("Duplicate key, Product Id: 1, Review Id: 1", receiveDeadLetterMessage());
 
     assertEquals(1, repository.count());
   }
 
+  @Test
+  void createReviewsInBatch() {
+
+    int productId = 1;
+    List<Review> reviews = IntStream.rangeClosed(1, 3)
+        .mapToObj(reviewId -> new Review(productId, reviewId, "a", "s", "c", "SA"))
+        .toList();
+
+    StepVerifier.create(messageProcessor.apply(Flux.just(MessageBuilder.withPayload(Event.createBatch(productId, reviews)).build()))).verifyComplete();
+    assertEquals(3, repository.findByProductId(productId).size());
+
+    StepVerifier.create(messageProcessor.apply(Flux.just(MessageBuilder.withPayload(Event.createBatch(productId, reviews)).build())))
+        .verifyComplete();
+    assertEquals("Duplicate key in a batch of 3 reviews", receiveDeadLetterMessage());
+    assertEquals(3, repository.findByProductId(productId).size());
+  }
+
   @Test
   void deleteReviews() {
 
@@ -96,6 +176,47 @@ class ReviewServiceApplicationTests extends PostgresSQLTestBase {
     sendDeleteProductEvent(productId).verifyComplete();
   }
 
+  @Test
+  void getReviewsAfterCreateAndDeleteEvents() {
+
+    int productId = 1;
+
+    getAndVerifyReviewsByProductId(productId, OK).jsonPath("$.length()").isEqualTo(0);
+
+    sendCreateProductEvent(productId, 1).verifyComplete();
+    getAndVerifyReviewsByProductId(productId, OK).jsonPath("$.length()").isEqualTo(1);
+
+    sendDeleteProductEvent(productId).verifyComplete();
+    getAndVerifyReviewsByProductId(productId, OK).jsonPath("$.length()").isEqualTo(0);
+  }
+
+  @Test
+  void sendsCacheInvalidationsAfterWrites() {
+
+    int productId = 1;
+
+    sendCreateProductEvent(productId, 1).verifyComplete();
+    assertEquals("1", receiveCacheInvalidation());
+
+    sendDeleteProductEvent(productId).verifyComplete();
+    assertEquals("1", receiveCacheInvalidation());
+  }
+
+  @Test
+  void dropsCachedReviewsOnCacheInvalidationsOfOtherInstances() {
+
+    int productId = 1;
+
+    getAndVerifyReviewsByProductId(productId, OK).jsonPath("$.length()").isEqualTo(0);
+
+    // Written by another instance, the cached reviews are returned until its invalidation arrives
+    repository.save(new ReviewEntity(productId, 1, "Author 1", "Subject 1", "Content 1"));
+    getAndVerifyReviewsByProductId(productId, OK).jsonPath("$.length()").isEqualTo(0);
+
+    inputDestination.send(MessageBuilder.withPayload(productId).build(), CACHE_INVALIDATIONS);
+    getAndVerifyReviewsByProductId(productId, OK).jsonPath("$.length()").isEqualTo(1);
+  }
+
   @Test
   void getReviewsMissingParameter() {
 
@@ -164,15 +285,25 @@ class ReviewServiceApplicationTests extends PostgresSQLTestBase {
         .expectBody();
   }
 
+  private String receiveDeadLetterMessage() {
+    Message<byte[]> message = outputDestination.receive(1000, "error.reviews.reviewGroup");
+    return message == null ? null : (String) message.getHeaders().get("x-exception-message");
+  }
+
+  private String receiveCacheInvalidation() {
+    Message<byte[]> message = outputDestination.receive(1000, CACHE_INVALIDATIONS);
+    return message == null ? null : new String(message.getPayload(), StandardCharsets.UTF_8);
+  }
+
   private StepVerifier.FirstStep<Void> sendCreateProductEvent(int productId, int reviewId) {
     Review review = new Review(productId, reviewId, "Author " + reviewId, "Subject " + reviewId,
         "Content " + reviewId, "SA");
 
     Event<Integer, Review> event = new Event<>(CREATE, productId, review);
-    return StepVerifier.create(messageProcessor.apply(Flux.just(event)));
+    return StepVerifier.create(messageProcessor.apply(Flux.just(MessageBuilder.withPayload(event).build())));
   }
   private StepVerifier.FirstStep<Void> sendDeleteProductEvent(int productId) {
     Event<Integer, Review> event = new Event<>(DELETE, productId, null);
-    return StepVerifier.create(messageProcessor.apply(Flux.just(event)));
+    return StepVerifier.create(messageProcessor.apply(Flux.just(MessageBuilder.withPayload(event).build())));
   }
 }
@@ -0,0 +1,94 @@
+package com.example.microservices.core.review;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VirtualThreadExecutionTests {
+
+  @Test
+  void runsTasksOnVirtualThreadsWithBoundedConcurrency() {
+    Scheduler scheduler = ReviewServiceApplication.virtualThreadScheduler(3);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    List<Boolean> virtual = Flux.range(0, 50)
+        .flatMap(i -> Mono.fromCallable(() -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          Thread.sleep(10);
+          running.decrementAndGet();
+          return Thread.currentThread().isVirtual();
+        }).subscribeOn(scheduler))
+        .collectList()
+        .block(Duration.ofSeconds(10));
+
+    // All 50 tasks are accepted, more than a bounded elastic queue of this size would take
+    assertThat(virtual).hasSize(50).containsOnly(true);
+    assertThat(maxRunning.get()).isEqualTo(3);
+    scheduler.dispose();
+  }
+
+  @Test
+  void disposingTheSchedulerFinishesAcceptedTasksAndRejectsNewOnes() {
+    Scheduler scheduler = ReviewServiceApplication.virtualThreadScheduler(1);
+    AtomicInteger finished = new AtomicInteger();
+    for (int i = 0; i < 3; i++) {
+      scheduler.schedule(() -> {
+        sleep(10);
+        finished.incrementAndGet();
+      });
+    }
+
+    scheduler.dispose();
+
+    assertThat(scheduler.isDisposed()).isTrue();
+    assertThat(finished.get()).isEqualTo(3);
+    assertThatThrownBy(() -> scheduler.schedule(() -> {})).isInstanceOf(RejectedExecutionException.class);
+  }
+
+  @Test
+  void reportsPinnedVirtualThreads() throws InterruptedException {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    PinnedThreadDetector detector = new PinnedThreadDetector(registry, Duration.ofMillis(10));
+    detector.start();
+    try {
+      Object lock = new Object();
+      Thread.ofVirtual().start(() -> {
+        synchronized (lock) {
+          sleep(50);
+        }
+      }).join();
+
+      // JFR delivers the events to the stream about once a second
+      long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+      while (registry.find("jvm.threads.virtual.pinned").timer() == null && System.nanoTime() < deadline) {
+        Thread.sleep(100);
+      }
+
+      Timer pinned = registry.find("jvm.threads.virtual.pinned").timer();
+      assertThat(pinned).isNotNull();
+      assertThat(pinned.getId().getTag("location")).contains(VirtualThreadExecutionTests.class.getName());
+    } finally {
+      detector.stop();
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -1,6 +1,9 @@
 package com.example.microservices.core.review.persistence;
 
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +16,9 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Set;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
@@ -22,6 +28,8 @@ import static org.junit.jupiter.api.Assertions.*;
 public class PersistenceTests extends PostgresSQLTestBase {
   @Autowired
   private ReviewRepository repository;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
 
   private ReviewEntity savedEntity;
 
@@ -70,6 +78,40 @@ public class PersistenceTests extends PostgresSQLTestBase {
     Assertions.assertThat(repository.findByProductId(1)).hasSize(1).containsExactly(savedEntity);
   }
 
+  @Test
+  void batchInsertAndBulkDelete() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    statistics.clear();
+
+    // 120 inserts take three sequence calls and three JDBC batches
+    repository.saveAll(IntStream.rangeClosed(1, 120).mapToObj(reviewId -> new ReviewEntity(2, reviewId, "a", "s", "c"))
+        .toList());
+    assertTrue(statistics.getPrepareStatementCount() < 10, "Statements: " + statistics.getPrepareStatementCount());
+    assertEquals(121, repository.count());
+
+    statistics.clear();
+    assertEquals(120, repository.deleteInBulkByProductId(2));
+    assertEquals(1, statistics.getPrepareStatementCount());
+    assertEquals(1, repository.count());
+    assertEquals(0, repository.deleteInBulkByProductId(2));
+    statistics.setStatisticsEnabled(false);
+  }
+
+  @Test
+  void bulkDeleteOfSeveralProducts() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    repository.saveAll(IntStream.rangeClosed(2, 4).mapToObj(productId -> new ReviewEntity(productId, 1, "a", "s", "c"))
+        .toList());
+
+    statistics.clear();
+    assertEquals(3, repository.deleteInBulkByProductIdIn(Set.of(1, 2, 3)));
+    assertEquals(1, statistics.getPrepareStatementCount());
+    assertEquals(1, repository.findByProductId(4).size());
+    statistics.setStatisticsEnabled(false);
+  }
+
   @Test
   void duplicateError() {
     assertThrows(DataIntegrityViolationException.class, () -> {
@@ -20,6 +20,8 @@ public abstract class PostgresSQLTestBase {
     registry.add("spring.datasource.url", database::getJdbcUrl);
     registry.add("spring.datasource.username", database::getUsername);
     registry.add("spring.datasource.password", database::getPassword);
+    registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://%s:%d/%s".formatted(database.getHost(),
+        database.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT), database.getDatabaseName()));
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.example.microservices.core.review.persistence;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * A primary Postgres and a hot standby that streams the WAL of the primary, both in containers.
+ */
+public abstract class PrimaryReplicaTestBase {
+  private static final DockerImageName IMAGE = DockerImageName.parse("postgres:16.3");
+  private static final int PORT = PostgreSQLContainer.POSTGRESQL_PORT;
+  // Runs when the primary initializes its database
+  private static final String REPLICATION_SETUP = """
+      #!/bin/bash
+      set -e
+      psql -v ON_ERROR_STOP=1 -U "$POSTGRES_USER" -d "$POSTGRES_DB" \\
+        -c "create role replicator with replication login password 'replicator'"
+      echo "host replication replicator all scram-sha-256" >> "$PGDATA/pg_hba.conf"
+      """;
+  // Clones the primary, -R configures the clone to stream from the primary as a hot standby
+  private static final String REPLICA_START = """
+      until pg_basebackup -d "host=primary user=replicator password=replicator" -D /tmp/replica -R -X stream; do
+        rm -rf /tmp/replica; sleep 1
+      done
+      chmod 0700 /tmp/replica
+      exec postgres -D /tmp/replica
+      """;
+
+  private static final Network network = Network.newNetwork();
+
+  protected static final PostgreSQLContainer<?> primary = new PostgreSQLContainer<>(IMAGE)
+      .withNetwork(network)
+      .withNetworkAliases("primary")
+      .withCopyToContainer(Transferable.of(REPLICATION_SETUP, 0755), "/docker-entrypoint-initdb.d/replication.sh")
+      .withStartupTimeoutSeconds(300);
+
+  protected static final GenericContainer<?> replica = new GenericContainer<>(IMAGE)
+      .withNetwork(network)
+      .withExposedPorts(PORT)
+      .withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres"))
+      .withCommand("bash", "-c", REPLICA_START)
+      .dependsOn(primary)
+      .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*\\s", 1)
+          .withStartupTimeout(Duration.ofSeconds(300)));
+
+  static {
+    replica.start();
+  }
+
+  @DynamicPropertySource
+  static void databaseProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", primary::getJdbcUrl);
+    registry.add("spring.datasource.username", primary::getUsername);
+    registry.add("spring.datasource.password", primary::getPassword);
+  }
+
+  protected static String replicaJdbcUrl() {
+    return "jdbc:postgresql://%s:%d/%s".formatted(replica.getHost(), replica.getMappedPort(PORT),
+        primary.getDatabaseName());
+  }
+
+  /**
+   * Runs a statement on the replica, e.g. to pause the replay of the WAL.
+   */
+  protected static void executeOnReplica(String sql) throws SQLException {
+    try (Connection connection = DriverManager.getConnection(replicaJdbcUrl(), primary.getUsername(),
+        primary.getPassword()); Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  /**
+   * Runs a query on the replica and returns the first column of its first row, e.g. to read a setting.
+   */
+  protected static String queryOnReplica(String sql) throws SQLException {
+    try (Connection connection = DriverManager.getConnection(replicaJdbcUrl(), primary.getUsername(),
+        primary.getPassword()); Statement statement = connection.createStatement();
+        ResultSet result = statement.executeQuery(sql)) {
+      result.next();
+      return result.getString(1);
+    }
+  }
+}
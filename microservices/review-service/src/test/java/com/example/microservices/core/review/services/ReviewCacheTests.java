@@ -0,0 +1,99 @@
+package com.example.microservices.core.review.services;
+
+import com.example.api.core.review.Review;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReviewCacheTests {
+  private final AtomicInteger loads = new AtomicInteger();
+  private final Function<Integer, Flux<Review>> loader = productId -> {
+    loads.incrementAndGet();
+    return Flux.fromIterable(reviews(productId, 3, 10));
+  };
+
+  @Test
+  void loadsTheReviewsOfAProductOnce() {
+    ReviewCache cache = cache(true, DataSize.ofMegabytes(1));
+
+    StepVerifier.create(cache.get(1, loader)).expectNextCount(3).verifyComplete();
+    StepVerifier.create(cache.get(1, loader)).expectNextCount(3).verifyComplete();
+    StepVerifier.create(cache.get(2, loader)).expectNextCount(3).verifyComplete();
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  void reloadsTheReviewsOfAProductAfterItsInvalidation() {
+    ReviewCache cache = cache(true, DataSize.ofMegabytes(1));
+    cache.get(1, loader).blockLast();
+    cache.get(2, loader).blockLast();
+
+    cache.invalidate(1);
+    cache.get(1, loader).blockLast();
+    cache.get(2, loader).blockLast();
+
+    assertThat(loads.get()).isEqualTo(3);
+  }
+
+  @Test
+  void evictsWhenTheReviewsExceedTheMaximumWeight() {
+    // Room for about three products of 10 reviews with 1000 characters of content each
+    ReviewCache cache = cache(true, DataSize.ofKilobytes(64));
+    Function<Integer, Flux<Review>> largeLoader = productId -> {
+      loads.incrementAndGet();
+      return Flux.fromIterable(reviews(productId, 10, 1000));
+    };
+
+    IntStream.rangeClosed(1, 20).forEach(productId -> cache.get(productId, largeLoader).blockLast());
+    loads.set(0);
+    IntStream.rangeClosed(1, 20).forEach(productId -> cache.get(productId, largeLoader).blockLast());
+
+    assertThat(loads.get()).isGreaterThan(10);
+  }
+
+  @Test
+  void doesNotCacheWhenDisabled() {
+    ReviewCache cache = cache(false, DataSize.ofMegabytes(1));
+
+    cache.get(1, loader).blockLast();
+    cache.get(1, loader).blockLast();
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  void doesNotCacheFailedLoads() {
+    ReviewCache cache = cache(true, DataSize.ofMegabytes(1));
+    Function<Integer, Flux<Review>> failingLoader = productId -> {
+      loads.incrementAndGet();
+      return Flux.error(new IllegalStateException("Database unavailable"));
+    };
+
+    StepVerifier.create(cache.get(1, failingLoader)).verifyError(IllegalStateException.class);
+    StepVerifier.create(cache.get(1, loader)).expectNextCount(3).verifyComplete();
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  private static ReviewCache cache(boolean enabled, DataSize maximumWeight) {
+    return new ReviewCache(enabled, maximumWeight, Duration.ofMinutes(1), new SimpleMeterRegistry());
+  }
+
+  private static List<Review> reviews(int productId, int count, int contentLength) {
+    return IntStream.rangeClosed(1, count)
+        .mapToObj(reviewId -> new Review(productId, reviewId, "Author " + reviewId, "Subject " + reviewId,
+            "c".repeat(contentLength), "SA"))
+        .toList();
+  }
+}
@@ -0,0 +1,66 @@
+package com.example.microservices.core.review.services;
+
+import com.example.api.core.review.Review;
+import com.example.api.event.Event;
+import com.example.microservices.core.review.persistence.PostgresSQLTestBase;
+import com.example.microservices.core.review.persistence.ReviewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.EnableTestBinder;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static com.example.api.event.Event.Type.CREATE;
+import static com.example.api.event.Event.Type.DELETE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@ActiveProfiles("test")
+@EnableTestBinder
+class ReviewEventBatchWriterTests extends PostgresSQLTestBase {
+
+  @Autowired
+  private ReviewRepository repository;
+  @Autowired
+  private ReviewEventBatchWriter writer;
+
+  @BeforeEach
+  void setupDb() {
+    repository.deleteAll();
+  }
+
+  @Test
+  void writesTheBatchAndReturnsTheFailedItems() {
+
+    StepVerifier.create(writer.write(List.of(
+            createEvent(1, 1),
+            Event.createBatch(1, List.of(review(1, 2), review(1, 1), review(1, 3))),
+            createEvent(2, 1),
+            new Event<>(DELETE, 2, null),
+            createEvent(3, 1))))
+        .assertNext(failures -> assertThat(failures).singleElement().satisfies(failure -> {
+          assertThat(failure.event().eventType()).isEqualTo(CREATE);
+          assertThat(failure.event().key()).isEqualTo(1);
+          assertThat(failure.cause()).hasMessage("Duplicate key, Product Id: 1, Review Id: 1");
+        }))
+        .verifyComplete();
+
+    assertEquals(3, repository.findByProductId(1).size());
+    assertEquals(0, repository.findByProductId(2).size());
+    assertEquals(1, repository.findByProductId(3).size());
+  }
+
+  private Event<Integer, Review> createEvent(int productId, int reviewId) {
+    return new Event<>(CREATE, productId, review(productId, reviewId));
+  }
+
+  private Review review(int productId, int reviewId) {
+    return new Review(productId, reviewId, "Author " + reviewId, "Subject " + reviewId, "Content " + reviewId, "SA");
+  }
+}
@@ -0,0 +1,132 @@
+package com.example.microservices.core.review.services;
+
+import com.example.api.core.review.Review;
+import com.example.api.core.review.ReviewService;
+import com.example.api.exception.InvalidInputException;
+import com.example.api.grpc.CountMessage;
+import com.example.api.grpc.PageRequest;
+import com.example.api.grpc.ProductRequest;
+import com.example.api.grpc.ProductsRequest;
+import com.example.api.grpc.ReviewMessage;
+import com.example.api.grpc.ReviewServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReviewGrpcServiceTests {
+  private final ReviewService reviewService = mock(ReviewService.class);
+  private Server server;
+  private ManagedChannel channel;
+  private ReviewServiceGrpc.ReviewServiceBlockingStub stub;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    String name = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(name)
+        .addService(new ReviewGrpcService(reviewService))
+        .build()
+        .start();
+    channel = InProcessChannelBuilder.forName(name).build();
+    stub = ReviewServiceGrpc.newBlockingStub(channel);
+  }
+
+  @AfterEach
+  void stopServer() {
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  void getReviews() {
+    when(reviewService.getReviews(1)).thenReturn(Flux.just(review(1, 1), review(1, 2)));
+
+    List<ReviewMessage> messages = toList(stub.getReviews(ProductRequest.newBuilder().setProductId(1).build()));
+
+    assertThat(messages).extracting(ReviewMessage::getReviewId).containsExactly(1, 2);
+    assertThat(messages.getFirst().getProductId()).isEqualTo(1);
+    assertThat(messages.getFirst().getAuthor()).isEqualTo("Author 1");
+    assertThat(messages.getFirst().getSubject()).isEqualTo("Subject 1");
+    assertThat(messages.getFirst().getContent()).isEqualTo("Content 1");
+    assertThat(messages.getFirst().getServiceAddress()).isEqualTo("address");
+  }
+
+  @Test
+  void getReviewsPage() {
+    when(reviewService.getReviews(1, 1, 2)).thenReturn(Flux.just(review(1, 2), review(1, 3)));
+
+    List<ReviewMessage> messages = toList(stub.getReviewsPage(
+        PageRequest.newBuilder().setProductId(1).setAfter(1).setLimit(2).build()));
+
+    assertThat(messages).extracting(ReviewMessage::getReviewId).containsExactly(2, 3);
+  }
+
+  @Test
+  void getReviewsBatch() {
+    when(reviewService.getReviews(List.of(1, 2))).thenReturn(Flux.just(review(1, 1), review(2, 1)));
+
+    List<ReviewMessage> messages = toList(stub.getReviewsBatch(
+        ProductsRequest.newBuilder().addAllProductIds(List.of(1, 2)).build()));
+
+    assertThat(messages).extracting(ReviewMessage::getProductId).containsExactly(1, 2);
+  }
+
+  @Test
+  void countReviews() {
+    when(reviewService.countReviews(1)).thenReturn(Mono.just(3L));
+
+    CountMessage message = stub.countReviews(ProductRequest.newBuilder().setProductId(1).build());
+
+    assertThat(message.getCount()).isEqualTo(3);
+  }
+
+  @Test
+  void getReviewsInvalidParameter() {
+    when(reviewService.getReviews(-1))
+        .thenReturn(Flux.error(new InvalidInputException("Invalid productId: -1")));
+
+    assertThatThrownBy(() -> toList(stub.getReviews(ProductRequest.newBuilder().setProductId(-1).build())))
+        .isInstanceOfSatisfying(StatusRuntimeException.class, e -> {
+          assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+          assertThat(e.getStatus().getDescription()).isEqualTo("Invalid productId: -1");
+        });
+  }
+
+  @Test
+  void failsTheCallWhenTheStreamFails() {
+    when(reviewService.getReviews(1)).thenReturn(Flux.concat(
+        Flux.just(review(1, 1)), Flux.error(new IllegalStateException("Connection reset"))));
+
+    assertThatThrownBy(() -> toList(stub.getReviews(ProductRequest.newBuilder().setProductId(1).build())))
+        .isInstanceOfSatisfying(StatusRuntimeException.class,
+            e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INTERNAL));
+  }
+
+  private static List<ReviewMessage> toList(Iterator<ReviewMessage> messages) {
+    List<ReviewMessage> list = new ArrayList<>();
+    messages.forEachRemaining(list::add);
+    return list;
+  }
+
+  private static Review review(int productId, int reviewId) {
+    return new Review(productId, reviewId, "Author " + reviewId, "Subject " + reviewId, "Content " + reviewId,
+        "address");
+  }
+}
@@ -0,0 +1,134 @@
+package com.example.util.grpc;
+
+import com.example.api.exception.InvalidInputException;
+import com.example.api.exception.NotFoundException;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bridges Reactor and the gRPC stream observers. The api exceptions travel as gRPC status codes: a
+ * {@link NotFoundException} as {@code NOT_FOUND} and an {@link InvalidInputException} as {@code INVALID_ARGUMENT}.
+ */
+@Slf4j
+public final class GrpcStreams {
+
+  private GrpcStreams() {
+  }
+
+  /**
+   * Sends the elements of the publisher, mapped to messages, to the observer of a server call. The next element is
+   * only requested while the call is ready to send, so a slow client holds back the publisher instead of filling the
+   * buffers of the server. Cancelling the call cancels the subscription. The publisher is created when subscribed,
+   * so an exception the service method throws instead of returning it is sent as a status too.
+   */
+  public static <T, M> void serve(Supplier<? extends Publisher<T>> publisher, Function<T, M> toMessage,
+                                  StreamObserver<M> observer) {
+    Flux.defer(publisher)
+        .map(toMessage)
+        .subscribe(new ServerCallSubscriber<>((ServerCallStreamObserver<M>) observer));
+  }
+
+  /**
+   * Starts a call when subscribed, a unary call gives at most one element, cancelling the subscription cancels the call.
+   */
+  public static <M, T> Flux<T> call(Consumer<StreamObserver<M>> call, Function<M, T> toApi) {
+    return Flux.<M>create(sink -> call.accept(new ClientResponseObserver<Object, M>() {
+          @Override
+          public void beforeStart(ClientCallStreamObserver<Object> requestStream) {
+            sink.onCancel(() -> requestStream.cancel("Cancelled by the caller", null));
+          }
+
+          @Override
+          public void onNext(M message) {
+            sink.next(message);
+          }
+
+          @Override
+          public void onError(Throwable error) {
+            sink.error(fromStatus(error));
+          }
+
+          @Override
+          public void onCompleted() {
+            sink.complete();
+          }
+        }))
+        .map(toApi);
+  }
+
+  private static final class ServerCallSubscriber<M> extends BaseSubscriber<M> {
+    private final ServerCallStreamObserver<M> call;
+    // An element has been requested and not received yet
+    private final AtomicBoolean requested = new AtomicBoolean();
+
+    ServerCallSubscriber(ServerCallStreamObserver<M> call) {
+      this.call = call;
+      // The handlers can only be set while the service method runs, they take effect once subscribed
+      call.setOnCancelHandler(this::dispose);
+      call.setOnReadyHandler(this::requestWhenReady);
+    }
+
+    @Override
+    protected void hookOnSubscribe(Subscription subscription) {
+      requestWhenReady();
+    }
+
+    @Override
+    protected void hookOnNext(M message) {
+      requested.set(false);
+      call.onNext(message);
+      requestWhenReady();
+    }
+
+    @Override
+    protected void hookOnError(Throwable error) {
+      call.onError(toStatus(error));
+    }
+
+    @Override
+    protected void hookOnComplete() {
+      call.onCompleted();
+    }
+
+    private void requestWhenReady() {
+      if (upstream() != null && !isDisposed() && call.isReady() && requested.compareAndSet(false, true)) {
+        request(1);
+      }
+    }
+  }
+
+  private static StatusRuntimeException toStatus(Throwable error) {
+    Status status = switch (error) {
+      case NotFoundException ignored -> Status.NOT_FOUND;
+      case InvalidInputException ignored -> Status.INVALID_ARGUMENT;
+      default -> {
+        log.warn("Unexpected error in a gRPC call: {}", error.toString());
+        yield Status.INTERNAL;
+      }
+    };
+    return status.withDescription(error.getMessage()).asRuntimeException();
+  }
+
+  private static Throwable fromStatus(Throwable error) {
+    Status status = Status.fromThrowable(error);
+    return switch (status.getCode()) {
+      case NOT_FOUND -> new NotFoundException(status.getDescription());
+      case INVALID_ARGUMENT -> new InvalidInputException(status.getDescription());
+      default -> error;
+    };
+  }
+}
@@ -0,0 +1,149 @@
+package com.example.util.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.*;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Power-of-two-choices load balancer that prefers the less loaded of two randomly picked instances.
+ * <p>
+ * The load of an instance is its number of outstanding requests, with {@link Strategy#PEAK_EWMA} multiplied by a
+ * peak-sensitive moving average of its response times. The balancer is also a {@link LoadBalancerLifecycle}, so the
+ * load balancer filters report every request start and completion back to it.
+ */
+@Slf4j
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+    LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+  public enum Strategy { PEAK_EWMA, LEAST_OUTSTANDING }
+
+  private static final long DECAY_TIME_NANOS = 10_000_000_000L;
+  private static final long INITIAL_LATENCY_NANOS = 10_000_000L;
+  private static final long FAILURE_PENALTY_NANOS = 1_000_000_000L;
+
+  private final String serviceId;
+  private final Strategy strategy;
+  private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+  private final LongSupplier nanoClock;
+  private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+  public LatencyAwareLoadBalancer(String serviceId, Strategy strategy,
+                                  ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider) {
+    this(serviceId, strategy, serviceInstanceListSupplierProvider, System::nanoTime);
+  }
+
+  LatencyAwareLoadBalancer(String serviceId, Strategy strategy,
+                           ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                           LongSupplier nanoClock) {
+    this.serviceId = serviceId;
+    this.strategy = strategy;
+    this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+    this.nanoClock = nanoClock;
+  }
+
+  @Override
+  public Mono<Response<ServiceInstance>> choose(Request request) {
+    ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+        .getIfAvailable(NoopServiceInstanceListSupplier::new);
+    return supplier.get(request).next().map(this::choose);
+  }
+
+  private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+    if (instances.isEmpty()) {
+      log.warn("No servers available for service: {}", serviceId);
+      return new EmptyResponse();
+    }
+    if (instances.size() == 1) {
+      return new DefaultResponse(instances.getFirst());
+    }
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(instances.size());
+    int second = random.nextInt(instances.size() - 1);
+    if (second >= first) {
+      second++;
+    }
+    ServiceInstance a = instances.get(first);
+    ServiceInstance b = instances.get(second);
+    long now = nanoClock.getAsLong();
+    return new DefaultResponse(statsOf(a).load(now) <= statsOf(b).load(now) ? a : b);
+  }
+
+  @Override
+  public void onStart(Request<Object> request) {
+  }
+
+  @Override
+  public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+    if (!lbResponse.hasServer()) {
+      return;
+    }
+    if (request.getContext() instanceof TimedRequestContext context) {
+      context.setRequestStartTime(nanoClock.getAsLong());
+    }
+    statsOf(lbResponse.getServer()).outstanding.incrementAndGet();
+  }
+
+  @Override
+  public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+    Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+    if (lbResponse == null || !lbResponse.hasServer()) {
+      return;
+    }
+    InstanceStats instanceStats = statsOf(lbResponse.getServer());
+    instanceStats.outstanding.decrementAndGet();
+    long now = nanoClock.getAsLong();
+    switch (completionContext.status()) {
+      case SUCCESS -> {
+        if (completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext context
+            && context.getRequestStartTime() > 0) {
+          instanceStats.observe(now - context.getRequestStartTime(), now);
+        }
+      }
+      case FAILED -> instanceStats.observe(FAILURE_PENALTY_NANOS, now);
+      case DISCARD -> { }
+    }
+  }
+
+  private InstanceStats statsOf(ServiceInstance instance) {
+    return stats.computeIfAbsent(instance.getHost() + ":" + instance.getPort(), key -> new InstanceStats());
+  }
+
+  private class InstanceStats {
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private double latency = INITIAL_LATENCY_NANOS;
+    private long updatedAt = nanoClock.getAsLong();
+
+    synchronized void observe(long sample, long now) {
+      if (sample > latency) {
+        // Peak sensitive: a slow response is taken over at once, recovery is smoothed
+        latency = sample;
+      } else {
+        double weight = Math.exp(-(double) Math.max(0, now - updatedAt) / DECAY_TIME_NANOS);
+        latency = latency * weight + sample * (1 - weight);
+      }
+      updatedAt = now;
+    }
+
+    synchronized double load(long now) {
+      double pending = outstanding.get() + 1;
+      if (strategy == Strategy.LEAST_OUTSTANDING) {
+        return pending;
+      }
+      // Decay towards zero while idle, so a penalised instance is eventually probed again
+      double idleWeight = Math.exp(-(double) Math.max(0, now - updatedAt) / DECAY_TIME_NANOS);
+      return latency * idleWeight * pending;
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.example.util.loadbalancer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.util.Locale;
+
+/**
+ * Load balancer client configuration that replaces round-robin with {@link LatencyAwareLoadBalancer}, selected by
+ * {@code app.loadbalancer.strategy} ({@code round-robin}, {@code peak-ewma} or {@code least-outstanding}).
+ * <p>
+ * Register it with {@code @LoadBalancerClients(defaultConfiguration = ...)}; it is deliberately not a
+ * {@code @Configuration} so component scanning does not pull it into the application context.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+  @Bean
+  @ConditionalOnExpression("'${app.loadbalancer.strategy:round-robin}' != 'round-robin'")
+  public LatencyAwareLoadBalancer latencyAwareLoadBalancer(Environment environment,
+                                                           LoadBalancerClientFactory loadBalancerClientFactory) {
+    String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+    LatencyAwareLoadBalancer.Strategy strategy = LatencyAwareLoadBalancer.Strategy.valueOf(
+        environment.getProperty("app.loadbalancer.strategy", "peak-ewma").toUpperCase(Locale.ROOT).replace('-', '_'));
+    return new LatencyAwareLoadBalancer(serviceId, strategy,
+        loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class));
+  }
+}
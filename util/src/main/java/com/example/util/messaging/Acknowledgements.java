@@ -0,0 +1,22 @@
+package com.example.util.messaging;
+
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import reactor.kafka.receiver.ReceiverOffset;
+
+public final class Acknowledgements {
+
+  private Acknowledgements() {
+  }
+
+  /**
+   * Acknowledges the Kafka record behind the message once it has been processed, its offset is committed by the
+   * reactive binder together with those of the records before it. Messages without a receiver offset, e.g. from
+   * the test binder, are ignored.
+   */
+  public static void acknowledge(Message<?> message) {
+    if (message.getHeaders().get(KafkaHeaders.ACKNOWLEDGMENT) instanceof ReceiverOffset offset) {
+      offset.acknowledge();
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.example.util.messaging;
+
+import com.example.api.event.Event;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Processes events in batches of up to {@code batchSize} events, or the events that arrived within
+ * {@code batchTimeout}. Each batch is applied by an {@link EventBatchWriter}, the batches one after the other, so the
+ * events of a key keep their order. The messages of a batch are acknowledged once it has been written and its failed
+ * events have been handed to the failure handler.
+ */
+@Slf4j
+public class BatchEventProcessor {
+  private final int batchSize;
+  private final Duration batchTimeout;
+  private final EventPropagationMetrics propagationMetrics;
+  private final EventObservations observations;
+
+  public BatchEventProcessor(int batchSize, Duration batchTimeout, EventPropagationMetrics propagationMetrics,
+                             EventObservations observations) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+    }
+    this.batchSize = batchSize;
+    this.batchTimeout = batchTimeout;
+    this.propagationMetrics = propagationMetrics;
+    this.observations = observations;
+  }
+
+  /**
+   * Events are only batched with a batch size above one, otherwise the {@link KeyOrderedEventProcessor} is used.
+   */
+  public boolean isEnabled() {
+    return batchSize > 1;
+  }
+
+  /**
+   * Processes the events with {@code writer}. An event it fails is passed to {@code failureHandler} on its own, e.g.
+   * to send it to the dead letter topic, the rest of its batch is applied. A failure of the writer as a whole, e.g.
+   * while the database is unavailable, and of {@code failureHandler} is retried with a backoff until it succeeds;
+   * the next batches wait meanwhile and the flux never ends on a failed batch. A batch is written again as a whole, so
+   * its events that had been applied before the failure may be reported as failed.
+   */
+  public <K, T> Flux<Void> process(Flux<Message<Event<K, T>>> messages, EventBatchWriter<K, T> writer,
+                                   Function<EventFailure<K, T>, Mono<Void>> failureHandler) {
+    return messages
+        .bufferTimeout(batchSize, batchTimeout)
+        .concatMap(batch -> observations.observeBatch(batch,
+                Mono.defer(() -> writer.write(batch.stream().map(Message::getPayload).toList())))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, KeyOrderedEventProcessor.MIN_RETRY_BACKOFF)
+                .maxBackoff(KeyOrderedEventProcessor.MAX_RETRY_BACKOFF)
+                .doBeforeRetry(signal -> log.warn("Failed to write a batch of {} events, retry {}: {}",
+                    batch.size(), signal.totalRetries() + 1, signal.failure().toString())))
+            .flatMapMany(failures -> Flux.fromIterable(failures)
+                .concatMap(failure -> KeyOrderedEventProcessor.handleFailure(failure, failureHandler))
+                .doOnComplete(() -> {
+                  propagationMetrics.persisted(batch, failures);
+                  batch.forEach(Acknowledgements::acknowledge);
+                })));
+  }
+}
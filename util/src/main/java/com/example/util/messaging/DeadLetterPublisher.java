@@ -0,0 +1,45 @@
+package com.example.util.messaging;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Sends events that failed in a batch to the dead letter topic of their input binding, named
+ * {@code error.<destination>.<group>} like the Kafka binder does. The rest of the batch is applied regardless.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterPublisher {
+  static final String EXCEPTION_FQCN_HEADER = "x-exception-fqcn";
+  static final String EXCEPTION_MESSAGE_HEADER = "x-exception-message";
+
+  private final StreamBridge streamBridge;
+  private final BindingServiceProperties bindingServiceProperties;
+
+  public Mono<Void> publish(String inputBindingName, EventFailure<?, ?> failure) {
+    return Mono.fromRunnable(() -> {
+      String destination = deadLetterDestination(inputBindingName);
+      log.warn("Sends {} event for key {} to {}: {}",
+          failure.event().eventType(), failure.event().key(), destination, failure.cause().toString());
+      Message<?> message = MessageBuilder.withPayload(failure.event())
+          .setHeader(EXCEPTION_FQCN_HEADER, failure.cause().getClass().getName())
+          .setHeader(EXCEPTION_MESSAGE_HEADER, String.valueOf(failure.cause().getMessage()))
+          .build();
+      if (!streamBridge.send(destination, message)) {
+        throw new IllegalStateException("Failed to send event to " + destination);
+      }
+    });
+  }
+
+  public String deadLetterDestination(String inputBindingName) {
+    return "error." + bindingServiceProperties.getBindingDestination(inputBindingName)
+        + "." + bindingServiceProperties.getGroup(inputBindingName);
+  }
+}
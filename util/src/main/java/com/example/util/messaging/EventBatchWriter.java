@@ -0,0 +1,14 @@
+package com.example.util.messaging;
+
+import com.example.api.event.Event;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Applies a batch of events in as few writes as possible, see {@link BatchEventProcessor}. Events that fail are
+ * returned with their cause, the others are applied.
+ */
+public interface EventBatchWriter<K, T> {
+  Mono<List<EventFailure<K, T>>> write(List<Event<K, T>> events);
+}
@@ -0,0 +1,34 @@
+package com.example.util.messaging;
+
+import com.example.api.event.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.api.event.Event.Type.DELETE;
+
+public final class EventBatches {
+
+  private EventBatches() {
+  }
+
+  /**
+   * Splits a batch of events into runs of consecutive creates and consecutive deletes. Each run can be applied as
+   * one bulk write in any order, while the runs are applied one after the other, so a create followed by a delete
+   * of the same key keeps its outcome.
+   */
+  public static <K, T> List<List<Event<K, T>>> runs(List<Event<K, T>> events) {
+    List<List<Event<K, T>>> runs = new ArrayList<>();
+    for (Event<K, T> event : events) {
+      if (runs.isEmpty() || isDelete(runs.getLast().getFirst()) != isDelete(event)) {
+        runs.add(new ArrayList<>());
+      }
+      runs.getLast().add(event);
+    }
+    return runs;
+  }
+
+  public static boolean isDelete(Event<?, ?> event) {
+    return event.eventType() == DELETE;
+  }
+}
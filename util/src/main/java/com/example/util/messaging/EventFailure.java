@@ -0,0 +1,9 @@
+package com.example.util.messaging;
+
+import com.example.api.event.Event;
+
+/**
+ * An event that could not be applied and the reason why, see {@link DeadLetterPublisher}.
+ */
+public record EventFailure<K, T>(Event<K, T> event, Throwable cause) {
+}
@@ -0,0 +1,33 @@
+package com.example.util.messaging;
+
+import com.example.api.event.Event;
+
+import java.util.stream.Stream;
+
+import static com.example.api.event.Event.Type.CREATE;
+import static com.example.api.event.Event.Type.CREATE_BATCH;
+
+/**
+ * One entity to write on behalf of an event. A {@code CREATE_BATCH} event yields one item per entity of its batch,
+ * so every entity of a bulk write can be traced back to the event it came from.
+ */
+public record EventItem<K, T>(Event<K, T> event, T body) {
+
+  public static <K, T> Stream<EventItem<K, T>> of(Event<K, T> event) {
+    return switch (event.eventType()) {
+      case CREATE_BATCH -> event.batch().stream().map(body -> new EventItem<>(event, body));
+      case CREATE, DELETE -> Stream.of(new EventItem<>(event, event.data()));
+    };
+  }
+
+  /**
+   * The failure of this item. A failed entity of a batch is reported as a {@code CREATE} event of its own, the
+   * entities of the batch that were written are not part of it.
+   */
+  public EventFailure<K, T> failed(Throwable cause) {
+    Event<K, T> failedEvent = event.eventType() == CREATE_BATCH
+        ? new Event<>(CREATE, event.key(), body, event.eventCreatedAt())
+        : event;
+    return new EventFailure<>(failedEvent, cause);
+  }
+}
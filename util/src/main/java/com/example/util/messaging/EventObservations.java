@@ -0,0 +1,100 @@
+package com.example.util.messaging;
+
+import com.example.api.event.Event;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.micrometer.observation.transport.ReceiverContext;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Observes the processing of events. An event is processed in the trace of the request that published it, the
+ * trace context is read from the headers the producer has added to the message. The observation is the parent of
+ * the repository calls of the processing, so a trace shows the time spent in the database per event.
+ */
+public class EventObservations {
+  private static final String PROCESS_OBSERVATION = "messaging.event.process";
+  private static final String BATCH_OBSERVATION = "messaging.batch.process";
+
+  private final ObservationRegistry registry;
+
+  public EventObservations(ObservationRegistry registry) {
+    this.registry = registry;
+  }
+
+  public <T> Mono<T> observe(Message<? extends Event<?, ?>> message, Mono<T> processing) {
+    return Mono.defer(() -> withObservation(processing, start(message)));
+  }
+
+  /**
+   * Observes the bulk write of a batch. Each event of the batch gets a {@code messaging.event.process} observation in
+   * the trace of the request that published it, which lasts until the batch is written and fails if the event, or
+   * one of its items for batch events, is among the failures. The bulk write itself belongs to all of them, its
+   * {@code messaging.batch.process} observation, and with it the repository calls, is placed in the trace of the
+   * first event.
+   */
+  public <K, V> Mono<List<EventFailure<K, V>>> observeBatch(List<? extends Message<Event<K, V>>> batch,
+                                                           Mono<List<EventFailure<K, V>>> processing) {
+    return Mono.defer(() -> {
+      Map<Event<K, V>, Observation> events = new IdentityHashMap<>();
+      batch.forEach(message -> events.put(message.getPayload(), start(message)
+          .highCardinalityKeyValue("messaging.batch.message_count", String.valueOf(batch.size()))));
+      Observation observation = Observation.createNotStarted(BATCH_OBSERVATION, registry)
+          .highCardinalityKeyValue("messaging.batch.message_count", String.valueOf(batch.size()))
+          .parentObservation(batch.isEmpty() ? null : events.get(batch.getFirst().getPayload()))
+          .start();
+      return withObservation(processing, observation)
+          .doOnNext(failures -> failures.forEach(failure -> failed(events, failure)))
+          .doOnError(e -> events.values().forEach(event -> event.error(e)))
+          .doFinally(signal -> events.values().forEach(Observation::stop));
+    });
+  }
+
+  // A failed item of a batch event is reported as an event of its own, it is matched to the events of its key
+  private static <K, V> void failed(Map<Event<K, V>, Observation> events, EventFailure<K, V> failure) {
+    Observation event = events.get(failure.event());
+    if (event != null) {
+      event.error(failure.cause());
+    } else {
+      events.forEach((candidate, observation) -> {
+        if (candidate.key().equals(failure.event().key())) {
+          observation.error(failure.cause());
+        }
+      });
+    }
+  }
+
+  private Observation start(Message<? extends Event<?, ?>> message) {
+    ReceiverContext<Message<?>> context = new ReceiverContext<>(EventObservations::header);
+    context.setCarrier(message);
+    context.setRemoteServiceName("kafka");
+    String topic = String.valueOf(message.getHeaders().getOrDefault(KafkaHeaders.RECEIVED_TOPIC, "unknown"));
+    return Observation.createNotStarted(PROCESS_OBSERVATION, () -> context, registry)
+        .contextualName(topic + " process")
+        .lowCardinalityKeyValue("messaging.destination.name", topic)
+        .lowCardinalityKeyValue("event.type", message.getPayload().eventType().name())
+        .start();
+  }
+
+  private static <T> Mono<T> withObservation(Mono<T> processing, Observation observation) {
+    return processing
+        .doOnError(observation::error)
+        .doFinally(signal -> observation.stop())
+        .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation));
+  }
+
+  private static String header(Message<?> message, String name) {
+    Object value = message.getHeaders().get(name);
+    if (value instanceof byte[] bytes) {
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+    return value == null ? null : value.toString();
+  }
+}
@@ -0,0 +1,57 @@
+package com.example.util.messaging;
+
+import com.example.api.event.Event;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Records {@code messaging.event.propagation}, the time from the creation of an event by the composite until it has
+ * been persisted by a core service, tagged by topic, partition and event type. It is the delay after which a write
+ * accepted by the composite becomes readable. Clock skew between the hosts can make it slightly off, negative
+ * values are recorded as zero.
+ */
+public class EventPropagationMetrics {
+  private static final String PROPAGATION_METRIC = "messaging.event.propagation";
+
+  private final MeterRegistry registry;
+
+  public EventPropagationMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  public void persisted(Message<? extends Event<?, ?>> message) {
+    Event<?, ?> event = message.getPayload();
+    if (event.eventCreatedAt() == null) {
+      return;
+    }
+    Duration latency = Duration.between(event.eventCreatedAt().toInstant(), Instant.now());
+    Timer.builder(PROPAGATION_METRIC)
+        .description("Time from the creation of an event until it has been persisted")
+        .tag("topic", header(message, KafkaHeaders.RECEIVED_TOPIC))
+        .tag("partition", header(message, KafkaHeaders.RECEIVED_PARTITION))
+        .tag("type", event.eventType().name())
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(latency.isNegative() ? Duration.ZERO : latency);
+  }
+
+  /**
+   * Records the events of a batch that have been persisted, the events that failed are left out.
+   */
+  public <K, T> void persisted(List<Message<Event<K, T>>> batch, List<EventFailure<K, T>> failures) {
+    batch.stream()
+        .filter(message -> failures.stream().noneMatch(failure -> failure.event() == message.getPayload()))
+        .forEach(this::persisted);
+  }
+
+  private static String header(Message<?> message, String name) {
+    Object value = message.getHeaders().get(name);
+    return value == null ? "unknown" : value.toString();
+  }
+}
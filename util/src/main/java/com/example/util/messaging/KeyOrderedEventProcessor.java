@@ -0,0 +1,108 @@
+package com.example.util.messaging;
+
+import com.example.api.event.Event;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Processes events of the same key one after the other and events of different keys concurrently. Keys are hashed
+ * onto {@code concurrency} lanes, each lane handles its events in arrival order, so at most {@code concurrency}
+ * events are in progress. A message is acknowledged when its event has been processed or handed to the failure
+ * handler. Acknowledged offsets are committed out of order only with deferred commits enabled, see
+ * {@link MessagingConfiguration}.
+ */
+@Slf4j
+public class KeyOrderedEventProcessor {
+  static final Duration MIN_RETRY_BACKOFF = Duration.ofMillis(100);
+  static final Duration MAX_RETRY_BACKOFF = Duration.ofSeconds(30);
+
+  private final int concurrency;
+  private final EventPropagationMetrics propagationMetrics;
+  private final EventObservations observations;
+  private final AtomicInteger pendingEvents = new AtomicInteger();
+  private final ConcurrentMap<Object, Integer> pendingEventsByKey = new ConcurrentHashMap<>();
+  private final DistributionSummary keyQueueDepth;
+
+  public KeyOrderedEventProcessor(int concurrency, MeterRegistry registry) {
+    this(concurrency, registry, new EventPropagationMetrics(registry), new EventObservations(ObservationRegistry.NOOP));
+  }
+
+  public KeyOrderedEventProcessor(int concurrency, MeterRegistry registry, EventPropagationMetrics propagationMetrics,
+                                  EventObservations observations) {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("Invalid concurrency: " + concurrency);
+    }
+    this.concurrency = concurrency;
+    this.propagationMetrics = propagationMetrics;
+    this.observations = observations;
+    Gauge.builder("messaging.events.pending", pendingEvents, AtomicInteger::get)
+        .description("Events received and not yet processed")
+        .register(registry);
+    Gauge.builder("messaging.keys.pending", pendingEventsByKey, Map::size)
+        .description("Keys with events waiting or in progress")
+        .register(registry);
+    this.keyQueueDepth = DistributionSummary.builder("messaging.key.queue.depth")
+        .description("Events of the same key waiting or in progress when an event arrives, the event included")
+        .register(registry);
+  }
+
+  /**
+   * Processes the events with {@code handler}. An event it fails is passed to {@code failureHandler}, e.g. to send
+   * it to the dead letter topic, and acknowledged like the others: the events of its lane and of the other lanes
+   * keep flowing and their offsets keep being committed. A failure of {@code failureHandler}, e.g. while Kafka is
+   * unavailable, is retried with a backoff until it succeeds; its lane waits meanwhile and the event is only
+   * acknowledged then, the flux itself never ends on a failed event.
+   */
+  public <K, T> Flux<Void> process(Flux<Message<Event<K, T>>> messages, Function<Event<K, T>, Mono<Void>> handler,
+                                   Function<EventFailure<K, T>, Mono<Void>> failureHandler) {
+    // A fixed number of groups, one per lane, so that flatMap always drains every group
+    return messages
+        .doOnNext(this::enqueued)
+        .groupBy(message -> Math.floorMod(Objects.hashCode(message.getPayload().key()), concurrency))
+        .flatMap(lane -> lane.concatMap(message -> observations.observe(message,
+                Mono.defer(() -> handler.apply(message.getPayload())))
+            .doOnSuccess(v -> propagationMetrics.persisted(message))
+            .onErrorResume(error -> handleFailure(new EventFailure<>(message.getPayload(), error), failureHandler))
+            .doOnSuccess(v -> Acknowledgements.acknowledge(message))
+            .doFinally(signal -> dequeued(message))), concurrency);
+  }
+
+  /**
+   * Hands a failed event to the failure handler, retried with a backoff from {@code MIN_RETRY_BACKOFF} up to
+   * {@code MAX_RETRY_BACKOFF} until it succeeds.
+   */
+  static <K, T> Mono<Void> handleFailure(EventFailure<K, T> failure,
+                                         Function<EventFailure<K, T>, Mono<Void>> failureHandler) {
+    return Mono.defer(() -> failureHandler.apply(failure))
+        .retryWhen(Retry.backoff(Long.MAX_VALUE, MIN_RETRY_BACKOFF)
+            .maxBackoff(MAX_RETRY_BACKOFF)
+            .doBeforeRetry(signal -> log.warn("Failed to hand over the failed {} event for key {}, retry {}: {}",
+                failure.event().eventType(), failure.event().key(), signal.totalRetries() + 1,
+                signal.failure().toString())));
+  }
+
+  private void enqueued(Message<? extends Event<?, ?>> message) {
+    pendingEvents.incrementAndGet();
+    keyQueueDepth.record(pendingEventsByKey.merge(message.getPayload().key(), 1, Integer::sum));
+  }
+
+  private void dequeued(Message<? extends Event<?, ?>> message) {
+    pendingEvents.decrementAndGet();
+    pendingEventsByKey.computeIfPresent(message.getPayload().key(), (key, pending) -> pending > 1 ? pending - 1 : null);
+  }
+}
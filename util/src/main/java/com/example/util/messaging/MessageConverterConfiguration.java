@@ -0,0 +1,20 @@
+package com.example.util.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Message converters added to those of Spring Cloud Stream, a message is read by the converter of its
+ * {@code contentType} header whatever content type its input binding has.
+ */
+@Configuration
+@ConditionalOnClass(name = "org.springframework.cloud.stream.function.StreamBridge")
+public class MessageConverterConfiguration {
+
+  @Bean
+  SmileMessageConverter smileMessageConverter(ObjectMapper objectMapper) {
+    return new SmileMessageConverter(objectMapper);
+  }
+}
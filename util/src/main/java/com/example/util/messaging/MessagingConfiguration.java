@@ -0,0 +1,68 @@
+package com.example.util.messaging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.cloud.stream.binder.reactorkafka.ReceiverOptionsCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.kafka.receiver.MicrometerConsumerListener;
+
+import java.time.Duration;
+
+/**
+ * Event processing of the core services, which consume through the reactive Kafka binder.
+ */
+@Configuration
+@ConditionalOnClass(name = "org.springframework.cloud.stream.binder.reactorkafka.ReactorKafkaBinder")
+@Slf4j
+public class MessagingConfiguration {
+
+  @Bean
+  EventPropagationMetrics eventPropagationMetrics(MeterRegistry registry) {
+    return new EventPropagationMetrics(registry);
+  }
+
+  @Bean
+  EventObservations eventObservations(ObservationRegistry registry) {
+    return new EventObservations(registry);
+  }
+
+  @Bean
+  KeyOrderedEventProcessor keyOrderedEventProcessor(@Value("${app.messaging.concurrency:16}") int concurrency,
+                                                    MeterRegistry registry,
+                                                    EventPropagationMetrics propagationMetrics,
+                                                    EventObservations observations) {
+    log.info("Processes events of up to {} keys concurrently", concurrency);
+    return new KeyOrderedEventProcessor(concurrency, registry, propagationMetrics, observations);
+  }
+
+  @Bean
+  BatchEventProcessor batchEventProcessor(@Value("${app.messaging.batch-size:1}") int batchSize,
+                                          @Value("${app.messaging.batch-timeout:100ms}") Duration batchTimeout,
+                                          EventPropagationMetrics propagationMetrics,
+                                          EventObservations observations) {
+    if (batchSize > 1) {
+      log.info("Consumes events in batches of up to {} events or {}", batchSize, batchTimeout);
+    }
+    return new BatchEventProcessor(batchSize, batchTimeout, propagationMetrics, observations);
+  }
+
+  /**
+   * Events complete out of order across keys. With deferred commits the receiver only commits an offset once all
+   * offsets before it in the partition have been acknowledged, and pauses when too many acknowledgements wait for
+   * a gap to close.
+   * <p>
+   * The Kafka consumer metrics are bound to Micrometer as well, {@code kafka.consumer.fetch.manager.records.lag}
+   * is the consumer lag per topic and partition.
+   */
+  @Bean
+  ReceiverOptionsCustomizer<Object, Object> receiverOptionsCustomizer(
+      @Value("${app.messaging.max-deferred-commits:1000}") int maxDeferredCommits, MeterRegistry registry) {
+    return (bindingName, options) -> options
+        .maxDeferredCommits(maxDeferredCommits)
+        .consumerListener(new MicrometerConsumerListener(registry));
+  }
+}
@@ -0,0 +1,126 @@
+package com.example.util.messaging;
+
+import com.example.api.event.Event;
+import com.example.api.exception.InvalidInputException;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Applies a batch of events keyed by productId as Mongo bulk writes: an unordered insert per run of creates and a
+ * deleteMany per run of deletes, see {@link EventBatches#runs}. Events that fail are returned with their cause, the
+ * rest of the batch is written. A run that fails as a whole, e.g. on a lost connection, fails all its events. The
+ * productId of every entity must match the key of its event.
+ *
+ * @param <T> the API type of the events
+ * @param <E> the entity type of the collection, with a {@code productId} field
+ */
+@Slf4j
+public class MongoEventBatchWriter<T, E> implements EventBatchWriter<Integer, T> {
+  public static final int DUPLICATE_KEY_CODE = 11000;
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final Class<E> entityClass;
+  private final ToIntFunction<T> productId;
+  private final Function<T, E> toEntity;
+  private final Function<T, String> duplicateKeyMessage;
+
+  public MongoEventBatchWriter(ReactiveMongoTemplate mongoTemplate, Class<E> entityClass, ToIntFunction<T> productId,
+                               Function<T, E> toEntity, Function<T, String> duplicateKeyMessage) {
+    this.mongoTemplate = mongoTemplate;
+    this.entityClass = entityClass;
+    this.productId = productId;
+    this.toEntity = toEntity;
+    this.duplicateKeyMessage = duplicateKeyMessage;
+  }
+
+  @Override
+  public Mono<List<EventFailure<Integer, T>>> write(List<Event<Integer, T>> events) {
+    return Flux.fromIterable(EventBatches.runs(events))
+        .concatMap(run -> EventBatches.isDelete(run.getFirst()) ? delete(run) : insert(run))
+        .flatMapIterable(Function.identity())
+        .collectList();
+  }
+
+  private Mono<List<EventFailure<Integer, T>>> insert(List<Event<Integer, T>> run) {
+    List<EventFailure<Integer, T>> failures = new ArrayList<>();
+    List<EventItem<Integer, T>> items = new ArrayList<>();
+    run.stream().flatMap(EventItem::of).forEach(item -> {
+      if (item.body() == null || productId.applyAsInt(item.body()) < 1) {
+        failures.add(item.failed(new InvalidInputException(
+            "Invalid productId: " + (item.body() == null ? null : productId.applyAsInt(item.body())))));
+      } else if (!item.event().key().equals(productId.applyAsInt(item.body()))) {
+        // The key orders the events of a product, an entity of another product would be written out of its order
+        failures.add(item.failed(new InvalidInputException("Invalid productId: " + productId.applyAsInt(item.body())
+            + ", the key of its event is " + item.event().key())));
+      } else {
+        items.add(item);
+      }
+    });
+    if (items.isEmpty()) {
+      return Mono.just(failures);
+    }
+
+    return Mono.defer(() -> mongoTemplate.bulkOps(BulkMode.UNORDERED, entityClass)
+            .insert(items.stream().map(item -> toEntity.apply(item.body())).toList())
+            .execute())
+        .doOnNext(result -> log.debug("Bulk inserted {} {}", result.getInsertedCount(), entityClass.getSimpleName()))
+        .log(log.getName(), Level.FINE)
+        .map(result -> failures)
+        .onErrorResume(ex -> {
+          List<BulkWriteError> writeErrors = writeErrors(ex);
+          if (writeErrors == null) {
+            items.forEach(item -> failures.add(item.failed(ex)));
+            return Mono.just(failures);
+          }
+          // Unordered inserts go on after a failing document, so only the reported ones are failures
+          for (BulkWriteError error : writeErrors) {
+            EventItem<Integer, T> item = items.get(error.getIndex());
+            failures.add(item.failed(error.getCode() == DUPLICATE_KEY_CODE
+                ? new InvalidInputException(duplicateKeyMessage.apply(item.body()))
+                : new IllegalStateException(error.getMessage())));
+          }
+          return Mono.just(failures);
+        });
+  }
+
+  private Mono<List<EventFailure<Integer, T>>> delete(List<Event<Integer, T>> run) {
+    List<Integer> productIds = run.stream().map(Event::key).distinct().toList();
+    return Mono.defer(() -> mongoTemplate.bulkOps(BulkMode.UNORDERED, entityClass)
+            .remove(query(where("productId").in(productIds)))
+            .execute())
+        .doOnNext(result -> log.debug("Bulk deleted {} {}", result.getDeletedCount(), entityClass.getSimpleName()))
+        .log(log.getName(), Level.FINE)
+        .map(result -> List.<EventFailure<Integer, T>>of())
+        .onErrorResume(ex -> Mono.just(run.stream().map(event -> new EventFailure<>(event, ex)).toList()));
+  }
+
+  /**
+   * The write errors of a failed bulk write, or null if it failed for another reason.
+   */
+  public static List<BulkWriteError> writeErrors(Throwable ex) {
+    for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+      if (cause instanceof BulkOperationException bulkOperationException) {
+        return bulkOperationException.getErrors();
+      }
+      if (cause instanceof MongoBulkWriteException bulkWriteException) {
+        return bulkWriteException.getWriteErrors();
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,25 @@
+package com.example.util.observation;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+/**
+ * Observes the MongoDB commands of the services that use the reactive MongoDB driver, every command becomes a span
+ * of the request or event it is executed for.
+ */
+@Configuration
+@ConditionalOnClass(name = "com.mongodb.reactivestreams.client.MongoClient")
+public class MongoObservationConfiguration {
+
+  @Bean
+  MongoClientSettingsBuilderCustomizer mongoObservationCustomizer(ObservationRegistry registry) {
+    return settings -> settings
+        .contextProvider(ContextProviderFactory.create(registry))
+        .addCommandListener(new MongoObservationCommandListener(registry));
+  }
+}
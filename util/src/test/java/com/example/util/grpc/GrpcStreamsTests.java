@@ -0,0 +1,157 @@
+package com.example.util.grpc;
+
+import com.example.api.exception.InvalidInputException;
+import com.example.api.exception.NotFoundException;
+import com.example.api.grpc.ProductMessage;
+import com.example.api.grpc.ProductServiceGrpc;
+import com.example.api.grpc.ProductsRequest;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GrpcStreamsTests {
+  private Function<ProductsRequest, Publisher<Integer>> products;
+  private Server server;
+  private ManagedChannel channel;
+  private ProductServiceGrpc.ProductServiceStub stub;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    String name = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(name)
+        .addService(new ProductServiceGrpc.ProductServiceImplBase() {
+          @Override
+          public void getProducts(ProductsRequest request, StreamObserver<ProductMessage> responseObserver) {
+            GrpcStreams.serve(() -> products.apply(request), GrpcStreamsTests::message, responseObserver);
+          }
+        })
+        .build()
+        .start();
+    channel = InProcessChannelBuilder.forName(name).build();
+    stub = ProductServiceGrpc.newStub(channel);
+  }
+
+  @AfterEach
+  void stopServer() {
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  void requestsElementsOnlyWhileTheClientReadsThem() throws InterruptedException {
+    AtomicLong requested = new AtomicLong();
+    products = request -> Flux.range(1, 1000).doOnRequest(requested::addAndGet);
+    List<ProductMessage> received = new CopyOnWriteArrayList<>();
+    CountDownLatch firstReceived = new CountDownLatch(1);
+    CountDownLatch completed = new CountDownLatch(1);
+    ClientCallStreamObserver<?>[] call = new ClientCallStreamObserver<?>[1];
+
+    // Reads one element and then waits until it asks for the rest
+    stub.getProducts(ProductsRequest.getDefaultInstance(), new ClientResponseObserver<ProductsRequest,
+        ProductMessage>() {
+      @Override
+      public void beforeStart(ClientCallStreamObserver<ProductsRequest> requestStream) {
+        call[0] = requestStream;
+        requestStream.disableAutoRequestWithInitial(1);
+      }
+
+      @Override
+      public void onNext(ProductMessage message) {
+        received.add(message);
+        firstReceived.countDown();
+      }
+
+      @Override
+      public void onError(Throwable error) {
+      }
+
+      @Override
+      public void onCompleted() {
+        completed.countDown();
+      }
+    });
+
+    assertThat(firstReceived.await(5, TimeUnit.SECONDS)).isTrue();
+    Thread.sleep(200);
+    // The element the client has asked for plus at most one that waits until the call is ready again
+    assertThat(requested.get()).isLessThanOrEqualTo(2);
+    assertThat(received).hasSize(1);
+
+    call[0].request(Integer.MAX_VALUE);
+    assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(received).hasSize(1000);
+  }
+
+  @Test
+  void cancelsThePublisherWhenTheCallIsCancelled() throws InterruptedException {
+    CountDownLatch subscribed = new CountDownLatch(1);
+    CountDownLatch cancelled = new CountDownLatch(1);
+    products = request -> Flux.<Integer>never()
+        .doOnSubscribe(subscription -> subscribed.countDown())
+        .doOnCancel(cancelled::countDown);
+
+    Disposable call = GrpcStreams.<ProductMessage, Integer>call(
+            observer -> stub.getProducts(ProductsRequest.getDefaultInstance(), observer), ProductMessage::getProductId)
+        .subscribe();
+    assertThat(subscribed.await(5, TimeUnit.SECONDS)).isTrue();
+    call.dispose();
+
+    assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  void translatesApiExceptionsToStatusCodesAndBack() {
+    products = request -> Mono.error(switch (request.getProductIds(0)) {
+      case 1 -> new NotFoundException("No product found for productId: 1");
+      case 2 -> new InvalidInputException("Invalid productId: 2");
+      default -> new IllegalStateException("Boom");
+    });
+
+    StepVerifier.create(call(1))
+        .expectErrorSatisfies(error -> assertThat(error).isInstanceOf(NotFoundException.class)
+            .hasMessage("No product found for productId: 1"))
+        .verify(Duration.ofSeconds(5));
+    StepVerifier.create(call(2))
+        .expectErrorSatisfies(error -> assertThat(error).isInstanceOf(InvalidInputException.class)
+            .hasMessage("Invalid productId: 2"))
+        .verify(Duration.ofSeconds(5));
+    StepVerifier.create(call(3))
+        .expectErrorSatisfies(error -> assertThat(Status.fromThrowable(error).getCode())
+            .isEqualTo(Status.Code.INTERNAL))
+        .verify(Duration.ofSeconds(5));
+  }
+
+  private Flux<Integer> call(int productId) {
+    ProductsRequest request = ProductsRequest.newBuilder().addProductIds(productId).build();
+    return GrpcStreams.<ProductMessage, Integer>call(observer -> stub.getProducts(request, observer),
+        ProductMessage::getProductId);
+  }
+
+  private static ProductMessage message(int productId) {
+    return ProductMessage.newBuilder().setProductId(productId).setName("Product " + productId).build();
+  }
+}
@@ -0,0 +1,81 @@
+package com.example.util.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultRequestContext;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+import java.util.PriorityQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replays one request per millisecond against a fast (5 ms) and an artificially slowed (50 ms) stand-in
+ * instance on a simulated clock and compares the share of traffic the slow instance receives.
+ */
+class LatencyAwareLoadBalancerTests {
+  private static final long MILLIS = 1_000_000L;
+  private static final int REQUESTS = 5_000;
+
+  private final ServiceInstance fast = new DefaultServiceInstance("review-1", "review", "fast-host", 8080, false);
+  private final ServiceInstance slow = new DefaultServiceInstance("review-2", "review", "slow-host", 8080, false);
+  private long now;
+
+  @Test
+  void peakEwmaAvoidsSlowInstance() {
+    LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer("review",
+        LatencyAwareLoadBalancer.Strategy.PEAK_EWMA,
+        ServiceInstanceListSuppliers.toProvider("review", fast, slow), () -> now);
+
+    double slowShare = simulate(loadBalancer, loadBalancer);
+    double roundRobinSlowShare = simulate(new RoundRobinLoadBalancer(
+        ServiceInstanceListSuppliers.toProvider("review", fast, slow), "review"), null);
+
+    assertThat(roundRobinSlowShare).isEqualTo(0.5);
+    assertThat(slowShare)
+        .as("share of requests to the slow instance, round-robin sends it %.3f", roundRobinSlowShare)
+        .isLessThan(0.1);
+  }
+
+  @Test
+  void leastOutstandingAvoidsSlowInstance() {
+    LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer("review",
+        LatencyAwareLoadBalancer.Strategy.LEAST_OUTSTANDING,
+        ServiceInstanceListSuppliers.toProvider("review", fast, slow), () -> now);
+
+    assertThat(simulate(loadBalancer, loadBalancer)).isLessThan(0.3);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private double simulate(ReactorServiceInstanceLoadBalancer loadBalancer, LatencyAwareLoadBalancer lifecycle) {
+    record Completion(long at, Request<Object> request, Response<ServiceInstance> response) {}
+    PriorityQueue<Completion> pending = new PriorityQueue<>((a, b) -> Long.compare(a.at(), b.at()));
+    int toSlow = 0;
+    for (int i = 0; i < REQUESTS; i++) {
+      now = i * MILLIS;
+      while (!pending.isEmpty() && pending.peek().at() <= now) {
+        Completion completion = pending.poll();
+        if (lifecycle != null) {
+          lifecycle.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS,
+              completion.request(), completion.response()));
+        }
+      }
+      Request<Object> request = new DefaultRequest<>(new DefaultRequestContext());
+      Response<ServiceInstance> response = loadBalancer.choose(request).block();
+      if (lifecycle != null) {
+        lifecycle.onStartRequest(request, response);
+      }
+      boolean isSlow = response.getServer() == slow;
+      toSlow += isSlow ? 1 : 0;
+      pending.add(new Completion(now + (isSlow ? 50 : 5) * MILLIS, request, response));
+    }
+    return (double) toSlow / REQUESTS;
+  }
+}
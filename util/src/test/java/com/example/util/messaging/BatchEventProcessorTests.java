@@ -0,0 +1,118 @@
+package com.example.util.messaging;
+
+import com.example.api.event.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static com.example.api.event.Event.Type.CREATE;
+import static com.example.api.event.Event.Type.DELETE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class BatchEventProcessorTests {
+  private final BatchEventProcessor processor = new BatchEventProcessor(3, Duration.ofMillis(50),
+      new EventPropagationMetrics(new SimpleMeterRegistry()), new EventObservations(ObservationRegistry.NOOP));
+
+  @Test
+  void writesTheEventsInBatchesInTheirOrder() {
+    List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    Flux<Message<Event<Integer, String>>> messages = Flux.just(
+        message(new Event<>(CREATE, 1, "a")),
+        message(new Event<>(CREATE, 2, "b")),
+        message(new Event<>(DELETE, 1, null)),
+        message(new Event<>(CREATE, 1, "c")));
+
+    StepVerifier.create(processor.process(messages, events -> Mono.fromSupplier(() -> {
+          batches.add(events.stream().map(event -> event.eventType() + "-" + event.key()).toList());
+          return List.<EventFailure<Integer, String>>of();
+        }), BatchEventProcessorTests::unexpected))
+        .verifyComplete();
+
+    assertEquals(List.of(List.of("CREATE-1", "CREATE-2", "DELETE-1"), List.of("CREATE-1")), batches);
+  }
+
+  @Test
+  void handsFailedEventsToTheFailureHandlerAndAcknowledgesTheBatch() {
+    List<EventFailure<Integer, String>> failures = new CopyOnWriteArrayList<>();
+    List<ReceiverOffset> offsets = IntStream.range(0, 3).mapToObj(i -> mock(ReceiverOffset.class)).toList();
+
+    Flux<Message<Event<Integer, String>>> messages = Flux.just(
+        message(new Event<>(CREATE, 1, "a"), offsets.get(0)),
+        message(new Event<>(CREATE, 2, "duplicate"), offsets.get(1)),
+        message(new Event<>(CREATE, 3, "b"), offsets.get(2)));
+
+    StepVerifier.create(processor.<Integer, String>process(messages, events -> Mono.just(events.stream()
+                .filter(event -> "duplicate".equals(event.data()))
+                .map(event -> new EventFailure<>(event, new IllegalStateException("Duplicate key")))
+                .toList()),
+            failure -> Mono.fromRunnable(() -> failures.add(failure))))
+        .verifyComplete();
+
+    assertEquals(1, failures.size());
+    assertEquals(2, failures.getFirst().event().key());
+    assertEquals("Duplicate key", failures.getFirst().cause().getMessage());
+    offsets.forEach(offset -> verify(offset).acknowledge());
+  }
+
+  @Test
+  void retriesAFailedWriteAndFailureHandlerAndKeepsProcessing() {
+    List<List<Integer>> written = new CopyOnWriteArrayList<>();
+    AtomicInteger writeAttempts = new AtomicInteger();
+    AtomicInteger deadLetterAttempts = new AtomicInteger();
+    List<ReceiverOffset> offsets = IntStream.range(0, 4).mapToObj(i -> mock(ReceiverOffset.class)).toList();
+
+    // The database is unavailable for the first write, the dead letter topic for the first attempt to send to it
+    Flux<Message<Event<Integer, String>>> messages = Flux.just(
+        message(new Event<>(CREATE, 1, "a"), offsets.get(0)),
+        message(new Event<>(CREATE, 2, "duplicate"), offsets.get(1)),
+        message(new Event<>(CREATE, 3, "b"), offsets.get(2)),
+        message(new Event<>(CREATE, 4, "c"), offsets.get(3)));
+
+    StepVerifier.create(processor.<Integer, String>process(messages, events -> writeAttempts.incrementAndGet() == 1
+                ? Mono.error(new IllegalStateException("Connection refused"))
+                : Mono.fromSupplier(() -> {
+                  written.add(events.stream().map(Event::key).toList());
+                  return events.stream()
+                      .filter(event -> "duplicate".equals(event.data()))
+                      .map(event -> new EventFailure<>(event, new IllegalStateException("Duplicate key")))
+                      .toList();
+                }),
+            failure -> deadLetterAttempts.incrementAndGet() == 1
+                ? Mono.error(new IllegalStateException("Dead letter topic unavailable"))
+                : Mono.empty()))
+        .expectComplete()
+        .verify(Duration.ofSeconds(5));
+
+    assertEquals(List.of(List.of(1, 2, 3), List.of(4)), written);
+    assertEquals(2, deadLetterAttempts.get());
+    offsets.forEach(offset -> verify(offset).acknowledge());
+  }
+
+  private static Mono<Void> unexpected(EventFailure<Integer, String> failure) {
+    return Mono.error(new AssertionError("Unexpected failure", failure.cause()));
+  }
+
+  private static Message<Event<Integer, String>> message(Event<Integer, String> event) {
+    return MessageBuilder.withPayload(event).build();
+  }
+
+  private static Message<Event<Integer, String>> message(Event<Integer, String> event, ReceiverOffset offset) {
+    return MessageBuilder.withPayload(event).setHeader(KafkaHeaders.ACKNOWLEDGMENT, offset).build();
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.util.messaging;
+
+import com.example.api.event.Event;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.example.api.event.Event.Type.CREATE;
+import static com.example.api.event.Event.Type.DELETE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EventBatchesTests {
+
+  @Test
+  void splitsIntoRunsOfCreatesAndDeletes() {
+    Event<Integer, String> create1 = new Event<>(CREATE, 1, "a");
+    Event<Integer, String> batch2 = Event.createBatch(2, List.of("b", "c"));
+    Event<Integer, String> delete1 = new Event<>(DELETE, 1, null);
+    Event<Integer, String> delete2 = new Event<>(DELETE, 2, null);
+    Event<Integer, String> create3 = new Event<>(CREATE, 3, "d");
+
+    assertEquals(
+        List.of(List.of(create1, batch2), List.of(delete1, delete2), List.of(create3)),
+        EventBatches.runs(List.of(create1, batch2, delete1, delete2, create3)));
+  }
+
+  @Test
+  void reportsFailedBatchEntityAsCreateEvent() {
+    Event<Integer, String> batch = Event.createBatch(2, List.of("b", "c"));
+
+    List<EventItem<Integer, String>> items = EventItem.of(batch).toList();
+    assertEquals(2, items.size());
+
+    EventFailure<Integer, String> failure = items.get(1).failed(new IllegalStateException());
+    assertEquals(CREATE, failure.event().eventType());
+    assertEquals(2, failure.event().key());
+    assertEquals("c", failure.event().data());
+  }
+}
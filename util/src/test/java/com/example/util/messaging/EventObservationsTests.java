@@ -0,0 +1,121 @@
+package com.example.util.messaging;
+
+import com.example.api.event.Event;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.micrometer.observation.transport.ReceiverContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.example.api.event.Event.Type.CREATE;
+import static com.example.api.event.Event.Type.DELETE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventObservationsTests {
+  private final ObservationRegistry registry = ObservationRegistry.create();
+  private final EventObservations observations = new EventObservations(registry);
+  private final Map<Observation.Context, String> traces = new ConcurrentHashMap<>();
+  private final List<Observation.Context> stopped = new CopyOnWriteArrayList<>();
+
+  EventObservationsTests() {
+    // Stands in for the tracing handler, an observation is in the trace of its traceparent header or of its parent
+    registry.observationConfig().observationHandler(new ObservationHandler<Observation.Context>() {
+      @Override
+      public void onStart(Observation.Context context) {
+        if (context instanceof ReceiverContext<?> receiver) {
+          traces.put(context, traceparent(receiver));
+        } else if (context.getParentObservation() != null) {
+          traces.put(context, traces.get(context.getParentObservation().getContextView()));
+        }
+      }
+
+      @Override
+      public void onStop(Observation.Context context) {
+        stopped.add(context);
+      }
+
+      @Override
+      public boolean supportsContext(Observation.Context context) {
+        return true;
+      }
+    });
+  }
+
+  @Test
+  void continuesTheTraceOfEachEventOfABatch() {
+    Message<Event<Integer, String>> first = message(new Event<>(CREATE, 1, "a"), "trace-1");
+    Message<Event<Integer, String>> second = message(new Event<>(DELETE, 2, null), "trace-2");
+    Mono<List<EventFailure<Integer, String>>> write = Mono.deferContextual(context -> {
+      // The bulk write runs in the trace of the first event
+      Observation current = context.get(ObservationThreadLocalAccessor.KEY);
+      assertThat(current.getContextView().getName()).isEqualTo("messaging.batch.process");
+      assertThat(traces.get(current.getContextView())).isEqualTo("trace-1");
+      return Mono.just(List.of());
+    });
+
+    StepVerifier.create(observations.observeBatch(List.of(first, second), write))
+        .expectNext(List.of())
+        .verifyComplete();
+
+    assertThat(stopped)
+        .filteredOn(context -> context.getName().equals("messaging.event.process"))
+        .extracting(traces::get)
+        .containsExactlyInAnyOrder("trace-1", "trace-2");
+  }
+
+  @Test
+  void failsTheObservationsOfTheFailedEvents() {
+    Event<Integer, String> failedItem = new Event<>(CREATE, 2, "c");
+    Message<Event<Integer, String>> first = message(new Event<>(CREATE, 1, "a"), "trace-1");
+    Message<Event<Integer, String>> second = message(Event.createBatch(2, List.of("b", "c")), "trace-2");
+    IllegalStateException cause = new IllegalStateException("Duplicate key");
+
+    StepVerifier.create(observations.observeBatch(List.of(first, second),
+            Mono.just(List.of(new EventFailure<>(failedItem, cause)))))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    assertThat(stopped)
+        .filteredOn(context -> context.getName().equals("messaging.event.process"))
+        .hasSize(2)
+        .allSatisfy(context -> assertThat(context.getError())
+            .isEqualTo("trace-2".equals(traces.get(context)) ? cause : null));
+  }
+
+  @Test
+  void failsAllEventsWhenTheBatchFails() {
+    IllegalStateException cause = new IllegalStateException("Connection refused");
+
+    StepVerifier.create(observations.<Integer, String>observeBatch(
+            List.of(message(new Event<>(CREATE, 1, "a"), "trace-1"), message(new Event<>(CREATE, 2, "b"), "trace-2")),
+            Mono.error(cause)))
+        .verifyErrorMessage("Connection refused");
+
+    assertThat(stopped)
+        .hasSize(3)
+        .allSatisfy(context -> assertThat(context.getError()).isEqualTo(cause));
+  }
+
+  private static Message<Event<Integer, String>> message(Event<Integer, String> event, String traceparent) {
+    return MessageBuilder.withPayload(event)
+        .setHeader("traceparent", traceparent.getBytes(StandardCharsets.UTF_8))
+        .build();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static String traceparent(ReceiverContext<?> context) {
+    ReceiverContext<Object> receiver = (ReceiverContext<Object>) context;
+    return receiver.getGetter().get(receiver.getCarrier(), "traceparent");
+  }
+}
@@ -0,0 +1,52 @@
+package com.example.util.messaging;
+
+import com.example.api.event.Event;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.api.event.Event.Type.CREATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventPropagationMetricsTests {
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final EventPropagationMetrics metrics = new EventPropagationMetrics(registry);
+
+  @Test
+  void recordsTimeSinceEventCreationByTopicPartitionAndType() {
+    Message<Event<Integer, String>> message = message(new Event<>(CREATE, 1, "a", ZonedDateTime.now().minusSeconds(2)));
+
+    metrics.persisted(message);
+
+    Timer timer = registry.get("messaging.event.propagation")
+        .tags("topic", "reviews", "partition", "1", "type", "CREATE").timer();
+    assertEquals(1, timer.count());
+    assertTrue(timer.totalTime(TimeUnit.SECONDS) >= 2);
+  }
+
+  @Test
+  void leavesFailedEventsOfBatchOut() {
+    Message<Event<Integer, String>> persisted = message(new Event<>(CREATE, 1, "a"));
+    Message<Event<Integer, String>> failed = message(new Event<>(CREATE, 2, "b"));
+
+    metrics.persisted(List.of(persisted, failed),
+        List.of(new EventFailure<>(failed.getPayload(), new IllegalStateException())));
+
+    assertEquals(1, registry.get("messaging.event.propagation").timer().count());
+  }
+
+  private Message<Event<Integer, String>> message(Event<Integer, String> event) {
+    return MessageBuilder.withPayload(event)
+        .setHeader(KafkaHeaders.RECEIVED_TOPIC, "reviews")
+        .setHeader(KafkaHeaders.RECEIVED_PARTITION, 1)
+        .build();
+  }
+}
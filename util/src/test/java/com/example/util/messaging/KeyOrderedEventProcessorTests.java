@@ -0,0 +1,144 @@
+package com.example.util.messaging;
+
+import com.example.api.event.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static com.example.api.event.Event.Type.CREATE;
+import static com.example.api.event.Event.Type.DELETE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class KeyOrderedEventProcessorTests {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final KeyOrderedEventProcessor processor = new KeyOrderedEventProcessor(4, meterRegistry);
+
+  @Test
+  void processesEventsOfSameKeyInOrder() {
+    List<String> processed = new CopyOnWriteArrayList<>();
+
+    // The create of key 1 is the slowest, its delete must still come after it
+    Flux<Message<Event<Integer, String>>> messages = Flux.just(
+        message(new Event<>(CREATE, 1, "slow")),
+        message(new Event<>(CREATE, 2, "fast")),
+        message(new Event<>(DELETE, 1, null)));
+
+    StepVerifier.create(processor.process(messages, event -> Mono.delay(Duration.ofMillis(
+                "slow".equals(event.data()) ? 100 : 1))
+            .doOnNext(t -> processed.add(event.eventType() + "-" + event.key()))
+            .then(), KeyOrderedEventProcessorTests::unexpected))
+        .verifyComplete();
+
+    assertEquals(List.of("CREATE-2", "CREATE-1", "DELETE-1"), processed);
+    assertEquals(0.0, meterRegistry.get("messaging.events.pending").gauge().value());
+    assertEquals(3, meterRegistry.get("messaging.key.queue.depth").summary().count());
+    assertEquals(2.0, meterRegistry.get("messaging.key.queue.depth").summary().max());
+  }
+
+  @Test
+  void processesDifferentKeysConcurrentlyUpToLimit() {
+    AtomicInteger inProgress = new AtomicInteger();
+    AtomicInteger maxInProgress = new AtomicInteger();
+
+    Flux<Message<Event<Integer, String>>> messages = Flux.range(1, 20)
+        .map(key -> message(new Event<>(CREATE, key, "data")));
+
+    StepVerifier.create(processor.process(messages, event -> Mono.delay(Duration.ofMillis(10))
+            .doOnSubscribe(s -> maxInProgress.accumulateAndGet(inProgress.incrementAndGet(), Math::max))
+            .doFinally(s -> inProgress.decrementAndGet())
+            .then(), KeyOrderedEventProcessorTests::unexpected))
+        .verifyComplete();
+
+    assertTrue(maxInProgress.get() > 1);
+    assertTrue(maxInProgress.get() <= 4);
+  }
+
+  @Test
+  void keepsProcessingAndAcknowledgingWhenAnEventFails() {
+    List<String> processed = new CopyOnWriteArrayList<>();
+    List<EventFailure<Integer, String>> failures = new CopyOnWriteArrayList<>();
+    List<ReceiverOffset> offsets = IntStream.range(0, 6).mapToObj(i -> mock(ReceiverOffset.class)).toList();
+
+    // Key 1 fails its create, its delete and the events of the other keys still follow
+    Flux<Message<Event<Integer, String>>> messages = Flux.just(
+        message(new Event<>(CREATE, 1, "fails"), offsets.get(0)),
+        message(new Event<>(CREATE, 2, "a"), offsets.get(1)),
+        message(new Event<>(CREATE, 3, "throws"), offsets.get(2)),
+        message(new Event<>(DELETE, 1, null), offsets.get(3)),
+        message(new Event<>(CREATE, 5, "b"), offsets.get(4)),
+        message(new Event<>(DELETE, 2, null), offsets.get(5)));
+
+    StepVerifier.create(processor.<Integer, String>process(messages, event -> {
+          if ("throws".equals(event.data())) {
+            throw new IllegalArgumentException("Invalid data");
+          }
+          return "fails".equals(event.data())
+              ? Mono.error(new IllegalStateException("Duplicate key"))
+              : Mono.fromRunnable(() -> processed.add(event.eventType() + "-" + event.key()));
+        }, failure -> Mono.fromRunnable(() -> failures.add(failure))))
+        .verifyComplete();
+
+    // Key 5 shares the lane of key 1
+    assertEquals(Set.of("DELETE-1", "CREATE-2", "DELETE-2", "CREATE-5"), Set.copyOf(processed));
+    assertTrue(processed.indexOf("CREATE-2") < processed.indexOf("DELETE-2"));
+    assertEquals(List.of("Duplicate key", "Invalid data"),
+        failures.stream().map(failure -> failure.cause().getMessage()).sorted().toList());
+    offsets.forEach(offset -> verify(offset).acknowledge());
+    assertEquals(0.0, meterRegistry.get("messaging.events.pending").gauge().value());
+  }
+
+  @Test
+  void retriesTheFailureHandlerAndKeepsProcessingWhenItFails() {
+    List<String> processed = new CopyOnWriteArrayList<>();
+    AtomicInteger deadLetterAttempts = new AtomicInteger();
+    List<ReceiverOffset> offsets = IntStream.range(0, 3).mapToObj(i -> mock(ReceiverOffset.class)).toList();
+
+    // The dead letter topic is unavailable for the first two attempts, the events after the failed one still follow
+    Flux<Message<Event<Integer, String>>> messages = Flux.just(
+        message(new Event<>(CREATE, 1, "fails"), offsets.get(0)),
+        message(new Event<>(DELETE, 1, null), offsets.get(1)),
+        message(new Event<>(CREATE, 2, "a"), offsets.get(2)));
+
+    StepVerifier.create(processor.<Integer, String>process(messages,
+            event -> "fails".equals(event.data())
+                ? Mono.error(new IllegalStateException("Duplicate key"))
+                : Mono.fromRunnable(() -> processed.add(event.eventType() + "-" + event.key())),
+            failure -> deadLetterAttempts.incrementAndGet() <= 2
+                ? Mono.error(new IllegalStateException("Dead letter topic unavailable"))
+                : Mono.empty()))
+        .expectComplete()
+        .verify(Duration.ofSeconds(5));
+
+    assertEquals(3, deadLetterAttempts.get());
+    assertEquals(Set.of("DELETE-1", "CREATE-2"), Set.copyOf(processed));
+    offsets.forEach(offset -> verify(offset).acknowledge());
+  }
+
+  private static Mono<Void> unexpected(EventFailure<Integer, String> failure) {
+    return Mono.error(new AssertionError("Unexpected failure", failure.cause()));
+  }
+
+  private static Message<Event<Integer, String>> message(Event<Integer, String> event) {
+    return MessageBuilder.withPayload(event).build();
+  }
+
+  private static Message<Event<Integer, String>> message(Event<Integer, String> event, ReceiverOffset offset) {
+    return MessageBuilder.withPayload(event).setHeader(KafkaHeaders.ACKNOWLEDGMENT, offset).build();
+  }
+}
@@ -0,0 +1,72 @@
+package com.example.util.messaging;
+
+import com.example.api.event.Event;
+import com.example.api.exception.InvalidInputException;
+import com.mongodb.bulk.BulkWriteResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static com.example.api.event.Event.Type.CREATE;
+import static com.example.api.event.Event.Type.DELETE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MongoEventBatchWriterTests {
+  private final ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+  private final ReactiveBulkOperations bulkOperations = mock(ReactiveBulkOperations.class);
+  private final MongoEventBatchWriter<Item, Item> writer = new MongoEventBatchWriter<>(mongoTemplate, Item.class,
+      Item::productId, item -> item, item -> "Duplicate key, Product Id: " + item.productId());
+
+  @Test
+  void failsTheEventsOfARunThatFailsAsAWhole() {
+    when(mongoTemplate.bulkOps(BulkMode.UNORDERED, Item.class)).thenReturn(bulkOperations);
+    when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+    when(bulkOperations.remove(any(Query.class))).thenReturn(bulkOperations);
+    DataAccessResourceFailureException cause = new DataAccessResourceFailureException("Connection refused");
+    when(bulkOperations.execute())
+        .thenReturn(Mono.error(cause))
+        .thenReturn(Mono.just(mock(BulkWriteResult.class)));
+    Event<Integer, Item> failed = new Event<>(CREATE, 1, new Item(1));
+
+    // The runs after the failed one are still written
+    StepVerifier.create(writer.write(List.of(
+            failed, new Event<>(DELETE, 2, null), new Event<>(CREATE, 3, new Item(3)))))
+        .assertNext(failures -> assertThat(failures).containsExactly(new EventFailure<>(failed, cause)))
+        .verifyComplete();
+    verify(bulkOperations, times(3)).execute();
+  }
+
+  @Test
+  void failsInvalidEventsWithoutWritingThem() {
+    when(mongoTemplate.bulkOps(BulkMode.UNORDERED, Item.class)).thenReturn(bulkOperations);
+    when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+    when(bulkOperations.execute()).thenReturn(Mono.just(mock(BulkWriteResult.class)));
+
+    StepVerifier.create(writer.write(List.of(new Event<>(CREATE, 0, new Item(0)), new Event<>(CREATE, 1, null),
+            Event.createBatch(2, List.of(new Item(2), new Item(3))))))
+        .assertNext(failures -> assertThat(failures)
+            .extracting(EventFailure::cause)
+            .allSatisfy(cause -> assertThat(cause).isInstanceOf(InvalidInputException.class))
+            .extracting(Throwable::getMessage)
+            .containsExactly("Invalid productId: 0", "Invalid productId: null",
+                "Invalid productId: 3, the key of its event is 2"))
+        .verifyComplete();
+    verify(bulkOperations).insert(List.of(new Item(2)));
+  }
+
+  record Item(int productId) {
+  }
+}